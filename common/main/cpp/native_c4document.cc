@@ -133,6 +133,21 @@ Java_com_couchbase_lite_internal_core_C4Document_getSelectedBody2(JNIEnv *env, j
     return (jlong) root;
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_C4Document
+ * Method:    getSelectedBodyBuffer
+ * Signature: (J)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_core_C4Document_getSelectedBodyBuffer(JNIEnv *env, jclass ignore, jlong jdoc) {
+    auto doc = (C4Document *) jdoc;
+    C4Slice body = doc->selectedRev.body;
+    if (body.size == 0)
+        return nullptr;
+    // The buffer is not a copy: it is valid only as long as the document and its selected revision.
+    return env->NewDirectByteBuffer((void *) body.buf, (jlong) body.size);
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_C4Document
  * Method:    get
@@ -586,6 +601,23 @@ Java_com_couchbase_lite_internal_core_C4Document_dictContainsBlobs(JNIEnv *env,
     return containsBlobs;
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_C4Document
+ * Method:    dictGetString
+ * Signature: (JJLjava/lang/String;)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_core_C4Document_dictGetString(JNIEnv *env, jclass ignore,
+                                                          jlong jbody, jlong jsk, jstring jkey) {
+    jstringSlice key(env, jkey);
+    FLDoc doc = FLDoc_FromResultData(*(FLSliceResult *) jbody, kFLTrusted, (FLSharedKeys) jsk, kFLSliceNull);
+    FLDict dict = FLValue_AsDict(FLDoc_GetRoot(doc));
+    FLString str = FLValue_AsString(FLDict_Get(dict, key));
+    jstring jstr = (str.buf == nullptr) ? nullptr : toJString(env, str);
+    FLDoc_Release(doc);
+    return jstr;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_C4Document
  * Method:    bodyAsJSON
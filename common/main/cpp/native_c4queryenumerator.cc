@@ -15,6 +15,7 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 //
+#include <vector>
 #include <c4.h>
 #include <c4Base.h>
 #include "com_couchbase_lite_internal_core_C4QueryEnumerator.h"
@@ -49,6 +50,144 @@ Java_com_couchbase_lite_internal_core_C4QueryEnumerator_next(JNIEnv *env, jclass
     return result;
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_core_C4QueryEnumerator
+ * Method:    nextRows
+ * Signature: (JII[J[J[F[D[Z[J)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_core_C4QueryEnumerator_nextRows(JNIEnv *env, jclass ignore, jlong handle,
+                                                                 jint nCols, jint maxRows,
+                                                                 jlongArray jvalues, jlongArray jints,
+                                                                 jfloatArray jfloats, jdoubleArray jdoubles,
+                                                                 jbooleanArray jbools, jlongArray jmissing) {
+    auto e = (C4QueryEnumerator *) handle;
+    if (e == nullptr || nCols < 0 || maxRows <= 0)
+        return 0;
+
+    size_t n = (size_t) nCols * (size_t) maxRows;
+    std::vector<jlong> values(n);
+    std::vector<jlong> ints(n);
+    std::vector<jfloat> floats(n);
+    std::vector<jdouble> doubles(n);
+    std::vector<jboolean> bools(n);
+    std::vector<jlong> missing((size_t) maxRows);
+
+    C4Error error = {};
+    jint rows = 0;
+    while (rows < maxRows) {
+        if (!c4queryenum_next(e, &error)) {
+            // Report an error only if there are no rows to return: the next call will encounter it again.
+            if (error.code != 0 && rows == 0) {
+                throwError(env, error);
+                return 0;
+            }
+            break;
+        }
+
+        missing[rows] = (jlong) e->missingColumns;
+
+        size_t base = (size_t) rows * (size_t) nCols;
+        for (jint i = 0; i < nCols; i++) {
+            FLValue value = FLArrayIterator_GetValueAt(&(e->columns), (uint32_t) i);
+            values[base + i] = (jlong) value;
+            ints[base + i] = (jlong) FLValue_AsInt(value);
+            floats[base + i] = (jfloat) FLValue_AsFloat(value);
+            doubles[base + i] = (jdouble) FLValue_AsDouble(value);
+            bools[base + i] = (jboolean) FLValue_AsBool(value);
+        }
+
+        rows++;
+    }
+
+    if (rows > 0) {
+        jsize cells = (jsize) (rows * nCols);
+        env->SetLongArrayRegion(jvalues, 0, cells, values.data());
+        env->SetLongArrayRegion(jints, 0, cells, ints.data());
+        env->SetFloatArrayRegion(jfloats, 0, cells, floats.data());
+        env->SetDoubleArrayRegion(jdoubles, 0, cells, doubles.data());
+        env->SetBooleanArrayRegion(jbools, 0, cells, bools.data());
+        env->SetLongArrayRegion(jmissing, 0, rows, missing.data());
+    }
+
+    return rows;
+}
+
+// Advance the enumerator by up to maxRows rows, reading the given columns of each, with the given function,
+// into buf, in row order.  Returns the number of rows read, or -1 if there was an error.
+template<typename T, typename F>
+static jint readColumns(JNIEnv *env, C4QueryEnumerator *e, jintArray jcols, jint maxRows, std::vector<T> &buf,
+                        F read) {
+    jsize nCols = env->GetArrayLength(jcols);
+    std::vector<jint> cols((size_t) nCols);
+    env->GetIntArrayRegion(jcols, 0, nCols, cols.data());
+
+    buf.reserve((size_t) nCols * (size_t) maxRows);
+
+    C4Error error = {};
+    jint rows = 0;
+    while (rows < maxRows) {
+        if (!c4queryenum_next(e, &error)) {
+            if (error.code != 0 && rows == 0) {
+                throwError(env, error);
+                return -1;
+            }
+            break;
+        }
+
+        for (jint col : cols)
+            buf.push_back(read(FLArrayIterator_GetValueAt(&(e->columns), (uint32_t) col)));
+
+        rows++;
+    }
+
+    return rows;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_C4QueryEnumerator
+ * Method:    nextLongs
+ * Signature: (J[II[JI)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_core_C4QueryEnumerator_nextLongs(JNIEnv *env, jclass ignore, jlong handle,
+                                                                  jintArray jcols, jint maxRows,
+                                                                  jlongArray jdst, jint offset) {
+    auto e = (C4QueryEnumerator *) handle;
+    if (e == nullptr || maxRows <= 0)
+        return 0;
+
+    std::vector<jlong> buf;
+    jint rows = readColumns(env, e, jcols, maxRows, buf, [](FLValue v) { return (jlong) FLValue_AsInt(v); });
+    if (rows <= 0)
+        return 0;
+
+    env->SetLongArrayRegion(jdst, offset, (jsize) buf.size(), buf.data());
+    return rows;
+}
+
+/*
+ * Class:     com_couchbase_lite_internal_core_C4QueryEnumerator
+ * Method:    nextDoubles
+ * Signature: (J[II[DI)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_core_C4QueryEnumerator_nextDoubles(JNIEnv *env, jclass ignore, jlong handle,
+                                                                    jintArray jcols, jint maxRows,
+                                                                    jdoubleArray jdst, jint offset) {
+    auto e = (C4QueryEnumerator *) handle;
+    if (e == nullptr || maxRows <= 0)
+        return 0;
+
+    std::vector<jdouble> buf;
+    jint rows = readColumns(env, e, jcols, maxRows, buf, [](FLValue v) { return (jdouble) FLValue_AsDouble(v); });
+    if (rows <= 0)
+        return 0;
+
+    env->SetDoubleArrayRegion(jdst, offset, (jsize) buf.size(), buf.data());
+    return rows;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_core_C4QueryEnumerator
  * Method:    getRowCount
@@ -21,6 +21,7 @@
 #include "com_couchbase_lite_internal_fleece_FLArrayIterator.h"
 #include "com_couchbase_lite_internal_fleece_FLDict.h"
 #include "com_couchbase_lite_internal_fleece_FLDictIterator.h"
+#include "com_couchbase_lite_internal_fleece_FLSharedKeys.h"
 #include "com_couchbase_lite_internal_fleece_FLValue.h"
 #include "com_couchbase_lite_internal_fleece_FLEncoder.h"
 #include "com_couchbase_lite_internal_fleece_FLSliceResult.h"
@@ -28,6 +29,205 @@
 using namespace litecore;
 using namespace litecore::jni;
 
+// ----------------------------------------------------------------------------
+// Fleece to Java
+//
+// Converts an entire Fleece value tree to Java objects in a single JNI call.
+// ----------------------------------------------------------------------------
+
+static jclass cls_Boolean;          // global reference
+static jmethodID m_Boolean_valueOf; // valueOf(boolean)
+static jclass cls_Long;             // global reference
+static jmethodID m_Long_valueOf;    // valueOf(long)
+static jclass cls_Float;            // global reference
+static jmethodID m_Float_valueOf;   // valueOf(float)
+static jclass cls_Double;           // global reference
+static jmethodID m_Double_valueOf;  // valueOf(double)
+static jclass cls_ArrayList;        // global reference
+static jmethodID m_ArrayList_init;  // constructor
+static jmethodID m_ArrayList_add;   // add
+static jclass cls_HashMap;          // global reference
+static jmethodID m_HashMap_init;    // constructor
+static jmethodID m_HashMap_put;     // put
+
+static jclass findClass(JNIEnv *env, const char *name) {
+    jclass localClass = env->FindClass(name);
+    if (!localClass)
+        return nullptr;
+    return reinterpret_cast<jclass>(env->NewGlobalRef(localClass));
+}
+
+bool litecore::jni::initFleece(JNIEnv *env) {
+    cls_Boolean = findClass(env, "java/lang/Boolean");
+    if (!cls_Boolean)
+        return false;
+    m_Boolean_valueOf = env->GetStaticMethodID(cls_Boolean, "valueOf", "(Z)Ljava/lang/Boolean;");
+    if (!m_Boolean_valueOf)
+        return false;
+
+    cls_Long = findClass(env, "java/lang/Long");
+    if (!cls_Long)
+        return false;
+    m_Long_valueOf = env->GetStaticMethodID(cls_Long, "valueOf", "(J)Ljava/lang/Long;");
+    if (!m_Long_valueOf)
+        return false;
+
+    cls_Float = findClass(env, "java/lang/Float");
+    if (!cls_Float)
+        return false;
+    m_Float_valueOf = env->GetStaticMethodID(cls_Float, "valueOf", "(F)Ljava/lang/Float;");
+    if (!m_Float_valueOf)
+        return false;
+
+    cls_Double = findClass(env, "java/lang/Double");
+    if (!cls_Double)
+        return false;
+    m_Double_valueOf = env->GetStaticMethodID(cls_Double, "valueOf", "(D)Ljava/lang/Double;");
+    if (!m_Double_valueOf)
+        return false;
+
+    cls_ArrayList = findClass(env, "java/util/ArrayList");
+    if (!cls_ArrayList)
+        return false;
+    m_ArrayList_init = env->GetMethodID(cls_ArrayList, "<init>", "(I)V");
+    if (!m_ArrayList_init)
+        return false;
+    m_ArrayList_add = env->GetMethodID(cls_ArrayList, "add", "(Ljava/lang/Object;)Z");
+    if (!m_ArrayList_add)
+        return false;
+
+    cls_HashMap = findClass(env, "java/util/HashMap");
+    if (!cls_HashMap)
+        return false;
+    m_HashMap_init = env->GetMethodID(cls_HashMap, "<init>", "(I)V");
+    if (!m_HashMap_init)
+        return false;
+    m_HashMap_put = env->GetMethodID(
+            cls_HashMap,
+            "put",
+            "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+    if (!m_HashMap_put)
+        return false;
+
+    return true;
+}
+
+static jobject toJavaObject(JNIEnv *env, FLValue value, jobjectArray keyTable);
+
+// Returns the current key.  If there is a key table, a shared key's string is
+// taken from, or added to, the table, indexed by the key's ID.
+static jstring toJavaKey(JNIEnv *env, FLDictIterator *itr, jobjectArray keyTable) {
+    if (keyTable) {
+        FLValue key = FLDictIterator_GetKey(itr);
+        if (FLValue_IsInteger(key)) {
+            int64_t keyId = FLValue_AsInt(key);
+            if ((keyId >= 0) && (keyId < env->GetArrayLength(keyTable))) {
+                auto jkey = (jstring) env->GetObjectArrayElement(keyTable, (jsize) keyId);
+                if (jkey)
+                    return jkey;
+
+                jkey = toJString(env, FLDictIterator_GetKeyString(itr));
+                if (jkey)
+                    env->SetObjectArrayElement(keyTable, (jsize) keyId, jkey);
+                return jkey;
+            }
+        }
+    }
+
+    return toJString(env, FLDictIterator_GetKeyString(itr));
+}
+
+static jobject toJavaList(JNIEnv *env, FLArray array, jobjectArray keyTable) {
+    jobject list = env->NewObject(cls_ArrayList, m_ArrayList_init, (jint) FLArray_Count(array));
+    if (!list)
+        return nullptr;
+
+    FLArrayIterator itr;
+    FLArrayIterator_Begin(array, &itr);
+    FLValue value;
+    while ((value = FLArrayIterator_GetValue(&itr)) != nullptr) {
+        jobject jvalue = toJavaObject(env, value, keyTable);
+        if (env->ExceptionCheck())
+            return nullptr;
+
+        env->CallBooleanMethod(list, m_ArrayList_add, jvalue);
+        if (jvalue)
+            env->DeleteLocalRef(jvalue);
+        if (env->ExceptionCheck())
+            return nullptr;
+
+        FLArrayIterator_Next(&itr);
+    }
+
+    return list;
+}
+
+static jobject toJavaMap(JNIEnv *env, FLDict dict, jobjectArray keyTable) {
+    uint32_t n = FLDict_Count(dict);
+    // size the map so that it need not be rehashed
+    jobject map = env->NewObject(cls_HashMap, m_HashMap_init, (jint) (n + (n / 3) + 1));
+    if (!map)
+        return nullptr;
+
+    FLDictIterator itr;
+    FLDictIterator_Begin(dict, &itr);
+    FLValue value;
+    while ((value = FLDictIterator_GetValue(&itr)) != nullptr) {
+        jstring jkey = toJavaKey(env, &itr, keyTable);
+        if (env->ExceptionCheck())
+            return nullptr;
+
+        // A key that cannot be converted is lost.  See FLValue.asString.
+        if (jkey) {
+            jobject jvalue = toJavaObject(env, value, keyTable);
+            if (env->ExceptionCheck())
+                return nullptr;
+
+            jobject prev = env->CallObjectMethod(map, m_HashMap_put, jkey, jvalue);
+            if (prev)
+                env->DeleteLocalRef(prev);
+            if (jvalue)
+                env->DeleteLocalRef(jvalue);
+            env->DeleteLocalRef(jkey);
+            if (env->ExceptionCheck())
+                return nullptr;
+        }
+
+        FLDictIterator_Next(&itr);
+    }
+
+    return map;
+}
+
+// Integers become Longs, doubles Doubles and other numbers Floats.  Data becomes a byte[].
+static jobject toJavaObject(JNIEnv *env, FLValue value, jobjectArray keyTable) {
+    switch (FLValue_GetType(value)) {
+        case kFLBoolean:
+            return env->CallStaticObjectMethod(cls_Boolean, m_Boolean_valueOf, (jboolean) FLValue_AsBool(value));
+        case kFLNumber:
+            if (FLValue_IsInteger(value)) {
+                jlong n = FLValue_IsUnsigned(value)
+                          ? (jlong) FLValue_AsUnsigned(value)
+                          : (jlong) FLValue_AsInt(value);
+                return env->CallStaticObjectMethod(cls_Long, m_Long_valueOf, n);
+            }
+            if (FLValue_IsDouble(value))
+                return env->CallStaticObjectMethod(cls_Double, m_Double_valueOf, (jdouble) FLValue_AsDouble(value));
+            return env->CallStaticObjectMethod(cls_Float, m_Float_valueOf, (jfloat) FLValue_AsFloat(value));
+        case kFLString:
+            return toJString(env, FLValue_AsString(value));
+        case kFLData:
+            return toJByteArray(env, FLValue_AsData(value));
+        case kFLArray:
+            return toJavaList(env, FLValue_AsArray(value), keyTable);
+        case kFLDict:
+            return toJavaMap(env, FLValue_AsDict(value), keyTable);
+        case kFLNull:
+        default:
+            return nullptr;
+    }
+}
+
 // ----------------------------------------------------------------------------
 // FLArray
 // ----------------------------------------------------------------------------
@@ -187,6 +387,21 @@ Java_com_couchbase_lite_internal_fleece_FLDictIterator_getKeyString(JNIEnv *env,
     return toJString(env, s);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_FLDictIterator
+ * Method:    getSharedKey
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_couchbase_lite_internal_fleece_FLDictIterator_getSharedKey(JNIEnv *env, jclass ignore, jlong jitr) {
+    // See getKeyString, above.
+    if (!FLDictIterator_GetValue((FLDictIterator *) jitr))
+        return -1;
+
+    FLValue key = FLDictIterator_GetKey((FLDictIterator *) jitr);
+    return FLValue_IsInteger(key) ? (jint) FLValue_AsInt(key) : -1;
+}
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_FLDictIterator
  * Method:    getValue
@@ -227,6 +442,21 @@ Java_com_couchbase_lite_internal_fleece_FLDictIterator_free(JNIEnv *env, jclass
     ::free((FLDictIterator *) jitr);
 }
 
+// ----------------------------------------------------------------------------
+// FLSharedKeys
+// ----------------------------------------------------------------------------
+
+/*
+ * Class:     com_couchbase_lite_internal_fleece_FLSharedKeys
+ * Method:    decode
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL
+Java_com_couchbase_lite_internal_fleece_FLSharedKeys_decode(JNIEnv *env, jclass ignore, jlong jsk, jint jkey) {
+    FLString s = FLSharedKeys_Decode((FLSharedKeys) jsk, (int) jkey);
+    return toJString(env, s);
+}
+
 // ----------------------------------------------------------------------------
 // FLValue
 // ----------------------------------------------------------------------------
@@ -313,6 +543,17 @@ Java_com_couchbase_lite_internal_fleece_FLValue_asDouble(JNIEnv *env, jclass ign
     return (jdouble) FLValue_AsDouble((FLValue) jvalue);
 }
 
+/*
+ * Class:     com_couchbase_lite_internal_fleece_FLValue
+ * Method:    toJava
+ * Signature: (J[Ljava/lang/String;)Ljava/lang/Object;
+ */
+JNIEXPORT jobject JNICALL
+Java_com_couchbase_lite_internal_fleece_FLValue_toJava(JNIEnv *env, jclass ignore, jlong jvalue,
+                                                       jobjectArray jkeyTable) {
+    return toJavaObject(env, (FLValue) jvalue, jkeyTable);
+}
+
 /*
  * Class:     com_couchbase_lite_internal_fleece_FLValue
  * Method:    asString
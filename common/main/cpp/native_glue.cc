@@ -120,7 +120,8 @@ JNI_OnLoad(JavaVM *jvm, void *reserved) {
         #endif
         && initC4Observer(env)
         && initC4Replicator(env)
-        && initC4Socket(env)) {
+        && initC4Socket(env)
+        && initFleece(env)) {
 
         assert(gJVM == nullptr);
         gJVM = jvm;
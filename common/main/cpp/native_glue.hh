@@ -42,6 +42,7 @@ namespace litecore {
         bool initC4Observer(JNIEnv *);   // Implemented in native_c4observer.cc
         bool initC4Replicator(JNIEnv *); // Implemented in native_c4replicator.cc
         bool initC4Socket(JNIEnv *);     // Implemented in native_c4socket.cc
+        bool initFleece(JNIEnv *);       // Implemented in native_fleece.cc
 
 #ifdef COUCHBASE_ENTERPRISE
         bool initC4Listener(JNIEnv *);   // Implemented in native_c4listener.cc
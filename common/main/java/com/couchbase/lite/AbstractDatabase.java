@@ -21,18 +21,27 @@ import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.json.JSONException;
@@ -48,20 +57,22 @@ import com.couchbase.lite.internal.core.C4Database;
 import com.couchbase.lite.internal.core.C4DatabaseChange;
 import com.couchbase.lite.internal.core.C4DatabaseObserver;
 import com.couchbase.lite.internal.core.C4Document;
-import com.couchbase.lite.internal.core.C4DocumentObserver;
-import com.couchbase.lite.internal.core.C4DocumentObserverListener;
 import com.couchbase.lite.internal.core.C4Query;
+import com.couchbase.lite.internal.core.C4QueryCache;
 import com.couchbase.lite.internal.core.C4ReplicationFilter;
 import com.couchbase.lite.internal.core.C4Replicator;
 import com.couchbase.lite.internal.core.C4ReplicatorListener;
 import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLSharedKeys;
 import com.couchbase.lite.internal.fleece.FLSliceResult;
 import com.couchbase.lite.internal.support.Log;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.FileUtils;
 import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.JsonUtils;
+import com.couchbase.lite.internal.utils.LatencyStats;
+import com.couchbase.lite.internal.utils.LineReader;
 import com.couchbase.lite.internal.utils.PlatformUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -105,6 +116,9 @@ abstract class AbstractDatabase {
     // A random but absurdly large number.
     private static final int MAX_CONFLICT_RESOLUTION_RETRIES = 13;
 
+    // Documents larger than this cannot be replicated.
+    private static final int MAX_IMPORT_LINE_LENGTH = 20 * 1024 * 1024;
+
     // How long to wait after a database opens before expiring docs
     private static final long INITIAL_PURGE_DELAY_MS = 3;
     private static final long STANDARD_PURGE_INTERVAL_MS = 1000;
@@ -114,6 +128,11 @@ abstract class AbstractDatabase {
         | C4Constants.DatabaseFlags.AUTO_COMPACT
         | C4Constants.DatabaseFlags.SHARED_KEYS;
 
+    private static final int READ_DATABASE_FLAGS
+        = C4Constants.DatabaseFlags.READ_ONLY
+        | C4Constants.DatabaseFlags.SHARED_KEYS
+        | C4Constants.DatabaseFlags.NON_OBSERVABLE;
+
     static class ActiveProcess<T> {
         @NonNull
         private final T process;
@@ -236,14 +255,43 @@ abstract class AbstractDatabase {
     @NonNull
     private final Object dbLock = new Object();
 
+    // Guards the read-only connection.
+    // Readers hold the read lock while using the connection: shutdown seizes the write lock to close it.
+    // Never seize the write lock while holding dbLock.
+    @NonNull
+    private final ReentrantReadWriteLock readDbLock = new ReentrantReadWriteLock();
+
     private final String name;
 
     private final String path;
 
     // Executor for purge and posting Database/Document changes.
     private final ExecutionService.CloseableExecutor postExecutor;
-    // Executor for LiveQuery.
-    private final ExecutionService.CloseableExecutor queryExecutor;
+    // Executors for LiveQuery.  Each live query is assigned one of them, round robin.
+    private final ExecutionService.CloseableExecutor[] queryExecutors;
+    private final AtomicInteger nextQueryExecutor = new AtomicInteger();
+
+    // Time from a commit to the delivery of the resulting QueryChange to a listener.
+    @NonNull
+    private final LatencyStats liveQueryLatency = new LatencyStats("LiveQuery latency");
+
+    // The time, in ns, at which the observer reported the first change not yet posted. 0 if there is none.
+    private final AtomicLong firstUnpostedChangeAt = new AtomicLong();
+
+    // Serializes reading the database observer and posting the changes.  Never seize dbLock while holding it.
+    @NonNull
+    private final Object changeLock = new Object();
+
+    // Changes waiting for the end of the coalescing window.  The set is emptied when it overflows.
+    @GuardedBy("changeLock")
+    @NonNull
+    private final Set<String> coalescedDocIDs = new LinkedHashSet<>();
+    @GuardedBy("changeLock")
+    private boolean coalescedOverflow;
+    @GuardedBy("changeLock")
+    private long coalescedChangedAt;
+    @GuardedBy("changeLock")
+    private boolean coalescedFlushScheduled;
 
     private final SharedKeys sharedKeys;
 
@@ -252,12 +300,27 @@ abstract class AbstractDatabase {
     @GuardedBy("activeProcesses")
     private final Set<ActiveProcess<?>> activeProcesses;
 
-    @GuardedBy("dbLock")
+    // Document change listeners, by doc ID.  All are fed by the single database observer.
+    // Modified only while holding dbLock: read, without it, when posting changes.
     private final Map<String, DocumentChangeNotifier> docChangeNotifiers;
 
+    // Compiled queries, shared by all Query objects with the same definition. Null if disabled.
+    @GuardedBy("dbLock")
+    @Nullable
+    private final C4QueryCache queryCache;
+
     @GuardedBy("dbLock")
     private C4Database c4Database;
 
+    // Depth of the transactions in progress on c4Database.  LiteCore ignores the commit flag of all but the outermost.
+    @GuardedBy("dbLock")
+    private int transactionDepth;
+
+    // Read-only connection used, when concurrent reads are enabled, by threads that are not writing.
+    @GuardedBy("readDbLock")
+    @Nullable
+    private volatile C4Database c4ReadDb;
+
     @GuardedBy("dbLock")
     private ChangeNotifier<DatabaseChange> dbChangeNotifier;
 
@@ -291,11 +354,19 @@ abstract class AbstractDatabase {
         // Copy configuration
         this.config = config.readOnlyCopy();
 
-        this.postExecutor = CouchbaseLiteInternal.getExecutionService().getSerialExecutor();
-        this.queryExecutor = CouchbaseLiteInternal.getExecutionService().getSerialExecutor();
+        this.postExecutor = CouchbaseLiteInternal.getExecutionService()
+            .getSerialExecutor(ExecutionService.OWNER_DATABASE);
+        this.queryExecutors = new ExecutionService.CloseableExecutor[this.config.getLiveQueryConcurrency()];
+        for (int i = 0; i < queryExecutors.length; i++) {
+            queryExecutors[i] = CouchbaseLiteInternal.getExecutionService()
+                .getSerialExecutor(ExecutionService.OWNER_LIVE_QUERY);
+        }
 
         this.activeProcesses = new HashSet<>();
-        this.docChangeNotifiers = new HashMap<>();
+        this.docChangeNotifiers = new ConcurrentHashMap<>();
+
+        final int queryCacheSize = this.config.getQueryCacheSize();
+        this.queryCache = (queryCacheSize <= 0) ? null : new C4QueryCache(queryCacheSize);
 
         // !!! Verify use of the "tmp" directory
         // It changes when the root directory changes.
@@ -303,9 +374,11 @@ abstract class AbstractDatabase {
         CouchbaseLiteInternal.setupDirectories(config.getRootDirectory());
 
         // Can't open the DB until the file system is set up.
-        this.c4Database = openC4Db();
+        this.c4Database = openC4Db(getDatabaseFlags());
         this.path = c4Database.getPath();
 
+        if (this.config.isConcurrentReadsEnabled()) { this.c4ReadDb = openC4Db(READ_DATABASE_FLAGS); }
+
         // Initialize a shared keys:
         this.sharedKeys = new SharedKeys(c4Database);
 
@@ -333,10 +406,11 @@ abstract class AbstractDatabase {
         this.config = new DatabaseConfiguration();
 
         this.postExecutor = null;
-        this.queryExecutor = null;
+        this.queryExecutors = null;
 
         this.activeProcesses = null;
         this.docChangeNotifiers = null;
+        this.queryCache = null;
 
         this.sharedKeys = null;
 
@@ -372,6 +446,12 @@ abstract class AbstractDatabase {
      * @return the number of documents in the database, 0 if database is closed.
      */
     public long getCount() {
+        final C4Database readDb = lockReadDb();
+        if (readDb != null) {
+            try { return readDb.getDocumentCount(); }
+            finally { unlockReadDb(); }
+        }
+
         synchronized (dbLock) { return (!isOpen()) ? 0L : c4Database.getDocumentCount(); }
     }
 
@@ -394,6 +474,14 @@ abstract class AbstractDatabase {
     public Document getDocument(@NonNull String id) {
         Preconditions.assertNotNull(id, "id");
 
+        final C4Database readDb = lockReadDb();
+        if (readDb != null) {
+            try { return Document.getDocument((Database) this, id, readDb.get(id), false); }
+            // only 404 - Not Found error throws
+            catch (LiteCoreException | CouchbaseLiteException ex) { return null; }
+            finally { unlockReadDb(); }
+        }
+
         synchronized (dbLock) {
             mustBeOpen();
             try { return Document.getDocument((Database) this, id, false); }
@@ -528,6 +616,207 @@ abstract class AbstractDatabase {
         synchronized (dbLock) { purgeLocked(id); }
     }
 
+    /**
+     * Saves several documents in a single transaction.
+     * Calling this method is the same as calling saveAll(Collection, ConcurrencyControl, int)
+     * with a chunk size of 0.
+     *
+     * @param documents          The documents.
+     * @param concurrencyControl The concurrency control.
+     * @return the documents that could not be saved: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> saveAll(
+        @NonNull Collection<MutableDocument> documents,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        return saveAll(documents, concurrencyControl, 0);
+    }
+
+    /**
+     * Saves several documents, committing a transaction after every chunkSize documents.
+     * Each document is saved as if by save(MutableDocument, ConcurrencyControl). A document that cannot be saved
+     * does not prevent the others from being saved: it is reported in the returned map.
+     * With FAIL_ON_CONFLICT concurrency control, a conflicted document is reported with the error code CONFLICT.
+     * Other threads cannot write to the database while a chunk is being saved: use a chunk size
+     * that is small enough to let them through, when importing very large numbers of documents.
+     * <p>
+     * Every item is checked before any change is made: a null item causes an IllegalArgumentException,
+     * and no change. Otherwise, if this method throws, the chunks that have already been committed stay committed.
+     * A failed item is not rolled back on its own: any change it made before failing is committed with its chunk.
+     * If several items have the same ID, the map holds the first failure for that ID.
+     *
+     * @param documents          The documents.
+     * @param concurrencyControl The concurrency control.
+     * @param chunkSize          The number of documents to save in each transaction: 0 to save all of them in one.
+     * @return the documents that could not be saved: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> saveAll(
+        @NonNull Collection<MutableDocument> documents,
+        @NonNull ConcurrencyControl concurrencyControl,
+        int chunkSize)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(documents, "documents");
+        Preconditions.assertNotNull(concurrencyControl, "concurrencyControl");
+        return updateAll(
+            documents,
+            chunkSize,
+            Document::getId,
+            doc -> saveInternal(doc, null, false, concurrencyControl));
+    }
+
+    /**
+     * Deletes several documents in a single transaction.
+     * Calling this method is the same as calling deleteAll(Collection, ConcurrencyControl, int)
+     * with a chunk size of 0.
+     *
+     * @param documents          The documents.
+     * @param concurrencyControl The concurrency control.
+     * @return the documents that could not be deleted: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> deleteAll(
+        @NonNull Collection<? extends Document> documents,
+        @NonNull ConcurrencyControl concurrencyControl)
+        throws CouchbaseLiteException {
+        return deleteAll(documents, concurrencyControl, 0);
+    }
+
+    /**
+     * Deletes several documents, committing a transaction after every chunkSize documents.
+     * Each document is deleted as if by delete(Document, ConcurrencyControl). A document that cannot be deleted
+     * does not prevent the others from being deleted: it is reported in the returned map.
+     * <p>
+     * Every item is checked before any change is made: a null item causes an IllegalArgumentException,
+     * and no change. Otherwise, if this method throws, the chunks that have already been committed stay committed.
+     * A failed item is not rolled back on its own: any change it made before failing is committed with its chunk.
+     * If several items have the same ID, the map holds the first failure for that ID.
+     *
+     * @param documents          The documents.
+     * @param concurrencyControl The concurrency control.
+     * @param chunkSize          The number of documents to delete in each transaction: 0 to delete all of them in one.
+     * @return the documents that could not be deleted: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> deleteAll(
+        @NonNull Collection<? extends Document> documents,
+        @NonNull ConcurrencyControl concurrencyControl,
+        int chunkSize)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(documents, "documents");
+        Preconditions.assertNotNull(concurrencyControl, "concurrencyControl");
+        return updateAll(
+            documents,
+            chunkSize,
+            Document::getId,
+            doc -> saveInternal(doc, null, true, concurrencyControl));
+    }
+
+    /**
+     * Purges several documents in a single transaction.
+     * Calling this method is the same as calling purgeAll(Collection, int) with a chunk size of 0.
+     *
+     * @param ids the document IDs
+     * @return the documents that could not be purged: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> purgeAll(@NonNull Collection<String> ids)
+        throws CouchbaseLiteException {
+        return purgeAll(ids, 0);
+    }
+
+    /**
+     * Purges several documents, committing a transaction after every chunkSize documents.
+     * Each document is purged as if by purge(String). A document that cannot be purged
+     * does not prevent the others from being purged: it is reported in the returned map.
+     * <p>
+     * Every item is checked before any change is made: a null item causes an IllegalArgumentException,
+     * and no change. Otherwise, if this method throws, the chunks that have already been committed stay committed.
+     * A failed item is not rolled back on its own: any change it made before failing is committed with its chunk.
+     * If several items have the same ID, the map holds the first failure for that ID.
+     *
+     * @param ids       the document IDs
+     * @param chunkSize The number of documents to purge in each transaction: 0 to purge all of them in one.
+     * @return the documents that could not be purged: a map of document id to the reason for the failure.
+     * @throws CouchbaseLiteException if a transaction cannot be committed
+     */
+    @NonNull
+    public Map<String, CouchbaseLiteException> purgeAll(@NonNull Collection<String> ids, int chunkSize)
+        throws CouchbaseLiteException {
+        Preconditions.assertNotNull(ids, "ids");
+        return updateAll(ids, chunkSize, id -> id, this::purgeLocked);
+    }
+
+    /**
+     * Imports new documents from newline delimited JSON (NDJSON): each non-empty line of the stream
+     * must be a JSON object, no larger than 20MB, which becomes the body of a new document.
+     * The lines are converted to Fleece natively: no Java objects are created for their contents.
+     * If idProperty is not null and the object has a top level string property with that name, its value
+     * is the document's ID. Otherwise the new document gets a random ID.
+     * A transaction is committed after every chunkSize documents. If a line cannot be imported
+     * (because it is not valid JSON, or a document with its ID already exists) the import stops:
+     * the current chunk is rolled back but documents in earlier chunks remain in the database.
+     * The stream is read while holding the database lock: it should not block for long.
+     *
+     * @param in         The NDJSON stream. It is not closed.
+     * @param idProperty The name of the property that contains a document's ID: may be null.
+     * @param chunkSize  The number of documents to import in each transaction: 0 to import all of them in one.
+     * @return the number of documents imported.
+     * @throws CouchbaseLiteException if a line cannot be imported or a transaction cannot be committed
+     * @throws IOException            if the stream cannot be read, or contains a line that is too long
+     */
+    public long importJSON(@NonNull InputStream in, @Nullable String idProperty, int chunkSize)
+        throws CouchbaseLiteException, IOException {
+        Preconditions.assertNotNull(in, "input stream");
+
+        final int n = (chunkSize <= 0) ? Integer.MAX_VALUE : chunkSize;
+        final LineReader reader = new LineReader(in, MAX_IMPORT_LINE_LENGTH);
+
+        final long start = System.nanoTime();
+        long imported = 0;
+        byte[] line = reader.readLine();
+        while (line != null) {
+            synchronized (dbLock) {
+                final C4Database c4db = getC4DatabaseLocked();
+                final FLSharedKeys sk = sharedKeys.getFLSharedKeys();
+
+                boolean commit = false;
+                beginTransaction();
+                try {
+                    for (int i = 0; (i < n) && (line != null); line = reader.readLine()) {
+                        if (line.length <= 0) { continue; }
+                        importJSONLocked(c4db, sk, line, idProperty, reader.getLineNumber());
+                        imported++;
+                        i++;
+                    }
+                    commit = true;
+                }
+                finally {
+                    endTransaction(commit);
+                }
+            }
+
+            postDatabaseChanged();
+        }
+
+        final long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        Log.i(
+            DOMAIN,
+            "Imported %d documents into %s in %dms (%d docs/sec)",
+            imported,
+            this,
+            elapsedMs,
+            (imported * 1000) / elapsedMs);
+
+        return imported;
+    }
+
     // Database changes:
 
     /**
@@ -569,21 +858,13 @@ abstract class AbstractDatabase {
     public Date getDocumentExpiration(@NonNull String id) throws CouchbaseLiteException {
         Preconditions.assertNotNull(id, "id");
 
-        synchronized (dbLock) {
-            try {
-                if (getC4Document(id) == null) {
-                    throw new CouchbaseLiteException(
-                        "DocumentNotFound",
-                        CBLError.Domain.CBLITE,
-                        CBLError.Code.NOT_FOUND);
-                }
-                final long timestamp = getC4DatabaseLocked().getExpiration(id);
-                return (timestamp == 0) ? null : new Date(timestamp);
-            }
-            catch (LiteCoreException e) {
-                throw CBLStatus.convertException(e);
-            }
+        final C4Database readDb = lockReadDb();
+        if (readDb != null) {
+            try { return getDocumentExpiration(readDb, id); }
+            finally { unlockReadDb(); }
         }
+
+        synchronized (dbLock) { return getDocumentExpiration(getC4DatabaseLocked(), id); }
     }
 
     /**
@@ -598,23 +879,17 @@ abstract class AbstractDatabase {
         Preconditions.assertNotNull(runnable, "runnable");
 
         synchronized (dbLock) {
-            final C4Database db = getC4DatabaseLocked();
+            beginTransaction();
             boolean commit = false;
             try {
-                db.beginTransaction();
-                try {
-                    runnable.run();
-                    commit = true;
-                }
-                catch (RuntimeException e) {
-                    throw new CouchbaseLiteException("In-batch task failed", e);
-                }
-                finally {
-                    db.endTransaction(commit);
-                }
+                runnable.run();
+                commit = true;
             }
-            catch (LiteCoreException e) {
-                throw CBLStatus.convertException(e);
+            catch (RuntimeException e) {
+                throw new CouchbaseLiteException("In-batch task failed", e);
+            }
+            finally {
+                endTransaction(commit);
             }
         }
 
@@ -663,17 +938,17 @@ abstract class AbstractDatabase {
     public void removeChangeListener(@NonNull ListenerToken token) {
         Preconditions.assertNotNull(token, "token");
 
-        synchronized (dbLock) {
-            if (token instanceof ChangeListenerToken) {
-                final ChangeListenerToken<?> changeListenerToken = (ChangeListenerToken<?>) token;
-                if (changeListenerToken.getKey() != null) {
-                    removeDocumentChangeListenerLocked(changeListenerToken);
-                    return;
-                }
-            }
+        final boolean isDocListener
+            = (token instanceof ChangeListenerToken) && (((ChangeListenerToken<?>) token).getKey() != null);
 
-            removeDatabaseChangeListenerLocked(token);
+        final C4DatabaseObserver unusedObserver;
+        synchronized (dbLock) {
+            unusedObserver = (isDocListener)
+                ? removeDocumentChangeListenerLocked((ChangeListenerToken<?>) token)
+                : removeDatabaseChangeListenerLocked(token);
         }
+
+        freeC4DbObserver(unusedObserver);
     }
 
 
@@ -750,13 +1025,16 @@ abstract class AbstractDatabase {
         synchronized (dbLock) {
             final C4Database c4Db = getC4DatabaseLocked();
             try {
-                final String json = JsonUtils.toJson(index.items()).toString();
+                final String json = JsonUtils.toJsonString(index.items());
                 c4Db.createIndex(
                     name,
                     json,
                     index.type().getValue(),
                     index.language(),
                     index.ignoreAccents());
+
+                // cached queries may be able to use the new index
+                clearQueryCacheLocked();
             }
             catch (LiteCoreException e) {
                 throw CBLStatus.convertException(e);
@@ -770,7 +1048,11 @@ abstract class AbstractDatabase {
 
     public void deleteIndex(@NonNull String name) throws CouchbaseLiteException {
         synchronized (dbLock) {
-            try { getC4DatabaseLocked().deleteIndex(name); }
+            try {
+                getC4DatabaseLocked().deleteIndex(name);
+                // cached queries may use the deleted index
+                clearQueryCacheLocked();
+            }
             catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
         }
     }
@@ -817,7 +1099,7 @@ abstract class AbstractDatabase {
 
             // This stuff might just speed things up a little
             shutdownActiveProcesses(activeProcesses);
-            shutdownExecutors(postExecutor, queryExecutor, 0);
+            shutdownExecutors(postExecutor, queryExecutors, 0);
         }
         finally {
             super.finalize();
@@ -843,6 +1125,10 @@ abstract class AbstractDatabase {
         return (path != null) && path.equals(otherPath);
     }
 
+    // Null for a shell database.
+    @Nullable
+    SharedKeys getSharedKeys() { return sharedKeys; }
+
     @NonNull
     C4BlobStore getBlobStore() throws LiteCoreException {
         synchronized (dbLock) { return getC4DatabaseLocked().getBlobStore(); }
@@ -916,6 +1202,30 @@ abstract class AbstractDatabase {
         synchronized (dbLock) { return getC4DatabaseLocked().createQuery(json); }
     }
 
+    // Returns a compiled query from the cache, or null if the cache is disabled.
+    // The cache owns the query: the caller must not free it or use it after releasing the lock.
+    @GuardedBy("dbLock")
+    @Nullable
+    C4Query getCachedQueryLocked(@NonNull String json) throws LiteCoreException {
+        final C4Database c4Db = getC4DatabaseLocked();
+        return (queryCache == null) ? null : queryCache.get(c4Db, json);
+    }
+
+    // Record the time from a commit, at changedAtNs, to the delivery of the resulting QueryChange.
+    void recordLiveQueryLatency(long changedAtNs) {
+        if (changedAtNs != 0) { liveQueryLatency.record(System.nanoTime() - changedAtNs); }
+    }
+
+    @VisibleForTesting
+    @NonNull
+    LatencyStats getLiveQueryLatency() { return liveQueryLatency; }
+
+    @VisibleForTesting
+    @Nullable
+    C4QueryCache getQueryCache() {
+        synchronized (dbLock) { return queryCache; }
+    }
+
     C4Document getC4Document(@NonNull String id) throws LiteCoreException {
         synchronized (dbLock) { return getC4DatabaseLocked().get(id); }
     }
@@ -932,14 +1242,6 @@ abstract class AbstractDatabase {
         synchronized (dbLock) { return getC4DatabaseLocked().purgeExpiredDocs(); }
     }
 
-    @NonNull
-    C4DocumentObserver createDocumentObserver(
-        @NonNull ChangeNotifier<?> context,
-        @NonNull String docID,
-        @NonNull C4DocumentObserverListener listener) {
-        synchronized (dbLock) { return getC4DatabaseLocked().createDocumentObserver(docID, listener, context); }
-    }
-
     //////// REPLICATORS:
 
     @SuppressWarnings("PMD.ExcessiveParameterList")
@@ -1104,8 +1406,15 @@ abstract class AbstractDatabase {
         CouchbaseLiteInternal.getExecutionService().postDelayedOnExecutor(delayMs, postExecutor, task);
     }
 
-    void scheduleOnQueryExecutor(@NonNull Runnable task, long delayMs) {
-        CouchbaseLiteInternal.getExecutionService().postDelayedOnExecutor(delayMs, queryExecutor, task);
+    // Get one of the live query executors.  A live query must run all of its refreshes on the same executor.
+    @NonNull
+    ExecutionService.CloseableExecutor getQueryExecutor() {
+        final int n = queryExecutors.length;
+        return queryExecutors[((nextQueryExecutor.getAndIncrement() % n) + n) % n];
+    }
+
+    void scheduleOnQueryExecutor(@NonNull Executor executor, @NonNull Runnable task, long delayMs) {
+        CouchbaseLiteInternal.getExecutionService().postDelayedOnExecutor(delayMs, executor, task);
     }
 
     void registerProcess(ActiveProcess<?> process) {
@@ -1131,22 +1440,27 @@ abstract class AbstractDatabase {
     private void beginTransaction() throws CouchbaseLiteException {
         try { getC4DatabaseLocked().beginTransaction(); }
         catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
+        transactionDepth++;
     }
 
     @GuardedBy("dbLock")
     private void endTransaction(boolean commit) throws CouchbaseLiteException {
         try { getC4DatabaseLocked().endTransaction(commit); }
         catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
+        finally {
+            // Aborting the outermost transaction discards any shared keys that it added.
+            if ((--transactionDepth <= 0) && (!commit) && (sharedKeys != null)) { sharedKeys.invalidate(); }
+        }
     }
 
-    private C4Database openC4Db() throws CouchbaseLiteException {
+    private C4Database openC4Db(int flags) throws CouchbaseLiteException {
         final File dbFile = getDatabaseFile(new File(config.getDirectory()), this.name);
-        Log.v(DOMAIN, "Opening %s at path %s", this, dbFile.getPath());
+        Log.v(DOMAIN, "Opening %s at path %s (flags: 0x%02x)", this, dbFile.getPath(), flags);
 
         try {
             return new C4Database(
                 dbFile.getPath(),
-                getDatabaseFlags(),
+                flags,
                 null,
                 C4Constants.DocumentVersioning.REVISION_TREES,
                 getEncryptionAlgorithm(),
@@ -1171,8 +1485,66 @@ abstract class AbstractDatabase {
 
     private int getDatabaseFlags() { return DEFAULT_DATABASE_FLAGS; }
 
+    // Returns the read-only connection, with its read lock held, if there is one and it is safe to use it.
+    // A thread that holds dbLock may be in the middle of a transaction, so must see its own uncommitted
+    // changes: it gets null and must use the main connection.
+    // The caller must call unlockReadDb() if, and only if, this method returns non-null.
+    @Nullable
+    private C4Database lockReadDb() {
+        if ((c4ReadDb == null) || Thread.holdsLock(dbLock)) { return null; }
+
+        readDbLock.readLock().lock();
+        final C4Database readDb = c4ReadDb;
+        if (readDb == null) { readDbLock.readLock().unlock(); }
+
+        return readDb;
+    }
+
+    private void unlockReadDb() { readDbLock.readLock().unlock(); }
+
+    private void closeC4ReadDb() {
+        final C4Database readDb;
+        readDbLock.writeLock().lock();
+        try {
+            readDb = c4ReadDb;
+            c4ReadDb = null;
+        }
+        finally {
+            readDbLock.writeLock().unlock();
+        }
+
+        if (readDb == null) { return; }
+
+        // Documents read through the connection may still be in use: it is freed when the last of them is.
+        try { readDb.close(); }
+        catch (LiteCoreException e) { Log.w(DOMAIN, "Failed closing read connection for " + this, e); }
+        finally { readDb.freeWhenUnused(); }
+    }
+
     //////// DOCUMENTS:
 
+    private Date getDocumentExpiration(@NonNull C4Database db, @NonNull String id) throws CouchbaseLiteException {
+        C4Document doc = null;
+        try {
+            doc = db.get(id);
+            if (doc == null) {
+                throw new CouchbaseLiteException(
+                    "DocumentNotFound",
+                    CBLError.Domain.CBLITE,
+                    CBLError.Code.NOT_FOUND);
+            }
+            final long timestamp = db.getExpiration(id);
+            return (timestamp == 0) ? null : new Date(timestamp);
+        }
+        catch (LiteCoreException e) {
+            throw CBLStatus.convertException(e);
+        }
+        finally {
+            // The document was only needed to check that it exists: don't leave it to the finalizer.
+            if (doc != null) { doc.free(); }
+        }
+    }
+
     // --- Database changes:
 
     @GuardedBy("dbLock")
@@ -1187,14 +1559,15 @@ abstract class AbstractDatabase {
         return dbChangeNotifier.addChangeListener(executor, listener);
     }
 
-    // --- Notification: - C4DatabaseObserver/C4DocumentObserver
+    // --- Notification: - C4DatabaseObserver
 
+    // Returns the database observer, if it is no longer needed: the caller must free it.
     @GuardedBy("dbLock")
-    private void removeDatabaseChangeListenerLocked(@NonNull ListenerToken token) {
-        if (dbChangeNotifier.removeChangeListener(token) == 0) {
-            freeC4DbObserver();
-            dbChangeNotifier = null;
-        }
+    @Nullable
+    private C4DatabaseObserver removeDatabaseChangeListenerLocked(@NonNull ListenerToken token) {
+        if ((dbChangeNotifier == null) || (dbChangeNotifier.removeChangeListener(token) != 0)) { return null; }
+        dbChangeNotifier = null;
+        return detachUnusedC4DbObserver();
     }
 
     // --- Document changes:
@@ -1209,53 +1582,140 @@ abstract class AbstractDatabase {
         if (docNotifier == null) {
             docNotifier = new DocumentChangeNotifier((Database) this, docID);
             docChangeNotifiers.put(docID, docNotifier);
+            registerC4DbObserver();
         }
         final ChangeListenerToken<?> token = docNotifier.addChangeListener(executor, listener);
         token.setKey(docID);
         return token;
     }
 
+    // Returns the database observer, if it is no longer needed: the caller must free it.
     @GuardedBy("dbLock")
-    private void removeDocumentChangeListenerLocked(@NonNull ChangeListenerToken<?> token) {
+    @Nullable
+    private C4DatabaseObserver removeDocumentChangeListenerLocked(@NonNull ChangeListenerToken<?> token) {
         final String docID = (String) token.getKey();
-        if (docChangeNotifiers.containsKey(docID)) {
-            final DocumentChangeNotifier notifier = docChangeNotifiers.get(docID);
-            if ((notifier != null) && (notifier.removeChangeListener(token) == 0)) { docChangeNotifiers.remove(docID); }
-        }
+        final DocumentChangeNotifier notifier = docChangeNotifiers.get(docID);
+        if ((notifier == null) || (notifier.removeChangeListener(token) != 0)) { return null; }
+        docChangeNotifiers.remove(docID);
+        return detachUnusedC4DbObserver();
     }
 
+    // The database observer reports changes to database change listeners and to document change listeners.
     @GuardedBy("dbLock")
     private void registerC4DbObserver() {
-        if (!isOpen()) { return; }
+        if (!isOpen() || (c4DbObserver != null)) { return; }
         c4DbObserver = c4Database.createDatabaseObserver(
-            (observer, context) -> scheduleOnPostNotificationExecutor(this::postDatabaseChanged, 0),
+            (observer, context) -> {
+                firstUnpostedChangeAt.compareAndSet(0, System.nanoTime());
+                scheduleOnPostNotificationExecutor(this::postDatabaseChanged, 0);
+            },
             this);
     }
 
+    // LiteCore synchronizes access to the observer's changes: it is safe to drain it without holding dbLock.
+    // The observer is freed only while holding changeLock: once freed, it simply has no changes.
     private void postDatabaseChanged() {
+        final C4DatabaseObserver observer;
+        final ChangeNotifier<DatabaseChange> notifier;
         synchronized (dbLock) {
             if (!isOpen() || (c4DbObserver == null)) { return; }
+            observer = c4DbObserver;
+            notifier = dbChangeNotifier;
+        }
+
+        synchronized (changeLock) {
+            final long changedAt = firstUnpostedChangeAt.getAndSet(0);
+
+            final long window = config.getChangeCoalescingWindowMs();
+            if (window > 0) {
+                coalesceDatabaseChangesLocked(observer, changedAt, window);
+                return;
+            }
 
             boolean external = false;
             int nChanges;
             List<String> docIDs = new ArrayList<>();
             do {
                 // Read changes in batches of kMaxChanges:
-                final C4DatabaseChange[] c4DbChanges = c4DbObserver.getChanges(MAX_CHANGES);
+                final C4DatabaseChange[] c4DbChanges = observer.getChanges(MAX_CHANGES);
                 nChanges = (c4DbChanges == null) ? 0 : c4DbChanges.length;
                 final boolean newExternal = (nChanges > 0) && c4DbChanges[0].isExternal();
                 if ((!docIDs.isEmpty()) && ((nChanges <= 0) || (external != newExternal) || (docIDs.size() > 1000))) {
-                    dbChangeNotifier.postChange(new DatabaseChange((Database) this, docIDs));
+                    if (notifier != null) {
+                        notifier.postChange(new DatabaseChange((Database) this, docIDs, changedAt));
+                    }
                     docIDs = new ArrayList<>();
                 }
 
                 external = newExternal;
-                for (int i = 0; i < nChanges; i++) { docIDs.add(c4DbChanges[i].getDocID()); }
+                for (int i = 0; i < nChanges; i++) {
+                    final String docID = c4DbChanges[i].getDocID();
+                    docIDs.add(docID);
+                    postDocumentChange(docID);
+                }
             }
             while (nChanges > 0);
         }
     }
 
+    private void postDocumentChange(@NonNull String docID) {
+        if (docChangeNotifiers.isEmpty()) { return; }
+        final DocumentChangeNotifier notifier = docChangeNotifiers.get(docID);
+        if (notifier != null) { notifier.postChange(); }
+    }
+
+    // Add the observed changes to the coalesced change and, if necessary,
+    // schedule its delivery at the end of the window.
+    @GuardedBy("changeLock")
+    private void coalesceDatabaseChangesLocked(@NonNull C4DatabaseObserver observer, long changedAt, long window) {
+        if (coalescedChangedAt == 0) { coalescedChangedAt = changedAt; }
+
+        final int maxDocIDs = config.getMaxChangedDocIDs();
+        int nChanges;
+        do {
+            final C4DatabaseChange[] c4DbChanges = observer.getChanges(MAX_CHANGES);
+            nChanges = (c4DbChanges == null) ? 0 : c4DbChanges.length;
+
+            // Document change listeners are not subject to coalescing.
+            for (int i = 0; i < nChanges; i++) { postDocumentChange(c4DbChanges[i].getDocID()); }
+
+            // Once the change has overflowed, the observer is drained without recording the IDs.
+            if (coalescedOverflow) { continue; }
+
+            for (int i = 0; i < nChanges; i++) { coalescedDocIDs.add(c4DbChanges[i].getDocID()); }
+            if (coalescedDocIDs.size() > maxDocIDs) {
+                coalescedOverflow = true;
+                coalescedDocIDs.clear();
+            }
+        }
+        while (nChanges > 0);
+
+        if (coalescedFlushScheduled || (!coalescedOverflow && coalescedDocIDs.isEmpty())) { return; }
+
+        coalescedFlushScheduled = true;
+        scheduleOnPostNotificationExecutor(this::postCoalescedDatabaseChange, window);
+    }
+
+    private void postCoalescedDatabaseChange() {
+        final ChangeNotifier<DatabaseChange> notifier;
+        synchronized (dbLock) { notifier = dbChangeNotifier; }
+
+        synchronized (changeLock) {
+            coalescedFlushScheduled = false;
+
+            final DatabaseChange change = new DatabaseChange(
+                (Database) this,
+                new ArrayList<>(coalescedDocIDs),
+                coalescedChangedAt,
+                coalescedOverflow);
+            coalescedDocIDs.clear();
+            coalescedOverflow = false;
+            coalescedChangedAt = 0;
+
+            if (notifier != null) { notifier.postChange(change); }
+        }
+    }
+
     @GuardedBy("dbLock")
     private void prepareDocument(Document document) throws CouchbaseLiteException {
         mustBeOpen();
@@ -1560,6 +2020,9 @@ abstract class AbstractDatabase {
             // Save to database:
             C4Document c4Doc = (base != null) ? base : document.getC4doc();
 
+            // A snapshot, from the read connection, cannot be updated in place.
+            if ((c4Doc != null) && c4Doc.isSnapshot()) { c4Doc = getCurrentRevisionLocked(c4Doc); }
+
             c4Doc = (c4Doc != null)
                 ? c4Doc.update(body, revFlags)
                 : getC4DatabaseLocked().create(document.getId(), body, revFlags);
@@ -1574,6 +2037,94 @@ abstract class AbstractDatabase {
         }
     }
 
+    // Get the writeable version of a snapshot.
+    // If the document has changed, or has been purged, since the snapshot was taken, the save is in conflict.
+    @GuardedBy("dbLock")
+    @NonNull
+    private C4Document getCurrentRevisionLocked(@NonNull C4Document snapshot)
+        throws LiteCoreException, CouchbaseLiteException {
+        final C4Document current = getC4DatabaseLocked().get(snapshot.getDocID(), false);
+        final String revId = current.getSelectedRevID();
+        if ((revId == null) || (!revId.equals(snapshot.getSelectedRevID()))) {
+            current.free();
+            throw new CouchbaseLiteException("Conflict", CBLError.Domain.CBLITE, CBLError.Code.CONFLICT);
+        }
+        return current;
+    }
+
+    // Apply the update to each of the items, in transactions of (at most) chunkSize items.
+    // The lock is released between chunks, so that other threads have a chance to use the database.
+    @NonNull
+    private <T> Map<String, CouchbaseLiteException> updateAll(
+        @NonNull Collection<T> items,
+        int chunkSize,
+        @NonNull Fn.Function<T, String> getId,
+        @NonNull Fn.ConsumerThrows<T, CouchbaseLiteException> update)
+        throws CouchbaseLiteException {
+        // Check every item first, so that a bad one cannot fail the batch after some chunks are committed.
+        for (T item: items) { Preconditions.assertNotNull(item, "item"); }
+
+        final Map<String, CouchbaseLiteException> failures = new LinkedHashMap<>();
+
+        final int n = (chunkSize <= 0) ? Integer.MAX_VALUE : chunkSize;
+        final Iterator<T> itr = items.iterator();
+        while (itr.hasNext()) {
+            synchronized (dbLock) {
+                mustBeOpen();
+
+                boolean commit = false;
+                beginTransaction();
+                try {
+                    for (int i = 0; (i < n) && itr.hasNext(); i++) {
+                        final T item = itr.next();
+                        try { update.accept(item); }
+                        catch (CouchbaseLiteException e) {
+                            final String id = getId.apply(item);
+                            if (!failures.containsKey(id)) { failures.put(id, e); }
+                        }
+                    }
+                    commit = true;
+                }
+                finally {
+                    endTransaction(commit);
+                }
+            }
+
+            postDatabaseChanged();
+        }
+
+        return failures;
+    }
+
+    @GuardedBy("dbLock")
+    private void importJSONLocked(
+        @NonNull C4Database c4db,
+        @NonNull FLSharedKeys sk,
+        @NonNull byte[] json,
+        @Nullable String idProperty,
+        long lineNumber)
+        throws CouchbaseLiteException {
+        FLSliceResult body = null;
+        try {
+            body = c4db.encodeJSON(json);
+
+            String docId = (idProperty == null) ? null : C4Document.dictGetString(body, sk, idProperty);
+            if (docId == null) { docId = MutableDocument.createUUID(); }
+
+            final int revFlags = (!C4Document.dictContainsBlobs(body, sk))
+                ? 0
+                : C4Constants.RevisionFlags.HAS_ATTACHMENTS;
+
+            c4db.insert(docId, body, revFlags);
+        }
+        catch (LiteCoreException e) {
+            throw CBLStatus.convertException(e, "Failed importing line " + lineNumber);
+        }
+        finally {
+            if (body != null) { body.free(); }
+        }
+    }
+
     @GuardedBy("dbLock")
     private void purgeLocked(@NonNull String id) throws CouchbaseLiteException {
         boolean commit = false;
@@ -1615,6 +2166,7 @@ abstract class AbstractDatabase {
 
     private void shutdown(Fn.ConsumerThrows<C4Database, LiteCoreException> onShut) throws CouchbaseLiteException {
         final C4Database c4Db;
+        final C4DatabaseObserver c4DbObs;
         synchronized (dbLock) {
             c4Db = getC4DatabaseLocked();
             c4Database = null;
@@ -1624,9 +2176,13 @@ abstract class AbstractDatabase {
 
             purgeStrategy.cancelPurges();
 
-            freeC4DbObserver();
+            c4DbObs = detachC4DbObserver();
             docChangeNotifiers.clear();
 
+            if (queryCache != null) { Log.i(DOMAIN, "Closing %s: %s", this, queryCache); }
+            if (liveQueryLatency.getCount() > 0) { Log.i(DOMAIN, "Closing %s: %s", this, liveQueryLatency); }
+            clearQueryCacheLocked();
+
             closeLatch = new CountDownLatch(1);
 
             Set<ActiveProcess<?>> liveProcesses = null;
@@ -1639,6 +2195,11 @@ abstract class AbstractDatabase {
             // the replicators won't be able to shut down until this lock is released
         }
 
+        freeC4DbObserver(c4DbObs);
+
+        // The read connection must be closed before the main connection can be closed or deleted.
+        closeC4ReadDb();
+
         try {
             for (int i = 0; ; i++) {
                 verifyActiveProcesses();
@@ -1655,16 +2216,34 @@ abstract class AbstractDatabase {
             catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
         }
 
-        shutdownExecutors(postExecutor, queryExecutor, EXECUTOR_CLOSE_MAX_WAIT_SECS);
+        shutdownExecutors(postExecutor, queryExecutors, EXECUTOR_CLOSE_MAX_WAIT_SECS);
+    }
+
+    @GuardedBy("dbLock")
+    private void clearQueryCacheLocked() {
+        if (queryCache != null) { queryCache.clear(); }
+    }
+
+    @GuardedBy("dbLock")
+    @Nullable
+    private C4DatabaseObserver detachUnusedC4DbObserver() {
+        return ((dbChangeNotifier == null) && docChangeNotifiers.isEmpty()) ? detachC4DbObserver() : null;
     }
 
+    // Stop using the database observer.  The caller must free it, once it has released dbLock.
     @GuardedBy("dbLock")
-    private void freeC4DbObserver() {
+    @Nullable
+    private C4DatabaseObserver detachC4DbObserver() {
         final C4DatabaseObserver observer = c4DbObserver;
         c4DbObserver = null;
-        if (observer == null) { return; }
+        return observer;
+    }
 
-        observer.close();
+    // Free the observer's native peer.  Holding changeLock guarantees that no drain is reading it.
+    // Never called while holding dbLock: a listener run synchronously, while posting changes, may seize it.
+    private void freeC4DbObserver(@Nullable C4DatabaseObserver observer) {
+        if (observer == null) { return; }
+        synchronized (changeLock) { observer.free(); }
     }
 
     // called from the finalizer
@@ -1680,11 +2259,12 @@ abstract class AbstractDatabase {
     // called from the finalizer
     private void shutdownExecutors(
         ExecutionService.CloseableExecutor pExec,
-        ExecutionService.CloseableExecutor qExec,
+        ExecutionService.CloseableExecutor[] qExecs,
         int waitTime) {
         // shutdown executor service
         if (pExec != null) { pExec.stop(waitTime, TimeUnit.SECONDS); }
-        if (qExec != null) { qExec.stop(waitTime, TimeUnit.SECONDS); }
+        if (qExecs == null) { return; }
+        for (ExecutionService.CloseableExecutor qExec: qExecs) { qExec.stop(waitTime, TimeUnit.SECONDS); }
     }
 
     // Fix the bug in 2.8.0 that caused databases created in the
@@ -23,6 +23,10 @@ import com.couchbase.lite.internal.utils.Preconditions;
 
 
 abstract class AbstractDatabaseConfiguration {
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 32;
+    public static final int DEFAULT_LIVE_QUERY_CONCURRENCY = 4;
+    public static final int DEFAULT_MAX_CHANGED_DOC_IDS = 10000;
+
     static String getDbDirectory(@Nullable String dir) { return CouchbaseLiteInternal.makeDbPath(dir); }
 
 
@@ -35,6 +39,15 @@ abstract class AbstractDatabaseConfiguration {
     private String rootDirectory;
     private String dbDirectory;
 
+    private boolean concurrentReadsEnabled;
+
+    private int queryCacheSize;
+
+    private int liveQueryConcurrency;
+
+    private long changeCoalescingWindowMs;
+    private int maxChangedDocIDs;
+
     //---------------------------------------------
     // Constructors
     //---------------------------------------------
@@ -43,6 +56,11 @@ abstract class AbstractDatabaseConfiguration {
         CouchbaseLiteInternal.requireInit("Cannot create database configuration");
         this.readOnly = readOnly;
         setRootDirectory((config == null) ? null : config.rootDirectory);
+        concurrentReadsEnabled = (config != null) && config.concurrentReadsEnabled;
+        queryCacheSize = (config == null) ? DEFAULT_QUERY_CACHE_SIZE : config.queryCacheSize;
+        liveQueryConcurrency = (config == null) ? DEFAULT_LIVE_QUERY_CONCURRENCY : config.liveQueryConcurrency;
+        changeCoalescingWindowMs = (config == null) ? 0 : config.changeCoalescingWindowMs;
+        maxChangedDocIDs = (config == null) ? DEFAULT_MAX_CHANGED_DOC_IDS : config.maxChangedDocIDs;
     }
 
     //---------------------------------------------
@@ -60,6 +78,126 @@ abstract class AbstractDatabaseConfiguration {
     @NonNull
     public String getDirectory() { return dbDirectory; }
 
+    /**
+     * Enables or disables concurrent reads.
+     * When enabled, the database opens a second, read-only, connection to its file.  Document reads
+     * (getDocument, getCount, getDocumentExpiration) made from threads that are not, themselves,
+     * in the middle of a write use that connection and do not wait for writers, including long
+     * running batches.  They see the most recently committed state of the database.
+     * The default is false.
+     *
+     * @param enabled true to enable concurrent reads
+     * @return this config object
+     */
+    @NonNull
+    public DatabaseConfiguration setConcurrentReadsEnabled(boolean enabled) {
+        if (readOnly) { throw new IllegalStateException("DatabaseConfiguration is readonly mode."); }
+        concurrentReadsEnabled = enabled;
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns true if concurrent reads are enabled.
+     *
+     * @return true if concurrent reads are enabled.
+     */
+    public boolean isConcurrentReadsEnabled() { return concurrentReadsEnabled; }
+
+    /**
+     * Sets the number of compiled queries the database keeps.
+     * Queries with identical definitions share a single compiled query: when the cache is full,
+     * the least recently used query is discarded and must be recompiled the next time it is run.
+     * The cache is cleared whenever an index is created or deleted.
+     * A size of 0 disables the cache: each Query object compiles its own.
+     * The default is 32.
+     *
+     * @param size the maximum number of compiled queries to keep
+     * @return this config object
+     */
+    @NonNull
+    public DatabaseConfiguration setQueryCacheSize(int size) {
+        if (readOnly) { throw new IllegalStateException("DatabaseConfiguration is readonly mode."); }
+        queryCacheSize = (int) Preconditions.assertNotNegative(size, "query cache size");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the maximum number of compiled queries the database keeps.
+     *
+     * @return the size of the query cache
+     */
+    public int getQueryCacheSize() { return queryCacheSize; }
+
+    /**
+     * Sets the maximum number of live queries that the database refreshes concurrently.
+     * A live query's refreshes are always run, and its listeners notified, in order.
+     * Queries are run on the database's connection, one at a time: reading and diffing the results,
+     * and posting the changes to listeners, can proceed concurrently.
+     * The default is 4.
+     *
+     * @param concurrency the maximum number of concurrent live query refreshes
+     * @return this config object
+     */
+    @NonNull
+    public DatabaseConfiguration setLiveQueryConcurrency(int concurrency) {
+        if (readOnly) { throw new IllegalStateException("DatabaseConfiguration is readonly mode."); }
+        liveQueryConcurrency = (int) Preconditions.assertPositive(concurrency, "live query concurrency");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the maximum number of live queries that the database refreshes concurrently.
+     *
+     * @return the live query concurrency
+     */
+    public int getLiveQueryConcurrency() { return liveQueryConcurrency; }
+
+    /**
+     * Sets the window over which database changes are coalesced.
+     * When the window is positive, all of the changes made during the window that follows a change
+     * are delivered to each database change listener as a single DatabaseChange, in which each changed
+     * document appears only once.  When the number of changed documents exceeds the limit set with
+     * setMaxChangedDocIDs, the change lists no documents: DatabaseChange.isOverflow() returns true.
+     * The default is 0: changes are delivered as soon as they are noticed, in lists of about 1000 documents.
+     *
+     * @param windowMs the coalescing window, in ms.
+     * @return this config object
+     */
+    @NonNull
+    public DatabaseConfiguration setChangeCoalescingWindowMs(long windowMs) {
+        if (readOnly) { throw new IllegalStateException("DatabaseConfiguration is readonly mode."); }
+        changeCoalescingWindowMs = Preconditions.assertNotNegative(windowMs, "change coalescing window");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the window over which database changes are coalesced.
+     *
+     * @return the coalescing window, in ms.
+     */
+    public long getChangeCoalescingWindowMs() { return changeCoalescingWindowMs; }
+
+    /**
+     * Sets the maximum number of document IDs in a coalesced database change.
+     * The default is 10000.
+     *
+     * @param maxDocIDs the maximum number of document IDs in a single coalesced change.
+     * @return this config object
+     */
+    @NonNull
+    public DatabaseConfiguration setMaxChangedDocIDs(int maxDocIDs) {
+        if (readOnly) { throw new IllegalStateException("DatabaseConfiguration is readonly mode."); }
+        maxChangedDocIDs = (int) Preconditions.assertPositive(maxDocIDs, "max changed doc IDs");
+        return getDatabaseConfiguration();
+    }
+
+    /**
+     * Returns the maximum number of document IDs in a coalesced database change.
+     *
+     * @return the maximum number of document IDs in a coalesced change.
+     */
+    public int getMaxChangedDocIDs() { return maxChangedDocIDs; }
+
     //---------------------------------------------
     // Protected level access
     //---------------------------------------------
@@ -17,6 +17,7 @@ package com.couchbase.lite;
 
 import android.support.annotation.GuardedBy;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import java.util.ArrayList;
@@ -50,12 +51,24 @@ abstract class AbstractQuery implements Query {
     //---------------------------------------------
     private final Object lock = new Object();
 
+    // The compiled query, if this query owns it. Null if the compiled query is shared, through the db's cache.
     @GuardedBy("lock")
     private C4Query c4query;
 
+    @GuardedBy("lock")
+    private String json;
+
     @GuardedBy("lock")
     private LiveQuery liveQuery;
 
+    @GuardedBy("lock")
+    private boolean changeFilteringEnabled;
+
+    // If null, a live query is refreshed LIVE_QUERY_UPDATE_INTERVAL_MS after a change.
+    @GuardedBy("lock")
+    @Nullable
+    private QueryRefreshPolicy refreshPolicy;
+
     // NOTE:
     // https://sqlite.org/lang_select.html
 
@@ -130,10 +143,7 @@ abstract class AbstractQuery implements Query {
             params = parameters.encode();
             final C4QueryEnumerator c4enum;
             synchronized (getDbLock()) {
-                synchronized (lock) {
-                    if (c4query == null) { c4query = prepQueryLocked(); }
-                    c4enum = c4query.run(options, params);
-                }
+                synchronized (lock) { c4enum = getC4QueryLocked().run(options, params); }
             }
             return new ResultSet(this, c4enum, columnNames);
         }
@@ -164,8 +174,7 @@ abstract class AbstractQuery implements Query {
     public String explain() throws CouchbaseLiteException {
         synchronized (getDbLock()) {
             synchronized (lock) {
-                if (c4query == null) { c4query = prepQueryLocked(); }
-                final String exp = c4query.explain();
+                final String exp = getC4QueryLocked().explain();
                 if (exp == null) { throw new CouchbaseLiteException("Cound not explain query"); }
                 return exp;
             }
@@ -200,6 +209,99 @@ abstract class AbstractQuery implements Query {
         return getLiveQuery().addChangeListener(executor, listener);
     }
 
+    /**
+     * Adds a query change listener that receives the rows that have changed, in addition to the new results.
+     * Rows are identified by the value in the key column: for instance, "id" for SelectResult.expression(Meta.id).
+     * The values in the key column should be unique scalars. Rows whose key is null are not reported.
+     * The first change delivered to the listener reports every row as inserted.
+     * Subsequent changes are delivered only when rows have been inserted, changed or removed.
+     *
+     * @param executor  The executor object that calls listener. If null, use default executor.
+     * @param keyColumn The name of the column that identifies a row.
+     * @param listener  The listener to post changes.
+     * @return An opaque listener token object for removing the listener.
+     */
+    @NonNull
+    public ListenerToken addChangeListener(
+        Executor executor,
+        @NonNull String keyColumn,
+        @NonNull QueryChangeListener listener) {
+        Preconditions.assertNotNull(keyColumn, "key column");
+        Preconditions.assertNotNull(listener, "listener");
+        return getLiveQuery().addChangeListener(executor, keyColumn, listener);
+    }
+
+    /**
+     * Enable or disable change filtering.
+     * When change filtering is enabled, a live query does not re-run the query after a database change
+     * unless one of the changed documents satisfied the query's WHERE clause before the change, or satisfies
+     * it afterwards. Deciding that costs a lookup of the changed documents and memory for the IDs of
+     * the documents that satisfy the WHERE clause: it pays off when the query is expensive and
+     * most changes are to documents it does not select.
+     * Changes are not filtered for a query that has joins.
+     * The setting takes effect the next time the live query starts.
+     *
+     * @param enabled true to enable change filtering.
+     */
+    public void setChangeFilteringEnabled(boolean enabled) {
+        synchronized (lock) { changeFilteringEnabled = enabled; }
+    }
+
+    /**
+     * Returns true if change filtering is enabled.
+     *
+     * @return true if change filtering is enabled.
+     */
+    public boolean isChangeFilteringEnabled() {
+        synchronized (lock) { return changeFilteringEnabled; }
+    }
+
+    /**
+     * Set the policy that controls how soon a live query is re-run after a change.
+     * By default, a live query is re-run 200ms after the first of a group of changes.
+     * A policy can, instead, re-run a cheap query immediately, and increase the interval between refreshes
+     * of an expensive one, in proportion to the time it takes to run, up to a bound on staleness.
+     * A query is refreshed once for all of its listeners: the policy applies to all of them.
+     *
+     * @param policy the refresh policy, or null for the default.
+     */
+    public void setRefreshPolicy(@Nullable QueryRefreshPolicy policy) {
+        synchronized (lock) { refreshPolicy = policy; }
+    }
+
+    /**
+     * Returns the refresh policy, or null if the query uses the default.
+     *
+     * @return the refresh policy.
+     */
+    @Nullable
+    public QueryRefreshPolicy getRefreshPolicy() {
+        synchronized (lock) { return refreshPolicy; }
+    }
+
+    /**
+     * Returns the number of times that the live query has re-run this query.
+     *
+     * @return the number of refreshes that have run the query.
+     */
+    public long getRefreshCount() {
+        final LiveQuery live;
+        synchronized (lock) { live = liveQuery; }
+        return (live == null) ? 0 : live.getRefreshCount();
+    }
+
+    /**
+     * Returns the number of times that the live query has not re-run this query, because
+     * change filtering has determined that no change could have affected the results.
+     *
+     * @return the number of skipped refreshes.
+     */
+    public long getSkippedRefreshCount() {
+        final LiveQuery live;
+        synchronized (lock) { live = liveQuery; }
+        return (live == null) ? 0 : live.getSkippedRefreshCount();
+    }
+
     /**
      * Removes a change listener wih the given listener token.
      *
@@ -276,6 +378,27 @@ abstract class AbstractQuery implements Query {
         this.parameters = query.parameters;
     }
 
+    // Build a query for the IDs of the documents that satisfy this query's WHERE clause.
+    // If idParams is not null, the query is restricted to documents whose IDs are the values of the named parameters.
+    // Returns null if the results of this query may depend on other documents: when it has joins.
+    @Nullable
+    AbstractQuery getMatchingIdsQuery(@Nullable String[] idParams) {
+        if (joins != null) { return null; }
+
+        final Expression id = (from.alias == null) ? Meta.id : Meta.id.from(from.alias);
+
+        Expression cond = where;
+        if (idParams != null) {
+            final Expression[] ids = new Expression[idParams.length];
+            for (int i = 0; i < idParams.length; i++) { ids[i] = Expression.parameter(idParams[i]); }
+            final Expression idMatches = id.in(ids);
+            cond = (cond == null) ? idMatches : cond.and(idMatches);
+        }
+
+        final From idsQuery = QueryBuilder.select(SelectResult.expression(id)).from(from);
+        return (cond == null) ? idsQuery : idsQuery.where(cond);
+    }
+
     @VisibleForTesting
     LiveQuery getLiveQuery() {
         synchronized (lock) {
@@ -288,18 +411,37 @@ abstract class AbstractQuery implements Query {
     // Private methods
     //---------------------------------------------
 
+    // Must be called holding both the db lock and this query's lock.
+    // Use the database's cached copy of the compiled query, if possible.
     @GuardedBy("lock")
-    private C4Query prepQueryLocked() throws CouchbaseLiteException {
-        final String json = encodeAsJson();
-        Log.v(DOMAIN, "Encoded query: %s", json);
-        if (json == null) { throw new CouchbaseLiteException("Failed to generate JSON query."); }
+    @NonNull
+    private C4Query getC4QueryLocked() throws CouchbaseLiteException {
+        if (c4query != null) { return c4query; }
 
-        if (columnNames == null) { columnNames = getColumnNames(); }
+        if (json == null) { json = prepQueryLocked(); }
+
+        try {
+            final C4Query query = getDatabase().getCachedQueryLocked(json);
+            if (query != null) { return query; }
 
-        try { return getDatabase().createQuery(json); }
+            c4query = getDatabase().createQuery(json);
+            return c4query;
+        }
         catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
     }
 
+    @GuardedBy("lock")
+    @NonNull
+    private String prepQueryLocked() throws CouchbaseLiteException {
+        final String queryJson = encodeAsJson();
+        Log.v(DOMAIN, "Encoded query: %s", queryJson);
+        if (queryJson == null) { throw new CouchbaseLiteException("Failed to generate JSON query."); }
+
+        if (columnNames == null) { columnNames = getColumnNames(); }
+
+        return queryJson;
+    }
+
     // https://issues.couchbase.com/browse/CBL-21
     // Using c4query_columnTitle is not an improvement, as of 12/2019
     private Map<String, Integer> getColumnNames() throws CouchbaseLiteException {
@@ -326,7 +468,7 @@ abstract class AbstractQuery implements Query {
     }
 
     private String encodeAsJson() {
-        try { return JsonUtils.toJson(asJson()).toString(); }
+        try { return JsonUtils.toJsonString(asJson()); }
         catch (JSONException e) {
             Log.w(DOMAIN, "Error when encoding the query as a json string", e);
         }
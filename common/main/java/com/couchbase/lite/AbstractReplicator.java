@@ -33,6 +33,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -307,12 +308,13 @@ public abstract class AbstractReplicator extends InternalReplicator {
     @NonNull
     final ReplicatorConfiguration config;
 
-    private final Executor dispatcher = CouchbaseLiteInternal.getExecutionService().getSerialExecutor();
+    private final Executor dispatcher
+        = CouchbaseLiteInternal.getExecutionService().getSerialExecutor(ExecutionService.OWNER_REPLICATOR);
 
-    @GuardedBy("lock")
-    private final Set<ReplicatorChangeListenerToken> changeListenerTokens = new HashSet<>();
-    @GuardedBy("lock")
-    private final Set<DocumentReplicationListenerToken> docEndedListenerTokens = new HashSet<>();
+    // Copy-on-write: notifications iterate them without holding the lock.
+    // They are modified while holding the lock, so that progressLevel is consistent with them.
+    private final Set<ReplicatorChangeListenerToken> changeListenerTokens = new CopyOnWriteArraySet<>();
+    private final Set<DocumentReplicationListenerToken> docEndedListenerTokens = new CopyOnWriteArraySet<>();
 
     @NonNull
     private final Set<Fn.Consumer<CouchbaseLiteException>> pendingResolutions = new HashSet<>();
@@ -707,7 +709,6 @@ public abstract class AbstractReplicator extends InternalReplicator {
 
     void c4StatusChanged(@NonNull C4ReplicatorStatus c4Status) {
         final ReplicatorChange change;
-        final List<ReplicatorChangeListenerToken> tokens;
 
         synchronized (lock) {
             Log.i(
@@ -730,7 +731,6 @@ public abstract class AbstractReplicator extends InternalReplicator {
             // Post notification
             // Replicator.getStatus() creates a copy of Status.
             change = new ReplicatorChange((Replicator) this, this.getStatus());
-            tokens = new ArrayList<>(changeListenerTokens);
         }
 
         if (c4Status.getActivityLevel() == C4ReplicatorStatus.ActivityLevel.STOPPED) {
@@ -738,7 +738,7 @@ public abstract class AbstractReplicator extends InternalReplicator {
             getDatabase().removeActiveReplicator(this);
         }
 
-        for (ReplicatorChangeListenerToken token: tokens) { token.notify(change); }
+        for (ReplicatorChangeListenerToken token: changeListenerTokens) { token.notify(change); }
     }
 
     void documentEnded(boolean pushing, C4DocumentEnded... docEnds) {
@@ -791,9 +791,7 @@ public abstract class AbstractReplicator extends InternalReplicator {
 
     void notifyDocumentEnded(boolean pushing, List<ReplicatedDocument> docs) {
         final DocumentReplication update = new DocumentReplication((Replicator) this, pushing, docs);
-        final List<DocumentReplicationListenerToken> tokens;
-        synchronized (lock) { tokens = new ArrayList<>(docEndedListenerTokens); }
-        for (DocumentReplicationListenerToken token: tokens) { token.notify(update); }
+        for (DocumentReplicationListenerToken token: docEndedListenerTokens) { token.notify(update); }
         Log.i(DOMAIN, "notifyDocumentEnded: %s" + update);
     }
 
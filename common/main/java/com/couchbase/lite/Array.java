@@ -32,10 +32,12 @@ import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MContext;
 import com.couchbase.lite.internal.fleece.MValue;
 import com.couchbase.lite.internal.utils.DateUtils;
+import com.couchbase.lite.internal.utils.Fn;
 
 
 /**
  * Array provides readonly access to array data.
+ * An Array is immutable: it may be read from several threads, concurrently, without locking.
  */
 public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
     //---------------------------------------------
@@ -100,9 +102,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the size of the array
      */
     @Override
-    public final int count() {
-        synchronized (lock) { return (int) internalArray.count(); }
-    }
+    public int count() { return read(array -> (int) array.count()); }
 
     /**
      * Gets value at the given index as an object. The object types are Blob,
@@ -114,9 +114,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      */
     @Nullable
     @Override
-    public Object getValue(int index) {
-        synchronized (lock) { return getMValue(internalArray, index).asNative(internalArray); }
-    }
+    public Object getValue(int index) { return read(index, MValue::asNative); }
 
     /**
      * Gets value at the given index as a String. Returns null if the value doesn't exist, or its value is not a String.
@@ -127,10 +125,8 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
     @Nullable
     @Override
     public String getString(int index) {
-        synchronized (lock) {
-            final Object obj = getMValue(internalArray, index).asNative(internalArray);
-            return obj instanceof String ? (String) obj : null;
-        }
+        final Object obj = read(index, MValue::asNative);
+        return obj instanceof String ? (String) obj : null;
     }
 
     /**
@@ -141,9 +137,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      */
     @Nullable
     @Override
-    public Number getNumber(int index) {
-        synchronized (lock) { return CBLConverter.asNumber(getMValue(internalArray, index).asNative(internalArray)); }
-    }
+    public Number getNumber(int index) { return CBLConverter.asNumber(read(index, MValue::asNative)); }
 
     /**
      * Gets value at the given index as an int.
@@ -154,9 +148,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the int value.
      */
     @Override
-    public int getInt(int index) {
-        synchronized (lock) { return CBLConverter.asInteger(getMValue(internalArray, index), internalArray); }
-    }
+    public int getInt(int index) { return read(index, CBLConverter::asInteger); }
 
     /**
      * Gets value at the given index as an long.
@@ -167,9 +159,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the long value.
      */
     @Override
-    public long getLong(int index) {
-        synchronized (lock) { return CBLConverter.asLong(getMValue(internalArray, index), internalArray); }
-    }
+    public long getLong(int index) { return read(index, CBLConverter::asLong); }
 
     /**
      * Gets value at the given index as an float.
@@ -180,9 +170,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the float value.
      */
     @Override
-    public float getFloat(int index) {
-        synchronized (lock) { return CBLConverter.asFloat(getMValue(internalArray, index), internalArray); }
-    }
+    public float getFloat(int index) { return read(index, CBLConverter::asFloat); }
 
     /**
      * Gets value at the given index as an double.
@@ -193,9 +181,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the double value.
      */
     @Override
-    public double getDouble(int index) {
-        synchronized (lock) { return CBLConverter.asDouble(getMValue(internalArray, index), internalArray); }
-    }
+    public double getDouble(int index) { return read(index, CBLConverter::asDouble); }
 
     /**
      * Gets value at the given index as a boolean.
@@ -204,9 +190,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the boolean value.
      */
     @Override
-    public boolean getBoolean(int index) {
-        synchronized (lock) { return CBLConverter.asBoolean(getMValue(internalArray, index).asNative(internalArray)); }
-    }
+    public boolean getBoolean(int index) { return CBLConverter.asBoolean(read(index, MValue::asNative)); }
 
     /**
      * Gets value at the given index as a Blob.
@@ -217,9 +201,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      */
     @Nullable
     @Override
-    public Blob getBlob(int index) {
-        synchronized (lock) { return (Blob) getMValue(internalArray, index).asNative(internalArray); }
-    }
+    public Blob getBlob(int index) { return (Blob) read(index, MValue::asNative); }
 
     /**
      * Gets value at the given index as a Date.
@@ -245,10 +227,8 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
     @Nullable
     @Override
     public Array getArray(int index) {
-        synchronized (lock) {
-            final Object obj = getMValue(internalArray, index).asNative(internalArray);
-            return (obj instanceof Array) ? (Array) obj : null;
-        }
+        final Object obj = read(index, MValue::asNative);
+        return (obj instanceof Array) ? (Array) obj : null;
     }
 
     /**
@@ -260,10 +240,8 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
     @Nullable
     @Override
     public Dictionary getDictionary(int index) {
-        synchronized (lock) {
-            final Object obj = getMValue(internalArray, index).asNative(internalArray);
-            return (obj instanceof Dictionary) ? (Dictionary) obj : null;
-        }
+        final Object obj = read(index, MValue::asNative);
+        return (obj instanceof Dictionary) ? (Dictionary) obj : null;
     }
 
     /**
@@ -274,16 +252,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      */
     @NonNull
     @Override
-    public List<Object> toList() {
-        synchronized (lock) {
-            final int count = (int) internalArray.count();
-            final List<Object> result = new ArrayList<>(count);
-            for (int index = 0; index < count; index++) {
-                result.add(Fleece.toObject(getMValue(internalArray, index).asNative(internalArray)));
-            }
-            return result;
-        }
-    }
+    public List<Object> toList() { return read(this::toList); }
 
     //---------------------------------------------
     // Iterable implementation
@@ -338,9 +307,7 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
      * @return the MutableArray instance
      */
     @NonNull
-    public MutableArray toMutable() {
-        synchronized (lock) { return new MutableArray(internalArray, true); }
-    }
+    public MutableArray toMutable() { return read(array -> new MutableArray(array, true)); }
 
     //-------------------------------------------------------------------------
     // Package protected
@@ -348,18 +315,46 @@ public class Array implements ArrayInterface, FLEncodable, Iterable<Object> {
     @NonNull
     MCollection toMCollection() { return internalArray; }
 
+    // Every read of the contents of this array goes through one of these two methods.
+    // An Array cannot change underneath a reader, so these methods hold no lock:
+    // MutableArray overrides them to hold the database lock.
+    <T> T read(int index, @NonNull ValueReader<T> reader) {
+        return reader.read(getMValue(internalArray, index), internalArray);
+    }
+
+    <T> T read(@NonNull Fn.Function<MArray, T> reader) { return reader.apply(internalArray); }
+
     //-------------------------------------------------------------------------
     // Private
     //-------------------------------------------------------------------------
 
+    @NonNull
+    private List<Object> toList(@NonNull MArray array) {
+        // If the content is unchanged, decode it in a single native call.
+        final Database db = getDatabase();
+        if (db != null) {
+            final List<Object> decoded = array.decodeUnchanged();
+            if (decoded != null) { return MValueDelegate.convertDecodedArray(decoded, db); }
+        }
+
+        final int count = (int) array.count();
+        final List<Object> result = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            result.add(Fleece.toObject(getMValue(array, index).asNative(array)));
+        }
+        return result;
+    }
+
     @NonNull
     private Object getDbLock() {
+        final Database db = getDatabase();
+        return (db != null) ? db.getLock() : new Object();
+    }
+
+    @Nullable
+    private Database getDatabase() {
         final MContext context = internalArray.getContext();
-        if (context instanceof DbContext) {
-            final Database db = ((DbContext) context).getDatabase();
-            if (db != null) { return db.getLock(); }
-        }
-        return new Object();
+        return (context instanceof DbContext) ? ((DbContext) context).getDatabase() : null;
     }
 
     @NonNull
@@ -18,18 +18,21 @@ package com.couchbase.lite;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
 
 import com.couchbase.lite.internal.utils.Preconditions;
 
 
+/**
+ * Listeners are added and removed far less often than changes are posted:
+ * the listener set is copy-on-write, so posting a change neither locks nor blocks.
+ * The lock serializes changes to the set, so that removeChangeListener can report the number remaining.
+ */
 class ChangeNotifier<T> {
     private final Object lock = new Object();
-    private final Set<ChangeListenerToken<T>> listenerTokens;
-
-    ChangeNotifier() { listenerTokens = new HashSet<>(); }
+    private final Set<ChangeListenerToken<T>> listenerTokens = new CopyOnWriteArraySet<>();
 
     @NonNull
     ChangeListenerToken addChangeListener(
@@ -57,8 +60,6 @@ class ChangeNotifier<T> {
     void postChange(T change) {
         if (change == null) { throw new IllegalArgumentException("change is null"); }
 
-        synchronized (lock) {
-            for (ChangeListenerToken<T> token : listenerTokens) { token.postChange(change); }
-        }
+        for (ChangeListenerToken<T> token : listenerTokens) { token.postChange(change); }
     }
 }
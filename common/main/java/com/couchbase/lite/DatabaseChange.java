@@ -27,10 +27,21 @@ import java.util.List;
 public final class DatabaseChange {
     private final List<String> documentIDs;
     private final Database database;
+    // The System.nanoTime at which the change was committed, or 0 if it is not known.
+    private final long changedAt;
+    private final boolean overflow;
 
-    DatabaseChange(Database database, List<String> documentIDs) {
+    DatabaseChange(Database database, List<String> documentIDs) { this(database, documentIDs, 0); }
+
+    DatabaseChange(Database database, List<String> documentIDs, long changedAt) {
+        this(database, documentIDs, changedAt, false);
+    }
+
+    DatabaseChange(Database database, List<String> documentIDs, long changedAt, boolean overflow) {
         this.database = database;
         this.documentIDs = Collections.unmodifiableList(documentIDs);
+        this.changedAt = changedAt;
+        this.overflow = overflow;
     }
 
     /**
@@ -47,8 +58,20 @@ public final class DatabaseChange {
     @NonNull
     public List<String> getDocumentIDs() { return documentIDs; }
 
+    /**
+     * Returns true if too many documents changed to list them.
+     * An overflow change has an empty list of document IDs: any document in the database may have changed.
+     * Overflow changes are delivered only when change coalescing is enabled in the database configuration.
+     *
+     * @return true if the changed documents are not listed.
+     */
+    public boolean isOverflow() { return overflow; }
+
+    long getChangedAt() { return changedAt; }
+
     @Override
     public String toString() {
-        return "DatabaseChange{" + "database=" + database + ", documentIDs=" + documentIDs + '}';
+        return "DatabaseChange{" + "database=" + database
+            + ", documentIDs=" + (overflow ? "overflow" : documentIDs) + '}';
     }
 }
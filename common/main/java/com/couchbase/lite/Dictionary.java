@@ -32,11 +32,13 @@ import com.couchbase.lite.internal.fleece.MContext;
 import com.couchbase.lite.internal.fleece.MDict;
 import com.couchbase.lite.internal.fleece.MValue;
 import com.couchbase.lite.internal.utils.DateUtils;
+import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.Preconditions;
 
 
 /**
  * Dictionary provides readonly access to dictionary data.
+ * A Dictionary is immutable: it may be read from several threads, concurrently, without locking.
  */
 public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<String> {
     //-------------------------------------------------------------------------
@@ -82,15 +84,11 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the size of the dictionary
      */
     @Override
-    public int count() {
-        synchronized (lock) { return (int) internalDict.count(); }
-    }
+    public int count() { return read(dict -> (int) dict.count()); }
 
     @NonNull
     @Override
-    public List<String> getKeys() {
-        synchronized (lock) { return internalDict.getKeys(); }
-    }
+    public List<String> getKeys() { return read(MDict::getKeys); }
 
     /**
      * Gets a property's value as an object. The object types are Blob, Array,
@@ -102,10 +100,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      */
     @Nullable
     @Override
-    public Object getValue(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return internalDict.get(key).asNative(internalDict); }
-    }
+    public Object getValue(@NonNull String key) { return read(key, MValue::asNative); }
 
     /**
      * Gets a property's value as a String. Returns null if the value doesn't exist, or its value is not a String.
@@ -116,11 +111,8 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
     @Nullable
     @Override
     public String getString(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) {
-            final Object obj = internalDict.get(key).asNative(internalDict);
-            return obj instanceof String ? (String) obj : null;
-        }
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof String ? (String) obj : null;
     }
 
     /**
@@ -131,10 +123,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      */
     @Nullable
     @Override
-    public Number getNumber(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asNumber(internalDict.get(key).asNative(internalDict)); }
-    }
+    public Number getNumber(@NonNull String key) { return CBLConverter.asNumber(read(key, MValue::asNative)); }
 
     /**
      * Gets a property's value as an int.
@@ -145,10 +134,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the int value.
      */
     @Override
-    public int getInt(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asInteger(internalDict.get(key), internalDict); }
-    }
+    public int getInt(@NonNull String key) { return read(key, CBLConverter::asInteger); }
 
     /**
      * Gets a property's value as an long.
@@ -159,10 +145,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the long value.
      */
     @Override
-    public long getLong(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asLong(internalDict.get(key), internalDict); }
-    }
+    public long getLong(@NonNull String key) { return read(key, CBLConverter::asLong); }
 
     /**
      * Gets a property's value as an float.
@@ -173,10 +156,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the float value.
      */
     @Override
-    public float getFloat(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asFloat(internalDict.get(key), internalDict); }
-    }
+    public float getFloat(@NonNull String key) { return read(key, CBLConverter::asFloat); }
 
     /**
      * Gets a property's value as an double.
@@ -187,10 +167,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the double value.
      */
     @Override
-    public double getDouble(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asDouble(internalDict.get(key), internalDict); }
-    }
+    public double getDouble(@NonNull String key) { return read(key, CBLConverter::asDouble); }
 
     /**
      * Gets a property's value as a boolean. Returns true if the value exists, and is either `true`
@@ -200,10 +177,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the boolean value.
      */
     @Override
-    public boolean getBoolean(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return CBLConverter.asBoolean(internalDict.get(key).asNative(internalDict)); }
-    }
+    public boolean getBoolean(@NonNull String key) { return CBLConverter.asBoolean(read(key, MValue::asNative)); }
 
     /**
      * Gets a property's value as a Blob.
@@ -215,11 +189,8 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
     @Nullable
     @Override
     public Blob getBlob(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) {
-            final Object obj = internalDict.get(key).asNative(internalDict);
-            return obj instanceof Blob ? (Blob) obj : null;
-        }
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Blob ? (Blob) obj : null;
     }
 
     /**
@@ -235,10 +206,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      */
     @Nullable
     @Override
-    public Date getDate(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        return DateUtils.fromJson(getString(key));
-    }
+    public Date getDate(@NonNull String key) { return DateUtils.fromJson(getString(key)); }
 
     /**
      * Get a property's value as a Array, which is a mapping object of an array value.
@@ -250,11 +218,8 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
     @Nullable
     @Override
     public Array getArray(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) {
-            final Object obj = internalDict.get(key).asNative(internalDict);
-            return obj instanceof Array ? (Array) obj : null;
-        }
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Array ? (Array) obj : null;
     }
 
     /**
@@ -267,11 +232,8 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
     @Nullable
     @Override
     public Dictionary getDictionary(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) {
-            final Object obj = internalDict.get(key).asNative(internalDict);
-            return obj instanceof Dictionary ? (Dictionary) obj : null;
-        }
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Dictionary ? (Dictionary) obj : null;
     }
 
     /**
@@ -282,15 +244,7 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      */
     @NonNull
     @Override
-    public Map<String, Object> toMap() {
-        final Map<String, Object> result = new HashMap<>();
-        synchronized (lock) {
-            for (String key : internalDict) {
-                result.put(key, Fleece.toObject(internalDict.get(key).asNative(internalDict)));
-            }
-        }
-        return result;
-    }
+    public Map<String, Object> toMap() { return read(this::toMap); }
 
     /**
      * Tests whether a property exists or not.
@@ -301,20 +255,158 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
      * @return the boolean value representing whether a property exists or not.
      */
     @Override
-    public boolean contains(@NonNull String key) {
-        Preconditions.assertNotNull(key, "key");
-        synchronized (lock) { return !internalDict.get(key).isEmpty(); }
+    public boolean contains(@NonNull String key) { return read(key, (value, parent) -> !value.isEmpty()); }
+
+    //---------------------------------------------
+    // Getters that use pre-encoded keys.
+    // Each is equivalent to the getter that takes the key's String name.
+    //---------------------------------------------
+
+    /**
+     * Gets a property's value, using a pre-encoded key.
+     *
+     * @param key the key.
+     * @return the object value or null.
+     * @see #getValue(String)
+     */
+    @Nullable
+    public Object getValue(@NonNull DictionaryKey key) { return read(key, MValue::asNative); }
+
+    /**
+     * Gets a property's value as a String, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the String or null.
+     * @see #getString(String)
+     */
+    @Nullable
+    public String getString(@NonNull DictionaryKey key) {
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof String ? (String) obj : null;
+    }
+
+    /**
+     * Gets a property's value as a Number, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Number or nil.
+     * @see #getNumber(String)
+     */
+    @Nullable
+    public Number getNumber(@NonNull DictionaryKey key) { return CBLConverter.asNumber(read(key, MValue::asNative)); }
+
+    /**
+     * Gets a property's value as an int, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the int value.
+     * @see #getInt(String)
+     */
+    public int getInt(@NonNull DictionaryKey key) { return read(key, CBLConverter::asInteger); }
+
+    /**
+     * Gets a property's value as a long, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the long value.
+     * @see #getLong(String)
+     */
+    public long getLong(@NonNull DictionaryKey key) { return read(key, CBLConverter::asLong); }
+
+    /**
+     * Gets a property's value as a float, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the float value.
+     * @see #getFloat(String)
+     */
+    public float getFloat(@NonNull DictionaryKey key) { return read(key, CBLConverter::asFloat); }
+
+    /**
+     * Gets a property's value as a double, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the double value.
+     * @see #getDouble(String)
+     */
+    public double getDouble(@NonNull DictionaryKey key) { return read(key, CBLConverter::asDouble); }
+
+    /**
+     * Gets a property's value as a boolean, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the boolean value.
+     * @see #getBoolean(String)
+     */
+    public boolean getBoolean(@NonNull DictionaryKey key) {
+        return CBLConverter.asBoolean(read(key, MValue::asNative));
+    }
+
+    /**
+     * Gets a property's value as a Blob, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Blob value or null.
+     * @see #getBlob(String)
+     */
+    @Nullable
+    public Blob getBlob(@NonNull DictionaryKey key) {
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Blob ? (Blob) obj : null;
     }
 
+    /**
+     * Gets a property's value as a Date, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Date value or null.
+     * @see #getDate(String)
+     */
+    @Nullable
+    public Date getDate(@NonNull DictionaryKey key) { return DateUtils.fromJson(getString(key)); }
+
+    /**
+     * Get a property's value as an Array, using a pre-encoded key.
+     *
+     * @param key the key.
+     * @return the Array object.
+     * @see #getArray(String)
+     */
+    @Nullable
+    public Array getArray(@NonNull DictionaryKey key) {
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Array ? (Array) obj : null;
+    }
+
+    /**
+     * Get a property's value as a Dictionary, using a pre-encoded key.
+     *
+     * @param key the key.
+     * @return the Dictionary object or null if the key doesn't exist.
+     * @see #getDictionary(String)
+     */
+    @Nullable
+    public Dictionary getDictionary(@NonNull DictionaryKey key) {
+        final Object obj = read(key, MValue::asNative);
+        return obj instanceof Dictionary ? (Dictionary) obj : null;
+    }
+
+    /**
+     * Tests whether a property exists or not, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the boolean value representing whether a property exists or not.
+     * @see #contains(String)
+     */
+    public boolean contains(@NonNull DictionaryKey key) { return read(key, (value, parent) -> !value.isEmpty()); }
+
     /**
      * Return a mutable copy of the dictionary
      *
      * @return the MutableDictionary instance
      */
     @NonNull
-    public MutableDictionary toMutable() {
-        synchronized (lock) { return new MutableDictionary(internalDict, true); }
-    }
+    public MutableDictionary toMutable() { return read(dict -> new MutableDictionary(dict, true)); }
 
     //-------------------------------------------------------------------------
     // Implementation of FLEncodable
@@ -394,18 +486,48 @@ public class Dictionary implements DictionaryInterface, FLEncodable, Iterable<St
 
     MCollection toMCollection() { return internalDict; }
 
+    // Every read of the contents of this dictionary goes through one of these three methods.
+    // A Dictionary cannot change underneath a reader, so these methods hold no lock:
+    // MutableDictionary overrides them to hold the database lock.
+    <T> T read(@NonNull String key, @NonNull ValueReader<T> reader) {
+        return reader.read(internalDict.get(Preconditions.assertNotNull(key, "key")), internalDict);
+    }
+
+    <T> T read(@NonNull DictionaryKey key, @NonNull ValueReader<T> reader) {
+        Preconditions.assertNotNull(key, "key");
+        return reader.read(internalDict.get(key.getKey(), key.getKeyBytes()), internalDict);
+    }
+
+    <T> T read(@NonNull Fn.Function<MDict, T> reader) { return reader.apply(internalDict); }
+
     //---------------------------------------------
     // private
     //---------------------------------------------
 
+    @NonNull
+    private Map<String, Object> toMap(@NonNull MDict dict) {
+        // If the content is unchanged, decode it in a single native call.
+        final Database db = getDatabase();
+        if (db != null) {
+            final Map<String, Object> decoded = dict.decodeUnchanged();
+            if (decoded != null) { return MValueDelegate.convertDecodedDict(decoded, db); }
+        }
+
+        final Map<String, Object> result = new HashMap<>();
+        for (String key : dict) { result.put(key, Fleece.toObject(dict.get(key).asNative(dict))); }
+        return result;
+    }
+
     @NonNull
     private Object getDbLock() {
+        final Database db = getDatabase();
+        return (db != null) ? db.getLock() : new Object();
+    }
+
+    @Nullable
+    private Database getDatabase() {
         final MContext context = internalDict.getContext();
-        if (context instanceof DbContext) {
-            final Database db = ((DbContext) context).getDatabase();
-            if (db != null) { return db.getLock(); }
-        }
-        return new Object();
+        return (context instanceof DbContext) ? ((DbContext) context).getDatabase() : null;
     }
 
     // hashCode for pair of key and value
@@ -0,0 +1,96 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import android.support.annotation.NonNull;
+
+import java.nio.charset.StandardCharsets;
+
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A property name that is prepared once, for fast lookups in many documents.
+ * <p>
+ * Looking up a property with a String key encodes the key as UTF-8, every time.
+ * A DictionaryKey is encoded only once, making it a good choice for properties that are read very frequently:
+ * <pre>
+ *     private static final DictionaryKey TYPE = new DictionaryKey("type");
+ *     ...
+ *     final String type = doc.getString(TYPE);
+ * </pre>
+ * A DictionaryKey holds no state that depends on a database: each lookup finds the key's compact,
+ * shared-key, encoding in the database of the document being read.  It may be shared between threads
+ * and used with documents from any database.
+ */
+public final class DictionaryKey {
+    //---------------------------------------------
+    // member variables
+    //---------------------------------------------
+    @NonNull
+    private final String key;
+
+    @NonNull
+    private final byte[] keyBytes;
+
+    //---------------------------------------------
+    // constructors
+    //---------------------------------------------
+
+    /**
+     * Create a dictionary key.
+     *
+     * @param key the property name.
+     */
+    public DictionaryKey(@NonNull String key) {
+        this.key = Preconditions.assertNotNull(key, "key");
+        this.keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    //---------------------------------------------
+    // API - public methods
+    //---------------------------------------------
+
+    /**
+     * The property name.
+     *
+     * @return the property name.
+     */
+    @NonNull
+    public String getKey() { return key; }
+
+    @NonNull
+    @Override
+    public String toString() { return "DictionaryKey{" + key + "}"; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof DictionaryKey)) { return false; }
+        return key.equals(((DictionaryKey) o).key);
+    }
+
+    @Override
+    public int hashCode() { return key.hashCode(); }
+
+    //---------------------------------------------
+    // Package level access
+    //---------------------------------------------
+
+    // !!! The caller must not modify the array.
+    @NonNull
+    byte[] getKeyBytes() { return keyBytes; }
+}
@@ -25,8 +25,13 @@ class DocContext extends DbContext {
     @Nullable
     private final C4Document c4Document;
 
+    // A snapshot's keys must be resolved by the read-only connection that read it.
     DocContext(@Nullable Database db, @Nullable C4Document c4Doc) {
-        super(db);
+        super(
+            db,
+            ((c4Doc != null) && c4Doc.isSnapshot())
+                ? c4Doc.getSnapshotSharedKeys()
+                : ((db == null) ? null : db.getSharedKeys()));
         this.c4Document = c4Doc;
     }
 
@@ -19,6 +19,7 @@ import android.support.annotation.GuardedBy;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -29,9 +30,12 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import com.couchbase.lite.internal.CBLStatus;
 import com.couchbase.lite.internal.core.C4Constants;
 import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.fleece.FLConstants;
 import com.couchbase.lite.internal.fleece.FLDict;
 import com.couchbase.lite.internal.fleece.FLEncoder;
 import com.couchbase.lite.internal.fleece.FLSliceResult;
+import com.couchbase.lite.internal.fleece.JFLDict;
+import com.couchbase.lite.internal.fleece.JFLValue;
 import com.couchbase.lite.internal.fleece.MRoot;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
@@ -70,6 +74,15 @@ public class Document implements DictionaryInterface, Iterable<String> {
         try { c4Doc = database.getC4Document(id); }
         catch (LiteCoreException e) { throw CBLStatus.convertException(e); }
 
+        return getDocument(database, id, c4Doc, includeDeleted);
+    }
+
+    static Document getDocument(
+        @NonNull Database database,
+        @NonNull String id,
+        @NonNull C4Document c4Doc,
+        boolean includeDeleted)
+        throws CouchbaseLiteException {
         if (includeDeleted || ((c4Doc.getFlags() & C4Constants.DocumentFlags.DELETED) == 0)) {
             return new Document(database, id, c4Doc, false);
         }
@@ -112,6 +125,12 @@ public class Document implements DictionaryInterface, Iterable<String> {
     @Nullable
     private MRoot root;
 
+    // When the Java Fleece decoder is enabled, the scalar getters of an immutable document
+    // read its body directly, with no native calls.  The body belongs to c4Document.
+    @GuardedBy("lock")
+    @Nullable
+    private JFLDict body;
+
     // This nasty little hack is set when a document is created by a replication filter,
     // without a c4doc.  Since that is the only place it is set, it is *also* used
     // in toMutable, as a flag meaning that this document was obtained from a replication filter,
@@ -238,7 +257,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      */
     @Nullable
     @Override
-    public String getString(@NonNull String key) { return getContent().getString(key); }
+    public String getString(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getString(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return (value == null) ? null : value.asString();
+        }
+    }
 
     /**
      * Gets a property's value as a Number.
@@ -249,7 +275,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      */
     @Nullable
     @Override
-    public Number getNumber(@NonNull String key) { return getContent().getNumber(key); }
+    public Number getNumber(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getNumber(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return ((value == null) || isCollection(value)) ? null : CBLConverter.asNumber(value.asObject());
+        }
+    }
 
     /**
      * Gets a property's value as an int.
@@ -260,7 +293,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the int value.
      */
     @Override
-    public int getInt(@NonNull String key) { return getContent().getInt(key); }
+    public int getInt(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getInt(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return (value == null) ? 0 : (int) value.asInt();
+        }
+    }
 
     /**
      * Gets a property's value as an long.
@@ -271,7 +311,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the long value.
      */
     @Override
-    public long getLong(@NonNull String key) { return getContent().getLong(key); }
+    public long getLong(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getLong(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return (value == null) ? 0L : value.asInt();
+        }
+    }
 
     /**
      * Gets a property's value as an float.
@@ -282,7 +329,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the float value.
      */
     @Override
-    public float getFloat(@NonNull String key) { return getContent().getFloat(key); }
+    public float getFloat(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getFloat(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return (value == null) ? 0.0F : value.asFloat();
+        }
+    }
 
     /**
      * Gets a property's value as an double.
@@ -293,7 +347,14 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the double value.
      */
     @Override
-    public double getDouble(@NonNull String key) { return getContent().getDouble(key); }
+    public double getDouble(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getDouble(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            return (value == null) ? 0.0 : value.asDouble();
+        }
+    }
 
     /**
      * Gets a property's value as a boolean. Returns true if the value exists, and is either `true`
@@ -303,7 +364,15 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the boolean value.
      */
     @Override
-    public boolean getBoolean(@NonNull String key) { return getContent().getBoolean(key); }
+    public boolean getBoolean(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().getBoolean(key); }
+        synchronized (dict) {
+            final JFLValue value = dict.get(key);
+            if (value == null) { return false; }
+            return isCollection(value) || CBLConverter.asBoolean(value.asObject());
+        }
+    }
 
     /**
      * Gets a property's value as a Blob.
@@ -373,7 +442,140 @@ public class Document implements DictionaryInterface, Iterable<String> {
      * @return the boolean value representing whether a property exists or not.
      */
     @Override
-    public boolean contains(@NonNull String key) { return getContent().contains(key); }
+    public boolean contains(@NonNull String key) {
+        final JFLDict dict = getBody();
+        if (dict == null) { return getContent().contains(key); }
+        synchronized (dict) { return dict.get(key) != null; }
+    }
+
+    //---------------------------------------------
+    // Getters that use pre-encoded keys.
+    // Each is equivalent to the getter that takes the key's String name.
+    //---------------------------------------------
+
+    /**
+     * Gets a property's value, using a pre-encoded key.
+     *
+     * @param key the key.
+     * @return the object value or null.
+     * @see #getValue(String)
+     */
+    @Nullable
+    public Object getValue(@NonNull DictionaryKey key) { return getContent().getValue(key); }
+
+    /**
+     * Gets a property's value as a String, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the String or null.
+     * @see #getString(String)
+     */
+    @Nullable
+    public String getString(@NonNull DictionaryKey key) { return getContent().getString(key); }
+
+    /**
+     * Gets a property's value as a Number, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Number or null.
+     * @see #getNumber(String)
+     */
+    @Nullable
+    public Number getNumber(@NonNull DictionaryKey key) { return getContent().getNumber(key); }
+
+    /**
+     * Gets a property's value as an int, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the int value.
+     * @see #getInt(String)
+     */
+    public int getInt(@NonNull DictionaryKey key) { return getContent().getInt(key); }
+
+    /**
+     * Gets a property's value as a long, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the long value.
+     * @see #getLong(String)
+     */
+    public long getLong(@NonNull DictionaryKey key) { return getContent().getLong(key); }
+
+    /**
+     * Gets a property's value as a float, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the float value.
+     * @see #getFloat(String)
+     */
+    public float getFloat(@NonNull DictionaryKey key) { return getContent().getFloat(key); }
+
+    /**
+     * Gets a property's value as a double, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the double value.
+     * @see #getDouble(String)
+     */
+    public double getDouble(@NonNull DictionaryKey key) { return getContent().getDouble(key); }
+
+    /**
+     * Gets a property's value as a boolean, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the boolean value.
+     * @see #getBoolean(String)
+     */
+    public boolean getBoolean(@NonNull DictionaryKey key) { return getContent().getBoolean(key); }
+
+    /**
+     * Gets a property's value as a Blob, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Blob value or null.
+     * @see #getBlob(String)
+     */
+    @Nullable
+    public Blob getBlob(@NonNull DictionaryKey key) { return getContent().getBlob(key); }
+
+    /**
+     * Gets a property's value as a Date, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the Date value or null.
+     * @see #getDate(String)
+     */
+    @Nullable
+    public Date getDate(@NonNull DictionaryKey key) { return getContent().getDate(key); }
+
+    /**
+     * Get a property's value as an Array, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return The Array object or null.
+     * @see #getArray(String)
+     */
+    @Nullable
+    public Array getArray(@NonNull DictionaryKey key) { return getContent().getArray(key); }
+
+    /**
+     * Get a property's value as a Dictionary, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return The Dictionary object or null.
+     * @see #getDictionary(String)
+     */
+    @Nullable
+    public Dictionary getDictionary(@NonNull DictionaryKey key) { return getContent().getDictionary(key); }
+
+    /**
+     * Tests whether a property exists or not, using a pre-encoded key.
+     *
+     * @param key the key
+     * @return the boolean value representing whether a property exists or not.
+     * @see #contains(String)
+     */
+    public boolean contains(@NonNull DictionaryKey key) { return getContent().contains(key); }
 
     //---------------------------------------------
     // Iterator implementation
@@ -543,6 +745,18 @@ public class Document implements DictionaryInterface, Iterable<String> {
     // Private access
     //---------------------------------------------
 
+    // The body is LiteCore's memory, freed when the C4Document that owns it is finalized.  A reader must
+    // hold the body's monitor: that keeps the body, and so the C4Document that it references, reachable.
+    @Nullable
+    private JFLDict getBody() {
+        synchronized (lock) { return body; }
+    }
+
+    private static boolean isCollection(@NonNull JFLValue value) {
+        final int type = value.getType();
+        return (type == FLConstants.ValueType.DICT) || (type == FLConstants.ValueType.ARRAY);
+    }
+
     // Sets c4doc and updates the root dictionary
     private void setC4Document(@Nullable C4Document c4doc, boolean mutable) {
         synchronized (lock) {
@@ -563,6 +777,8 @@ public class Document implements DictionaryInterface, Iterable<String> {
 
     @GuardedBy("lock")
     private void updateDictionaryLocked(boolean mutable) {
+        body = null;
+
         if (data == null) {
             root = null;
             internalDict = mutable ? new MutableDictionary() : new Dictionary();
@@ -574,6 +790,21 @@ public class Document implements DictionaryInterface, Iterable<String> {
 
         final MRoot newRoot = new MRoot(new DocContext(db, c4Document), data.toFLValue(), mutable);
         root = newRoot;
+
+        if (!mutable && (c4Document != null) && JFLValue.isEnabled()) {
+            final ByteBuffer buf = c4Document.getSelectedBodyBuffer();
+            final JFLValue value = (buf == null)
+                ? null
+                : JFLValue.fromData(buf, newRoot.getContext().getSharedKeys(), c4Document);
+            body = (value == null) ? null : value.asFLDict();
+        }
+
+        // A snapshot's data belongs to the read-only connection: a writer cannot change it.
+        if ((c4Document != null) && c4Document.isSnapshot()) {
+            internalDict = (Dictionary) newRoot.asNative();
+            return;
+        }
+
         synchronized (db.getLock()) { internalDict = (Dictionary) newRoot.asNative(); }
     }
 }
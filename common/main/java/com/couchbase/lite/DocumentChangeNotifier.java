@@ -16,39 +16,23 @@
 
 package com.couchbase.lite;
 
-import com.couchbase.lite.internal.core.C4DocumentObserver;
+import android.support.annotation.NonNull;
 
 
+/**
+ * The listeners for changes to a single document.
+ * There is no native observer per document: the database posts changes to the notifier for each changed doc ID.
+ */
 class DocumentChangeNotifier extends ChangeNotifier<DocumentChange> {
+    @NonNull
     private final Database db;
+    @NonNull
     private final String docID;
-    private final C4DocumentObserver observer;
 
-    DocumentChangeNotifier(final Database db, final String docID) {
+    DocumentChangeNotifier(@NonNull Database db, @NonNull String docID) {
         this.db = db;
         this.docID = docID;
-        this.observer = db.createDocumentObserver(
-            this,
-            docID,
-            (ign1, ign2, ign3, context)
-                -> db.scheduleOnPostNotificationExecutor(((DocumentChangeNotifier) context)::postChange, 0)
-        );
     }
 
-    @SuppressWarnings("NoFinalizer")
-    @Override
-    protected void finalize() throws Throwable {
-        try {
-            final C4DocumentObserver obs = observer;
-            if (obs == null) { return; }
-            obs.close();
-        }
-        finally {
-            super.finalize();
-        }
-    }
-
-    private void postChange() {
-        postChange(new DocumentChange(db, docID));
-    }
+    void postChange() { postChange(new DocumentChange(db, docID)); }
 }
@@ -17,11 +17,18 @@ package com.couchbase.lite;
 
 import android.support.annotation.GuardedBy;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.couchbase.lite.internal.ExecutionService;
 import com.couchbase.lite.internal.support.Log;
 import com.couchbase.lite.internal.utils.ClassUtils;
 import com.couchbase.lite.internal.utils.Preconditions;
@@ -47,6 +54,62 @@ final class LiveQuery implements DatabaseChangeListener {
     @VisibleForTesting
     enum State {STOPPED, STARTED, SCHEDULED}
 
+    //---------------------------------------------
+    // Types
+    //---------------------------------------------
+
+    // Computes the difference between successive results for one listener.
+    // Used only by refreshResults, which is never run concurrently for a given live query.
+    private static final class RowDiffer {
+        @NonNull
+        final String keyColumn;
+        @NonNull
+        final ChangeListenerToken<QueryChange> token;
+
+        // key -> the values in the row with that key, in the results last delivered to the listener.
+        private Map<Object, List<Object>> previousRows;
+
+        RowDiffer(@NonNull String keyColumn, @NonNull ChangeListenerToken<QueryChange> token) {
+            this.keyColumn = keyColumn;
+            this.token = token;
+        }
+
+        // Rows whose key is null are ignored, as are all but the first of several rows with the same key.
+        // Returns null if there are no changes to report.
+        @Nullable
+        QueryDiff diff(@NonNull List<Result> rows, @NonNull List<List<Object>> rowValues) {
+            final boolean isFirst = previousRows == null;
+            final Map<Object, List<Object>> prevRows = (isFirst) ? new HashMap<>() : previousRows;
+
+            final Map<Object, List<Object>> curRows = new HashMap<>();
+            final List<Result> inserted = new ArrayList<>();
+            final List<Result> changed = new ArrayList<>();
+
+            final int n = rows.size();
+            for (int i = 0; i < n; i++) {
+                final Result row = rows.get(i);
+                final Object key = row.getValue(keyColumn);
+                if ((key == null) || curRows.containsKey(key)) { continue; }
+
+                final List<Object> values = rowValues.get(i);
+                curRows.put(key, values);
+
+                final List<Object> prevValues = prevRows.remove(key);
+                if (prevValues == null) { inserted.add(row); }
+                else if (!prevValues.equals(values)) { changed.add(row); }
+            }
+
+            // anything left in prevRows is gone.
+            final List<Object> removed = new ArrayList<>(prevRows.keySet());
+
+            previousRows = curRows;
+
+            return ((!isFirst) && inserted.isEmpty() && changed.isEmpty() && removed.isEmpty())
+                ? null
+                : new QueryDiff(keyColumn, inserted, changed, removed);
+        }
+    }
+
     //---------------------------------------------
     // member variables
     //---------------------------------------------
@@ -55,6 +118,16 @@ final class LiveQuery implements DatabaseChangeListener {
 
     private final AtomicReference<State> state = new AtomicReference<>(State.STOPPED);
 
+    // The System.nanoTime of the earliest change not yet reflected in a refresh.  0 if unknown or none.
+    private final AtomicLong pendingChangeAt = new AtomicLong();
+
+    private final AtomicLong refreshCount = new AtomicLong();
+
+    // The start time and the duration of the last refresh, in ms.  Used only by a refresh policy.
+    private volatile long lastRefreshAt;
+    private volatile long lastRefreshTime;
+    private final AtomicLong skippedRefreshCount = new AtomicLong();
+
 
     @NonNull
     private final AbstractQuery query;
@@ -64,9 +137,21 @@ final class LiveQuery implements DatabaseChangeListener {
     @GuardedBy("lock")
     private ListenerToken dbListenerToken;
 
+    // All refreshes of this query run on this executor, so that they run, and notify listeners, in order.
+    @GuardedBy("lock")
+    private ExecutionService.CloseableExecutor executor;
+
+    // Null unless change filtering is enabled, and possible, for the query.
+    @GuardedBy("lock")
+    @Nullable
+    private LiveQueryChangeFilter changeFilter;
+
     @GuardedBy("lock")
     private ResultSet previousResults;
 
+    @GuardedBy("lock")
+    private final Map<ListenerToken, RowDiffer> rowDiffers = new HashMap<>();
+
     //---------------------------------------------
     // Constructors
     //---------------------------------------------
@@ -89,7 +174,19 @@ final class LiveQuery implements DatabaseChangeListener {
     //---------------------------------------------
 
     @Override
-    public void changed(@NonNull DatabaseChange change) { update(LIVE_QUERY_UPDATE_INTERVAL_MS); }
+    public void changed(@NonNull DatabaseChange change) {
+        final long changedAt = change.getChangedAt();
+        if (changedAt != 0) { pendingChangeAt.compareAndSet(0, changedAt); }
+
+        final LiveQueryChangeFilter filter;
+        synchronized (lock) { filter = changeFilter; }
+        if (filter != null) {
+            if (change.isOverflow()) { filter.invalidate(); }
+            else { filter.changed(change.getDocumentIDs()); }
+        }
+
+        update(getRefreshDelay());
+    }
 
     //---------------------------------------------
     // package
@@ -101,13 +198,31 @@ final class LiveQuery implements DatabaseChangeListener {
      * NOTE: this method is synchronized with Query level.
      */
     ListenerToken addChangeListener(Executor executor, QueryChangeListener listener) {
-        final ChangeListenerToken<?> token = changeNotifier.addChangeListener(executor, listener);
+        final ChangeListenerToken<?> token = changeNotifier.addChangeListener(executor, measured(listener));
         start(false);
         return token;
     }
 
+    /**
+     * Adds a change listener that receives the difference between successive results,
+     * with rows identified by the value in the key column.
+     * The query is re-run, so that the new listener receives all of the current results as inserted rows.
+     */
+    ListenerToken addChangeListener(Executor executor, @NonNull String keyColumn, QueryChangeListener listener) {
+        Preconditions.assertNotNull(keyColumn, "key column");
+        final ChangeListenerToken<QueryChange> token = new ChangeListenerToken<>(executor, measured(listener));
+        synchronized (lock) { rowDiffers.put(token, new RowDiffer(keyColumn, token)); }
+        start(true);
+        return token;
+    }
+
     void removeChangeListener(ListenerToken token) {
-        if (changeNotifier.removeChangeListener(token) <= 0) { stop(); }
+        final int nDiffers;
+        synchronized (lock) {
+            rowDiffers.remove(token);
+            nDiffers = rowDiffers.size();
+        }
+        if ((changeNotifier.removeChangeListener(token) + nDiffers) <= 0) { stop(); }
     }
 
     /**
@@ -121,7 +236,11 @@ final class LiveQuery implements DatabaseChangeListener {
             db.mustBeOpen();
 
             if (state.compareAndSet(State.STOPPED, State.STARTED)) {
-                synchronized (lock) { dbListenerToken = db.addActiveLiveQuery(this); }
+                synchronized (lock) {
+                    if (executor == null) { executor = db.getQueryExecutor(); }
+                    changeFilter = (!query.isChangeFilteringEnabled()) ? null : LiveQueryChangeFilter.create(query);
+                    dbListenerToken = db.addActiveLiveQuery(this);
+                }
             }
             else {
                 // Here if the live query was already running.  This can happen in two ways:
@@ -130,7 +249,10 @@ final class LiveQuery implements DatabaseChangeListener {
                 // In either case we probably want to kick off a new query.
                 // In the latter case the current query results are irrelevant and need to be cleared.
                 if (shouldClearResults) {
-                    synchronized (lock) { previousResults = null; }
+                    synchronized (lock) {
+                        previousResults = null;
+                        if (changeFilter != null) { changeFilter.invalidate(); }
+                    }
                 }
             }
         }
@@ -151,6 +273,7 @@ final class LiveQuery implements DatabaseChangeListener {
 
             synchronized (lock) {
                 previousResults = null;
+                changeFilter = null;
 
                 final ListenerToken token = dbListenerToken;
                 dbListenerToken = null;
@@ -163,43 +286,112 @@ final class LiveQuery implements DatabaseChangeListener {
 
     State getState() { return state.get(); }
 
+    long getRefreshCount() { return refreshCount.get(); }
+
+    long getSkippedRefreshCount() { return skippedRefreshCount.get(); }
+
     //---------------------------------------------
     // Private (in class only)
     //---------------------------------------------
 
     private void update(long delay) {
         if (!state.compareAndSet(State.STARTED, State.SCHEDULED)) { return; }
-        query.getDatabase().scheduleOnQueryExecutor(this::refreshResults, delay);
+        final ExecutionService.CloseableExecutor exec;
+        synchronized (lock) { exec = executor; }
+        query.getDatabase().scheduleOnQueryExecutor(exec, this::refreshResults, delay);
+    }
+
+    private long getRefreshDelay() {
+        final QueryRefreshPolicy policy = query.getRefreshPolicy();
+        return (policy == null)
+            ? LIVE_QUERY_UPDATE_INTERVAL_MS
+            : policy.getRefreshDelayMs(System.currentTimeMillis(), lastRefreshAt, lastRefreshTime);
     }
 
-    // Runs on the query.database.queryExecutor
+    // Record the time from the commit to the delivery of the change, before delivering it.
+    @NonNull
+    private ChangeListener<QueryChange> measured(@NonNull QueryChangeListener listener) {
+        return change -> {
+            final Database db = query.getDatabase();
+            if (db != null) { db.recordLiveQueryLatency(change.getChangedAt()); }
+            listener.changed(change);
+        };
+    }
+
+    // Runs on this live query's executor
     // Assumes that call to `previousResults.refresh` is safe, even if previousResults has been freed.
-    @SuppressWarnings("PMD.CloseResource")
     private void refreshResults() {
         try {
             final ResultSet prevResults;
+            final LiveQueryChangeFilter filter;
             synchronized (lock) {
                 if (!state.compareAndSet(State.SCHEDULED, State.STARTED)) { return; }
                 prevResults = previousResults;
+                filter = changeFilter;
             }
 
-            final ResultSet newResults = (prevResults == null) ? query.execute() : prevResults.refresh();
-            Log.i(DOMAIN, "LiveQuery refresh: %s > %s", prevResults, newResults);
-            if (newResults == null) { return; }
+            // Changes made after this point may not be visible to this refresh: they will cause another.
+            final long changedAt = pendingChangeAt.getAndSet(0);
 
-            boolean update = false;
-            synchronized (lock) {
-                if (state.get() != State.STOPPED) {
-                    previousResults = newResults;
-                    update = true;
-                }
+            // The filter must see every refresh, even the first, in order to track the matching documents.
+            if ((filter != null) && (!filter.isRefreshNeeded()) && (prevResults != null)) {
+                skippedRefreshCount.incrementAndGet();
+                return;
             }
+            refreshCount.incrementAndGet();
 
-            // Listeners may be notified even after the LiveQuery has been stopped.
-            if (update) { changeNotifier.postChange(new QueryChange(query, newResults, null)); }
+            final long startedAt = System.currentTimeMillis();
+            lastRefreshAt = startedAt;
+            try { refreshAndNotify(prevResults, changedAt); }
+            finally { lastRefreshTime = System.currentTimeMillis() - startedAt; }
         }
         catch (CouchbaseLiteException err) {
-            changeNotifier.postChange(new QueryChange(query, null, err));
+            final QueryChange change = new QueryChange(query, null, err);
+            synchronized (lock) {
+                for (RowDiffer differ: rowDiffers.values()) { differ.token.postChange(change); }
+            }
+            changeNotifier.postChange(change);
+        }
+    }
+
+    @SuppressWarnings("PMD.CloseResource")
+    private void refreshAndNotify(@Nullable ResultSet prevResults, long changedAt) throws CouchbaseLiteException {
+        final ResultSet newResults = (prevResults == null) ? query.execute() : prevResults.refresh();
+        Log.i(DOMAIN, "LiveQuery refresh: %s > %s", prevResults, newResults);
+        if (newResults == null) { return; }
+
+        boolean update = false;
+        final List<RowDiffer> differs = new ArrayList<>();
+        synchronized (lock) {
+            if (state.get() != State.STOPPED) {
+                previousResults = newResults;
+                differs.addAll(rowDiffers.values());
+                update = true;
+            }
+        }
+
+        // Listeners may be notified even after the LiveQuery has been stopped.
+        if (!update) { return; }
+
+        if (!differs.isEmpty()) { postDiffs(differs, newResults, changedAt); }
+
+        changeNotifier.postChange(new QueryChange(query, newResults, null, null, changedAt));
+    }
+
+    // Read the new results once, for all of the listeners that want diffs,
+    // then rewind them so that they can be read again by all listeners.
+    private void postDiffs(@NonNull List<RowDiffer> differs, @NonNull ResultSet newResults, long changedAt)
+        throws CouchbaseLiteException {
+        final List<Result> rows = newResults.allResults();
+        newResults.rewind();
+
+        final List<List<Object>> rowValues = new ArrayList<>(rows.size());
+        for (Result row: rows) { rowValues.add(row.toList()); }
+
+        for (RowDiffer differ: differs) {
+            final QueryDiff diff = differ.diff(rows, rowValues);
+            if (diff == null) { continue; }
+            differ.token.postChange(new QueryChange(query, newResults, null, diff, changedAt));
         }
     }
 }
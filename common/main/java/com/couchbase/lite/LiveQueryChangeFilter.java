@@ -0,0 +1,181 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import android.support.annotation.GuardedBy;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Decides whether a database change can affect the results of a live query.
+ * <p>
+ * The results of a query with a single data source depend only on the documents that satisfy its WHERE clause.
+ * A change is relevant, then, only if one of the changed documents satisfied the WHERE clause before the
+ * change, or satisfies it afterwards. The filter keeps the set of IDs of the documents that currently satisfy
+ * the clause. It updates that set by running the WHERE clause, restricted to the changed documents, in LiteCore.
+ * The lookup uses the document ID index, so it is cheap when only a few documents have changed.
+ * <p>
+ * changed() and invalidate() may be called from any thread. isRefreshNeeded() must be called only
+ * from the live query's refresh task.
+ */
+final class LiveQueryChangeFilter {
+    // The number of document IDs in a single lookup.
+    private static final int LOOKUP_IDS = 16;
+
+    // If more than this many documents change between refreshes, give up and refresh.
+    private static final int MAX_PENDING_IDS = 1024;
+
+    private static final String ID_PARAM = "_cblChangedId";
+
+    /**
+     * Create a filter for the given query.
+     *
+     * @return a filter, or null if it is not possible to filter changes for the query.
+     */
+    @Nullable
+    static LiveQueryChangeFilter create(@NonNull AbstractQuery query) {
+        final AbstractQuery allIds = query.getMatchingIdsQuery(null);
+        if (allIds == null) { return null; }
+
+        final String[] params = new String[LOOKUP_IDS];
+        for (int i = 0; i < params.length; i++) { params[i] = ID_PARAM + i; }
+        final AbstractQuery changedIds = query.getMatchingIdsQuery(params);
+        if (changedIds == null) { return null; }
+
+        return new LiveQueryChangeFilter(query, allIds, changedIds, params);
+    }
+
+
+    @NonNull
+    private final AbstractQuery query;
+    @NonNull
+    private final AbstractQuery allIdsQuery;
+    @NonNull
+    private final AbstractQuery changedIdsQuery;
+    @NonNull
+    private final String[] idParams;
+
+    @GuardedBy("this")
+    @NonNull
+    private Set<String> pendingIds = new HashSet<>();
+    @GuardedBy("this")
+    private boolean invalid = true;
+
+    // The IDs of the documents that satisfy the WHERE clause.
+    // Used only by the refresh task, so needs no synchronization.
+    @NonNull
+    private final Set<String> matchingIds = new HashSet<>();
+
+    private LiveQueryChangeFilter(
+        @NonNull AbstractQuery query,
+        @NonNull AbstractQuery allIdsQuery,
+        @NonNull AbstractQuery changedIdsQuery,
+        @NonNull String[] idParams) {
+        this.query = query;
+        this.allIdsQuery = allIdsQuery;
+        this.changedIdsQuery = changedIdsQuery;
+        this.idParams = idParams;
+    }
+
+    /**
+     * Note that the documents with the given IDs have changed.
+     */
+    synchronized void changed(@NonNull Collection<String> docIds) {
+        if (invalid) { return; }
+        pendingIds.addAll(docIds);
+        if (pendingIds.size() > MAX_PENDING_IDS) { invalidate(); }
+    }
+
+    /**
+     * Forget everything: the next refresh is necessary.
+     * This must be called whenever the query parameters change.
+     */
+    synchronized void invalidate() {
+        invalid = true;
+        pendingIds = new HashSet<>();
+    }
+
+    /**
+     * Decide whether any of the changes since the last call may have changed the query results.
+     *
+     * @return false if the query results cannot have changed.
+     * @throws CouchbaseLiteException if a lookup fails.  The filter is invalidated.
+     */
+    boolean isRefreshNeeded() throws CouchbaseLiteException {
+        final Set<String> changedIds;
+        final boolean wasInvalid;
+        synchronized (this) {
+            changedIds = pendingIds;
+            pendingIds = new HashSet<>();
+            wasInvalid = invalid;
+            invalid = false;
+        }
+
+        try {
+            if (wasInvalid) {
+                matchingIds.clear();
+                addIds(allIdsQuery, query.getParameters(), matchingIds);
+                return true;
+            }
+
+            boolean relevant = false;
+            final List<String> ids = new ArrayList<>(changedIds);
+            final Parameters params = new Parameters(query.getParameters());
+            for (int i = 0; i < ids.size(); i += LOOKUP_IDS) {
+                for (int j = 0; j < LOOKUP_IDS; j++) {
+                    // there are no documents with an empty ID
+                    params.setString(idParams[j], ((i + j) < ids.size()) ? ids.get(i + j) : "");
+                }
+
+                final Set<String> matches = new HashSet<>();
+                addIds(changedIdsQuery, params, matches);
+
+                // A changed document that matched before or matches now may have changed the results.
+                for (int j = i; j < Math.min(i + LOOKUP_IDS, ids.size()); j++) {
+                    if (matchingIds.remove(ids.get(j))) { relevant = true; }
+                }
+                if (!matches.isEmpty()) {
+                    matchingIds.addAll(matches);
+                    relevant = true;
+                }
+            }
+
+            return relevant;
+        }
+        catch (CouchbaseLiteException e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    private void addIds(@NonNull AbstractQuery idsQuery, @Nullable Parameters params, @NonNull Set<String> ids)
+        throws CouchbaseLiteException {
+        idsQuery.setParameters(params);
+        final ResultSet results = idsQuery.execute();
+        Result result;
+        while ((result = results.next()) != null) {
+            final String id = result.getString(0);
+            if (id != null) { ids.add(id); }
+        }
+    }
+}
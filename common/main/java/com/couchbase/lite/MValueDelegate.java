@@ -18,6 +18,9 @@ package com.couchbase.lite;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.couchbase.lite.internal.DbContext;
@@ -70,6 +73,25 @@ final class MValueDelegate implements MValue.Delegate {
         else { enc.writeValue(object); }
     }
 
+    //-------------------------------------------------------------------------
+    // Package methods
+    //-------------------------------------------------------------------------
+
+    // Fleece decoded directly to Java contains raw data and dictionaries, where toNative creates Blobs.
+    // Replace them, in place, so that the content is what toMap would have produced.
+    @NonNull
+    static Map<String, Object> convertDecodedDict(@NonNull Map<String, Object> dict, @NonNull Database db) {
+        for (Map.Entry<String, Object> entry: dict.entrySet()) { entry.setValue(convertDecoded(entry.getValue(), db)); }
+        return dict;
+    }
+
+    @NonNull
+    static List<Object> convertDecodedArray(@NonNull List<Object> array, @NonNull Database db) {
+        final ListIterator<Object> items = array.listIterator();
+        while (items.hasNext()) { items.set(convertDecoded(items.next(), db)); }
+        return array;
+    }
+
     //-------------------------------------------------------------------------
     // Private methods
     //-------------------------------------------------------------------------
@@ -123,4 +145,28 @@ final class MValueDelegate implements MValue.Delegate {
     private Object createBlob(@NonNull FLDict properties, @NonNull DbContext context) {
         return new Blob(Preconditions.assertNotNull(context.getDatabase(), "database"), properties.asDict());
     }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static Object convertDecoded(@Nullable Object value, @NonNull Database db) {
+        if (value instanceof byte[]) { return new Blob("application/octet-stream", (byte[]) value); }
+
+        if (value instanceof List) { return convertDecodedArray((List<Object>) value, db); }
+
+        if (!(value instanceof Map)) { return value; }
+
+        final Map<String, Object> dict = (Map<String, Object>) value;
+        return (isBlob(dict)) ? new Blob(db, dict) : convertDecodedDict(dict, db);
+    }
+
+    // The same tests as mValueToDictionary
+    private static boolean isBlob(@NonNull Map<String, Object> dict) {
+        final Object type = dict.get(Blob.META_PROP_TYPE);
+        if (type instanceof String) { return Blob.TYPE_BLOB.equals(type); }
+
+        return dict.containsKey(Blob.PROP_DIGEST)
+            && dict.containsKey(Blob.PROP_LENGTH)
+            && dict.containsKey(Blob.PROP_STUB)
+            && dict.containsKey(Blob.PROP_REVPOS);
+    }
 }
@@ -24,6 +24,7 @@ import java.util.List;
 import com.couchbase.lite.internal.fleece.MArray;
 import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MValue;
+import com.couchbase.lite.internal.utils.Fn;
 
 
 /**
@@ -591,4 +592,20 @@ public final class MutableArray extends Array implements MutableArrayInterface {
     public MutableDictionary getDictionary(int index) {
         return (MutableDictionary) super.getDictionary(index);
     }
+
+    //---------------------------------------------
+    // package level access
+    //---------------------------------------------
+
+    // Unlike its immutable parent, a MutableArray can change underneath a reader:
+    // every read must hold the database lock.
+    @Override
+    <T> T read(int index, @NonNull ValueReader<T> reader) {
+        synchronized (lock) { return super.read(index, reader); }
+    }
+
+    @Override
+    <T> T read(@NonNull Fn.Function<MArray, T> reader) {
+        synchronized (lock) { return super.read(reader); }
+    }
 }
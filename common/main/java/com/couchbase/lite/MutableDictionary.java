@@ -16,6 +16,7 @@
 package com.couchbase.lite;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import java.util.Date;
 import java.util.Map;
@@ -23,6 +24,7 @@ import java.util.Map;
 import com.couchbase.lite.internal.fleece.MCollection;
 import com.couchbase.lite.internal.fleece.MDict;
 import com.couchbase.lite.internal.fleece.MValue;
+import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.Preconditions;
 
 
@@ -256,8 +258,38 @@ public final class MutableDictionary extends Dictionary implements MutableDictio
     @Override
     public MutableDictionary getDictionary(@NonNull String key) { return (MutableDictionary) super.getDictionary(key); }
 
+    @Nullable
+    @Override
+    public MutableArray getArray(@NonNull DictionaryKey key) { return (MutableArray) super.getArray(key); }
+
+    @Nullable
+    @Override
+    public MutableDictionary getDictionary(@NonNull DictionaryKey key) {
+        return (MutableDictionary) super.getDictionary(key);
+    }
 
     protected boolean isChanged() {
         synchronized (lock) { return internalDict.isMutated(); }
     }
+
+    //---------------------------------------------
+    // package level access
+    //---------------------------------------------
+
+    // Unlike its immutable parent, a MutableDictionary can change underneath a reader:
+    // every read must hold the database lock.
+    @Override
+    <T> T read(@NonNull String key, @NonNull ValueReader<T> reader) {
+        synchronized (lock) { return super.read(key, reader); }
+    }
+
+    @Override
+    <T> T read(@NonNull DictionaryKey key, @NonNull ValueReader<T> reader) {
+        synchronized (lock) { return super.read(key, reader); }
+    }
+
+    @Override
+    <T> T read(@NonNull Fn.Function<MDict, T> reader) {
+        synchronized (lock) { return super.read(reader); }
+    }
 }
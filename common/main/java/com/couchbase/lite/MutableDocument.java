@@ -31,7 +31,7 @@ import com.couchbase.lite.internal.core.C4Document;
  */
 public final class MutableDocument extends Document implements MutableDictionaryInterface {
 
-    private static String createUUID() { return UUID.randomUUID().toString().toLowerCase(Locale.ENGLISH); }
+    static String createUUID() { return UUID.randomUUID().toString().toLowerCase(Locale.ENGLISH); }
 
     //---------------------------------------------
     // Constructors
@@ -303,6 +303,14 @@ public final class MutableDocument extends Document implements MutableDictionary
     @Override
     public MutableDictionary getDictionary(@NonNull String key) { return getMutableContent().getDictionary(key); }
 
+    @Override
+    public MutableArray getArray(@NonNull DictionaryKey key) { return getMutableContent().getArray(key); }
+
+    @Override
+    public MutableDictionary getDictionary(@NonNull DictionaryKey key) {
+        return getMutableContent().getDictionary(key);
+    }
+
     //---------------------------------------------
     // Package level access
     //---------------------------------------------
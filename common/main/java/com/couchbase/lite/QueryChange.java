@@ -33,14 +33,29 @@ public final class QueryChange {
     private final ResultSet rs;
     @Nullable
     private final Throwable error;
+    @Nullable
+    private final QueryDiff diff;
+    // The System.nanoTime of the earliest commit reflected in this change, or 0 if it is not known.
+    private final long changedAt;
 
     //---------------------------------------------
     // constructors
     //---------------------------------------------
     QueryChange(@NonNull Query query, @Nullable ResultSet rs, @Nullable Throwable error) {
+        this(query, rs, error, null, 0);
+    }
+
+    QueryChange(
+        @NonNull Query query,
+        @Nullable ResultSet rs,
+        @Nullable Throwable error,
+        @Nullable QueryDiff diff,
+        long changedAt) {
         this.query = query;
         this.rs = rs;
         this.error = error;
+        this.diff = diff;
+        this.changedAt = changedAt;
     }
 
     //---------------------------------------------
@@ -64,4 +79,13 @@ public final class QueryChange {
      */
     @Nullable
     public Throwable getError() { return error; }
+
+    /**
+     * Return the rows that have changed since the previous change was delivered to the listener.
+     * The diff is available only to listeners added with a key column.
+     */
+    @Nullable
+    public QueryDiff getDiff() { return diff; }
+
+    long getChangedAt() { return changedAt; }
 }
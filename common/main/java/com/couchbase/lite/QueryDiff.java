@@ -0,0 +1,96 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import android.support.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The difference between two successive results of a live query.
+ * Rows are identified by the value in a key column, chosen when the listener was added.
+ * A row is changed if the values in any of its columns have changed.
+ * The first QueryDiff delivered to a listener reports every row in the results as inserted.
+ */
+public final class QueryDiff {
+    //---------------------------------------------
+    // member variables
+    //---------------------------------------------
+    @NonNull
+    private final String keyColumn;
+    @NonNull
+    private final List<Result> inserted;
+    @NonNull
+    private final List<Result> changed;
+    @NonNull
+    private final List<Object> removed;
+
+    //---------------------------------------------
+    // constructors
+    //---------------------------------------------
+    QueryDiff(
+        @NonNull String keyColumn,
+        @NonNull List<Result> inserted,
+        @NonNull List<Result> changed,
+        @NonNull List<Object> removed) {
+        this.keyColumn = keyColumn;
+        this.inserted = Collections.unmodifiableList(inserted);
+        this.changed = Collections.unmodifiableList(changed);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    //---------------------------------------------
+    // API - public methods
+    //---------------------------------------------
+
+    /**
+     * Return the name of the column that identifies a row.
+     */
+    @NonNull
+    public String getKeyColumn() { return keyColumn; }
+
+    /**
+     * Return the rows whose keys were not in the previous results, in result order.
+     */
+    @NonNull
+    public List<Result> getInserted() { return inserted; }
+
+    /**
+     * Return the rows whose keys were in the previous results but whose values have changed, in result order.
+     */
+    @NonNull
+    public List<Result> getChanged() { return changed; }
+
+    /**
+     * Return the keys of the rows in the previous results that are no longer in the results.
+     */
+    @NonNull
+    public List<Object> getRemoved() { return removed; }
+
+    /**
+     * Return true if no row was inserted, changed or removed.
+     */
+    public boolean isEmpty() { return inserted.isEmpty() && changed.isEmpty() && removed.isEmpty(); }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "QueryDiff{" + keyColumn
+            + ": +" + inserted.size() + ", ~" + changed.size() + ", -" + removed.size() + "}";
+    }
+}
@@ -0,0 +1,106 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import android.support.annotation.NonNull;
+
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Controls how soon a live query re-runs after the database changes.
+ * <p>
+ * The interval between the starts of successive refreshes is the duration of the last refresh,
+ * multiplied by the backoff factor, but no less than the minimum interval and no more than the maximum.
+ * A change that arrives after the interval has passed is reflected immediately: one that arrives sooner
+ * waits for the interval to pass. No change waits longer than the maximum staleness, though.
+ * <p>
+ * A query that takes 50ms to run, for instance, with a policy of (10ms, 2000ms, 4.0, 500ms),
+ * runs no more often than every 200ms during a burst of changes, and immediately after an isolated change.
+ */
+public final class QueryRefreshPolicy {
+    //---------------------------------------------
+    // member variables
+    //---------------------------------------------
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final double backoffFactor;
+    private final long maxStalenessMs;
+
+    //---------------------------------------------
+    // constructors
+    //---------------------------------------------
+
+    /**
+     * Create a refresh policy.
+     *
+     * @param minIntervalMs  the minimum interval, in ms, between the starts of successive refreshes.
+     * @param maxIntervalMs  the maximum interval, in ms, between the starts of successive refreshes.
+     * @param backoffFactor  the interval, as a multiple of the duration of the last refresh.
+     * @param maxStalenessMs the longest time, in ms, that a refresh will be delayed after a change.
+     */
+    public QueryRefreshPolicy(long minIntervalMs, long maxIntervalMs, double backoffFactor, long maxStalenessMs) {
+        this.minIntervalMs = Preconditions.assertNotNegative(minIntervalMs, "min interval");
+        this.maxIntervalMs = Preconditions.assertNotNegative(maxIntervalMs, "max interval");
+        if (maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("max interval must not be less than min interval");
+        }
+        Preconditions.assertThat(backoffFactor, "backoff factor must not be negative", f -> f >= 0);
+        this.backoffFactor = backoffFactor;
+        this.maxStalenessMs = Preconditions.assertNotNegative(maxStalenessMs, "max staleness");
+    }
+
+    //---------------------------------------------
+    // API - public methods
+    //---------------------------------------------
+
+    public long getMinIntervalMs() { return minIntervalMs; }
+
+    public long getMaxIntervalMs() { return maxIntervalMs; }
+
+    public double getBackoffFactor() { return backoffFactor; }
+
+    public long getMaxStalenessMs() { return maxStalenessMs; }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "QueryRefreshPolicy{" + minIntervalMs + "ms-" + maxIntervalMs + "ms, x" + backoffFactor
+            + ", stale<" + maxStalenessMs + "ms}";
+    }
+
+    //---------------------------------------------
+    // Package level access
+    //---------------------------------------------
+
+    /**
+     * Compute the delay before a refresh, prompted by a change that has just happened.
+     *
+     * @param nowMs             the current time
+     * @param lastRefreshAtMs   the time at which the last refresh started: 0 if there hasn't been one.
+     * @param lastRefreshTimeMs the duration of the last refresh
+     * @return the delay, in ms
+     */
+    long getRefreshDelayMs(long nowMs, long lastRefreshAtMs, long lastRefreshTimeMs) {
+        final long interval = Math.max(
+            minIntervalMs,
+            Math.min(maxIntervalMs, (long) Math.ceil(backoffFactor * Math.max(0, lastRefreshTimeMs))));
+
+        final long delay = (lastRefreshAtMs <= 0) ? 0 : Math.max(0, (lastRefreshAtMs + interval) - nowMs);
+
+        return Math.min(delay, maxStalenessMs);
+    }
+}
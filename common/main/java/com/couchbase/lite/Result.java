@@ -27,8 +27,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.couchbase.lite.internal.DbContext;
-import com.couchbase.lite.internal.core.C4QueryEnumerator;
-import com.couchbase.lite.internal.fleece.FLArrayIterator;
+import com.couchbase.lite.internal.core.C4QueryRowBatch;
 import com.couchbase.lite.internal.fleece.FLValue;
 import com.couchbase.lite.internal.fleece.MRoot;
 import com.couchbase.lite.internal.utils.DateUtils;
@@ -45,17 +44,20 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     // member variables
     //---------------------------------------------
     private final ResultSet rs;
-    private final List<FLValue> values;
+    // The Result is row 'row' in a batch of rows read from the enumerator.
+    private final C4QueryRowBatch rows;
+    private final int row;
     private final long missingColumns;
     private final DbContext context;
 
     //---------------------------------------------
     // constructors
     //---------------------------------------------
-    Result(ResultSet rs, C4QueryEnumerator c4enum, DbContext context) {
+    Result(ResultSet rs, C4QueryRowBatch rows, int row, DbContext context) {
         this.rs = rs;
-        this.values = extractColumns(c4enum.getColumns());
-        this.missingColumns = c4enum.getMissingColumns();
+        this.rows = rows;
+        this.row = row;
+        this.missingColumns = rows.getMissingColumns(row);
         this.context = context;
     }
 
@@ -123,8 +125,7 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public int getInt(int index) {
         checkBounds(index);
-        final FLValue flValue = values.get(index);
-        return flValue != null ? (int) flValue.asInt() : 0;
+        return (int) rows.getInt(row, index);
     }
 
     /**
@@ -136,8 +137,7 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public long getLong(int index) {
         checkBounds(index);
-        final FLValue flValue = values.get(index);
-        return flValue != null ? flValue.asInt() : 0L;
+        return rows.getInt(row, index);
     }
 
     /**
@@ -149,8 +149,7 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public float getFloat(int index) {
         checkBounds(index);
-        final FLValue flValue = values.get(index);
-        return flValue != null ? flValue.asFloat() : 0.0F;
+        return rows.getFloat(row, index);
     }
 
     /**
@@ -162,8 +161,7 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public double getDouble(int index) {
         checkBounds(index);
-        final FLValue flValue = values.get(index);
-        return flValue != null ? flValue.asDouble() : 0.0;
+        return rows.getDouble(row, index);
     }
 
     /**
@@ -175,8 +173,7 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public boolean getBoolean(int index) {
         checkBounds(index);
-        final FLValue flValue = values.get(index);
-        return flValue != null && flValue.asBool();
+        return rows.getBoolean(row, index);
     }
 
     /**
@@ -240,7 +237,10 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     @Override
     public List<Object> toList() {
         final List<Object> array = new ArrayList<>();
-        for (int i = 0; i < count(); i++) { array.add(values.get(i).asObject()); }
+        for (int i = 0; i < count(); i++) {
+            final FLValue value = rows.getValue(row, i);
+            array.add((value == null) ? null : value.asObject());
+        }
         return array;
     }
 
@@ -488,17 +488,11 @@ public final class Result implements ArrayInterface, DictionaryInterface, Iterab
     // - (id) fleeceValueToObjectAtIndex: (NSUInteger)index
     // bounds have already been checked
     private Object fleeceValueToObject(int index) {
-        final FLValue value = values.get(index);
+        final FLValue value = rows.getValue(row, index);
         if (value == null) { return null; }
-        final MRoot root = new MRoot(context, value, false);
-        synchronized (rs.getQuery().getDatabase().getLock()) { return root.asNative(); }
-    }
-
-    private List<FLValue> extractColumns(FLArrayIterator columns) {
-        final List<FLValue> values = new ArrayList<>();
-        final int count = rs.getColumnCount();
-        for (int i = 0; i < count; i++) { values.add(columns.getValueAt(i)); }
-        return values;
+        // The root is private to this call and the objects it creates are immutable: no need to lock.
+        // The Fleece data belongs to the query enumerator, which this Result keeps alive.
+        return new MRoot(context, value, false).asNative();
     }
 
     private void checkBounds(int index) {
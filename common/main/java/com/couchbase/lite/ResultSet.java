@@ -16,16 +16,28 @@
 
 package com.couchbase.lite;
 
+import android.support.annotation.GuardedBy;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.couchbase.lite.internal.CBLStatus;
 import com.couchbase.lite.internal.DbContext;
 import com.couchbase.lite.internal.core.C4QueryEnumerator;
+import com.couchbase.lite.internal.core.C4QueryRowBatch;
 import com.couchbase.lite.internal.support.Log;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -40,6 +52,47 @@ public class ResultSet implements Iterable<Result> {
     //---------------------------------------------
     private static final LogDomain DOMAIN = LogDomain.QUERY;
 
+    // Rows are read from LiteCore in batches: the first is small, in case the client wants only a few rows.
+    private static final int MIN_ROW_BATCH_SIZE = 8;
+    private static final int MAX_ROW_BATCH_SIZE = 256;
+
+    // The maximum number of rows of a numeric column read from LiteCore in a single call.
+    private static final int MAX_COLUMN_CHUNK_ROWS = 4096;
+
+    private static final int SPLITERATOR_CHARACTERISTICS
+        = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
+    //---------------------------------------------
+    // Types
+    //---------------------------------------------
+
+    // An iterator that reads rows from the enumerator one at a time, as they are requested.
+    private final class ResultIterator implements Iterator<Result> {
+        @Nullable
+        private Result nextResult;
+        private boolean finished;
+
+        @Override
+        public boolean hasNext() {
+            if (nextResult != null) { return true; }
+            if (finished) { return false; }
+
+            nextResult = ResultSet.this.next();
+            if (nextResult == null) { finished = true; }
+
+            return nextResult != null;
+        }
+
+        @NonNull
+        @Override
+        public Result next() {
+            if (!hasNext()) { throw new NoSuchElementException("No more results"); }
+            final Result result = nextResult;
+            nextResult = null;
+            return result;
+        }
+    }
+
     //---------------------------------------------
     // member variables
     //---------------------------------------------
@@ -49,6 +102,11 @@ public class ResultSet implements Iterable<Result> {
     private final DbContext context;
     private final C4QueryEnumerator c4enum;
     private boolean isAllEnumerated;
+    private long rowsEnumerated;
+
+    private C4QueryRowBatch rowBatch;
+    private int rowBatchSize = MIN_ROW_BATCH_SIZE;
+    private int nextRow;
 
     //---------------------------------------------
     // constructors
@@ -85,13 +143,14 @@ public class ResultSet implements Iterable<Result> {
                     Log.w(DOMAIN, "ResultSetAlreadyEnumerated");
                     return null;
                 }
-                else if (!c4enum.next()) {
+                else if (!nextRowBatch()) {
                     Log.i(DOMAIN, "End of query enumeration");
                     isAllEnumerated = true;
                     return null;
                 }
                 else {
-                    return new Result(this, c4enum, context);
+                    rowsEnumerated++;
+                    return new Result(this, rowBatch, nextRow++, context);
                 }
             }
             catch (LiteCoreException e) {
@@ -117,20 +176,223 @@ public class ResultSet implements Iterable<Result> {
         return results;
     }
 
+    /**
+     * Return a sequential Stream of the Results not yet enumerated.
+     * Like iterator(), the stream reads rows one at a time: it does not build a list of all of the results.
+     * The stream and next() share the same cursor. Don't use them together.
+     *
+     * @return a stream of Results
+     */
+    @RequiresApi(24)
+    @NonNull
+    public Stream<Result> stream() { return StreamSupport.stream(spliterator(), false); }
+
+    /**
+     * Read the given columns of all of the remaining rows as longs.
+     * The values are in row order: if there are c columns, element (r * c) + i is column columns[i] of row r.
+     * No Result objects are created. A value that is missing or is not a number is read as 0.
+     * Afterwards, next() returns null. Don't use next() and this method together.
+     *
+     * @param columns the indices of the columns to read
+     * @return the values in the columns
+     * @throws CouchbaseLiteException on failure
+     */
+    @NonNull
+    public long[] allLongs(@NonNull int... columns) throws CouchbaseLiteException {
+        long[] values = new long[initialColumnCapacity(columns)];
+        LongBuffer buf = LongBuffer.wrap(values);
+        while (true) {
+            if (buf.remaining() < columns.length) {
+                if (getRemainingRowCount() == 0) { break; }
+                values = Arrays.copyOf(values, 2 * values.length);
+                buf = (LongBuffer) LongBuffer.wrap(values).position(buf.position());
+            }
+            final int maxRows = buf.remaining() / columns.length;
+            if (nextLongs(buf, columns) < maxRows) { break; }
+        }
+        return (buf.position() == values.length) ? values : Arrays.copyOf(values, buf.position());
+    }
+
+    /**
+     * Read the given columns of all of the remaining rows as doubles.
+     * See allLongs.
+     *
+     * @param columns the indices of the columns to read
+     * @return the values in the columns
+     * @throws CouchbaseLiteException on failure
+     */
+    @NonNull
+    public double[] allDoubles(@NonNull int... columns) throws CouchbaseLiteException {
+        double[] values = new double[initialColumnCapacity(columns)];
+        DoubleBuffer buf = DoubleBuffer.wrap(values);
+        while (true) {
+            if (buf.remaining() < columns.length) {
+                if (getRemainingRowCount() == 0) { break; }
+                values = Arrays.copyOf(values, 2 * values.length);
+                buf = (DoubleBuffer) DoubleBuffer.wrap(values).position(buf.position());
+            }
+            final int maxRows = buf.remaining() / columns.length;
+            if (nextDoubles(buf, columns) < maxRows) { break; }
+        }
+        return (buf.position() == values.length) ? values : Arrays.copyOf(values, buf.position());
+    }
+
+    /**
+     * Read the given columns of as many of the remaining rows as will fit in the buffer, as longs.
+     * The values are put into the buffer in row order, starting at its current position.
+     * No Result objects are created. A value that is missing or is not a number is read as 0.
+     * These methods and next() share the same cursor. Don't use them together.
+     *
+     * @param dst     the buffer into which to put the values
+     * @param columns the indices of the columns to read
+     * @return the number of rows read: 0 when there are no more rows
+     * @throws CouchbaseLiteException   on failure
+     * @throws IllegalArgumentException if the buffer does not have room for even a single row
+     */
+    public int nextLongs(@NonNull LongBuffer dst, @NonNull int... columns) throws CouchbaseLiteException {
+        Preconditions.assertNotNull(dst, "buffer");
+        checkColumns(columns);
+
+        final int nCols = columns.length;
+        final int maxRows = getMaxRows(dst.remaining(), nCols);
+
+        synchronized (getDbLock()) {
+            if ((c4enum == null) || isAllEnumerated) { return 0; }
+
+            int rows = 0;
+
+            // First, any rows that have already been read into the current batch.
+            while ((rows < maxRows) && (rowBatch != null) && (nextRow < rowBatch.getRowCount())) {
+                for (int col: columns) { dst.put(rowBatch.getInt(nextRow, col)); }
+                nextRow++;
+                rows++;
+            }
+
+            try {
+                long[] tmp = null;
+                while (rows < maxRows) {
+                    final int chunk = Math.min(maxRows - rows, MAX_COLUMN_CHUNK_ROWS);
+                    final int n;
+                    if (dst.hasArray()) {
+                        n = c4enum.nextLongs(columns, chunk, dst.array(), dst.arrayOffset() + dst.position());
+                        dst.position(dst.position() + (n * nCols));
+                    }
+                    else {
+                        if (tmp == null) { tmp = new long[chunk * nCols]; }
+                        n = c4enum.nextLongs(columns, chunk, tmp, 0);
+                        dst.put(tmp, 0, n * nCols);
+                    }
+
+                    rows += n;
+                    if (n < chunk) {
+                        isAllEnumerated = true;
+                        break;
+                    }
+                }
+            }
+            catch (LiteCoreException e) {
+                throw CBLStatus.convertException(e);
+            }
+            finally {
+                rowsEnumerated += rows;
+            }
+
+            return rows;
+        }
+    }
+
+    /**
+     * Read the given columns of as many of the remaining rows as will fit in the buffer, as doubles.
+     * See nextLongs.
+     *
+     * @param dst     the buffer into which to put the values
+     * @param columns the indices of the columns to read
+     * @return the number of rows read: 0 when there are no more rows
+     * @throws CouchbaseLiteException   on failure
+     * @throws IllegalArgumentException if the buffer does not have room for even a single row
+     */
+    public int nextDoubles(@NonNull DoubleBuffer dst, @NonNull int... columns) throws CouchbaseLiteException {
+        Preconditions.assertNotNull(dst, "buffer");
+        checkColumns(columns);
+
+        final int nCols = columns.length;
+        final int maxRows = getMaxRows(dst.remaining(), nCols);
+
+        synchronized (getDbLock()) {
+            if ((c4enum == null) || isAllEnumerated) { return 0; }
+
+            int rows = 0;
+
+            // First, any rows that have already been read into the current batch.
+            while ((rows < maxRows) && (rowBatch != null) && (nextRow < rowBatch.getRowCount())) {
+                for (int col: columns) { dst.put(rowBatch.getDouble(nextRow, col)); }
+                nextRow++;
+                rows++;
+            }
+
+            try {
+                double[] tmp = null;
+                while (rows < maxRows) {
+                    final int chunk = Math.min(maxRows - rows, MAX_COLUMN_CHUNK_ROWS);
+                    final int n;
+                    if (dst.hasArray()) {
+                        n = c4enum.nextDoubles(columns, chunk, dst.array(), dst.arrayOffset() + dst.position());
+                        dst.position(dst.position() + (n * nCols));
+                    }
+                    else {
+                        if (tmp == null) { tmp = new double[chunk * nCols]; }
+                        n = c4enum.nextDoubles(columns, chunk, tmp, 0);
+                        dst.put(tmp, 0, n * nCols);
+                    }
+
+                    rows += n;
+                    if (n < chunk) {
+                        isAllEnumerated = true;
+                        break;
+                    }
+                }
+            }
+            catch (LiteCoreException e) {
+                throw CBLStatus.convertException(e);
+            }
+            finally {
+                rowsEnumerated += rows;
+            }
+
+            return rows;
+        }
+    }
+
     //---------------------------------------------
     // Iterable implementation
     //---------------------------------------------
 
     /**
      * Return Iterator of Results.
-     * Once called iterator(), next() method return null. Don't call next() and iterator()
-     * together.
+     * The iterator reads rows one at a time, as it is advanced: it does not build a list of all of the results.
+     * The iterator and next() share the same cursor. Don't use them together.
      *
-     * @return an iterator over the elements in this list in proper sequence
+     * @return an iterator over the Results not yet enumerated, in order
      */
     @NonNull
     @Override
-    public Iterator<Result> iterator() { return allResults().iterator(); }
+    public Iterator<Result> iterator() { return new ResultIterator(); }
+
+    /**
+     * Return a Spliterator of Results.
+     * Its size is the number of rows that have not yet been enumerated.
+     *
+     * @return a spliterator over the Results not yet enumerated, in order
+     */
+    @RequiresApi(24)
+    @NonNull
+    @Override
+    public Spliterator<Result> spliterator() {
+        final long remaining = getRemainingRowCount();
+        return (remaining < 0)
+            ? Spliterators.spliteratorUnknownSize(iterator(), SPLITERATOR_CHARACTERISTICS)
+            : Spliterators.spliterator(iterator(), remaining, SPLITERATOR_CHARACTERISTICS);
+    }
 
     //---------------------------------------------
     // Package level access
@@ -147,6 +409,23 @@ public class ResultSet implements Iterable<Result> {
         return (idx == null) ? -1 : idx;
     }
 
+    // Move the cursor back to before the first row, so that the results can be read again.
+    // Results that have already been read remain valid.
+    void rewind() throws CouchbaseLiteException {
+        synchronized (getDbLock()) {
+            if (c4enum == null) { return; }
+            try { c4enum.seek(-1); }
+            catch (LiteCoreException e) {
+                throw CBLStatus.convertException(e);
+            }
+            isAllEnumerated = false;
+            rowsEnumerated = 0;
+            rowBatch = null;
+            rowBatchSize = MIN_ROW_BATCH_SIZE;
+            nextRow = 0;
+        }
+    }
+
     ResultSet refresh() throws CouchbaseLiteException {
         Preconditions.assertNotNull(query, "query");
 
@@ -165,6 +444,60 @@ public class ResultSet implements Iterable<Result> {
     // Private level access
     //---------------------------------------------
 
+    // Make sure that there is an unread row in the current batch, reading a new batch if necessary.
+    // Return false if there are no more rows.
+    @GuardedBy("getDbLock()")
+    private boolean nextRowBatch() throws LiteCoreException {
+        if ((rowBatch != null) && (nextRow < rowBatch.getRowCount())) { return true; }
+
+        rowBatch = c4enum.nextRows(getColumnCount(), rowBatchSize);
+        nextRow = 0;
+        rowBatchSize = Math.min(MAX_ROW_BATCH_SIZE, 2 * rowBatchSize);
+
+        return rowBatch != null;
+    }
+
+    private void checkColumns(@NonNull int[] columns) {
+        Preconditions.assertNotNull(columns, "columns");
+        if (columns.length <= 0) { throw new IllegalArgumentException("No columns specified"); }
+        final int nCols = getColumnCount();
+        for (int col: columns) {
+            if ((col < 0) || (col >= nCols)) {
+                throw new ArrayIndexOutOfBoundsException("column " + col + " must be between 0 and " + nCols);
+            }
+        }
+    }
+
+    // Room for the given columns of the remaining rows, if their number is known.
+    // A buffer that cannot hold a row would be indistinguishable from the end of the rows.
+    private int getMaxRows(int capacity, int nCols) {
+        final int maxRows = capacity / nCols;
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("buffer has room for " + capacity + " values: a row has " + nCols);
+        }
+        return maxRows;
+    }
+
+    private int initialColumnCapacity(@NonNull int[] columns) {
+        checkColumns(columns);
+        long rows = getRemainingRowCount();
+        if (rows < 0) { rows = MAX_COLUMN_CHUNK_ROWS; }
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, rows) * columns.length);
+    }
+
+    // The number of rows left in the enumerator, or -1 if it is not known.
+    private long getRemainingRowCount() {
+        synchronized (getDbLock()) {
+            if (c4enum == null) { return 0; }
+            if (isAllEnumerated) { return 0; }
+            try { return Math.max(0, c4enum.getRowCount() - rowsEnumerated); }
+            catch (LiteCoreException e) {
+                Log.w(DOMAIN, "Failed getting query row count: %s", e.toString());
+                return -1;
+            }
+        }
+    }
+
     private Object getDbLock() {
         final AbstractQuery q = query;
         if (q != null) {
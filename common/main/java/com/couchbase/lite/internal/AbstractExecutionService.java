@@ -70,7 +70,11 @@ public abstract class AbstractExecutionService implements ExecutionService {
         @NonNull
         private final Runnable task;
 
+        @Nullable
+        private final ExecutorStats stats;
+
         private final long createdAt = System.currentTimeMillis();
+        private final long createdAtNs = System.nanoTime();
         private long startedAt;
         private long finishedAt;
         private long completedAt;
@@ -78,17 +82,28 @@ public abstract class AbstractExecutionService implements ExecutionService {
         @Nullable
         private volatile Runnable onComplete;
 
-        InstrumentedTask(@NonNull Runnable task) { this(task, null); }
+        InstrumentedTask(@NonNull Runnable task) { this(task, null, null); }
 
-        InstrumentedTask(@NonNull Runnable task, @Nullable Runnable onComplete) {
+        InstrumentedTask(@NonNull Runnable task, @Nullable Runnable onComplete) { this(task, onComplete, null); }
+
+        InstrumentedTask(@NonNull Runnable task, @Nullable Runnable onComplete, @Nullable ExecutorStats stats) {
             this.task = task;
             this.onComplete = onComplete;
+            this.stats = stats;
+            if (stats != null) { stats.taskQueued(); }
         }
 
         public void setCompletion(@NonNull Runnable onComplete) { this.onComplete = onComplete; }
 
+        // The task will never be run.
+        public void abandon() {
+            if (stats != null) { stats.taskAbandoned(); }
+        }
+
         @SuppressWarnings("PMD.AvoidCatchingThrowable")
         public void run() {
+            final long startedAtNs = System.nanoTime();
+            if (stats != null) { stats.taskStarted(startedAtNs - createdAtNs); }
             try {
                 startedAt = System.currentTimeMillis();
                 task.run();
@@ -102,6 +117,8 @@ public abstract class AbstractExecutionService implements ExecutionService {
                 throw t;
             }
             finally {
+                // a task that fails is counted, too
+                if (stats != null) { stats.taskFinished(System.nanoTime() - startedAtNs); }
                 final Runnable completionTask = onComplete;
                 if (completionTask != null) { completionTask.run(); }
             }
@@ -145,6 +162,9 @@ public abstract class AbstractExecutionService implements ExecutionService {
         @NonNull
         private final ThreadPoolExecutor executor;
 
+        @NonNull
+        private final ExecutorStats stats;
+
         @GuardedBy("this")
         @NonNull
         private final Queue<InstrumentedTask> pendingTasks = new LinkedList<>();
@@ -160,9 +180,10 @@ public abstract class AbstractExecutionService implements ExecutionService {
         @GuardedBy("this")
         private boolean needsRestart;
 
-        ConcurrentExecutor(@NonNull ThreadPoolExecutor executor) {
+        ConcurrentExecutor(@NonNull ThreadPoolExecutor executor, @NonNull ExecutorStats stats) {
             Preconditions.assertNotNull(executor, "executor");
             this.executor = executor;
+            this.stats = stats;
         }
 
         /**
@@ -191,12 +212,17 @@ public abstract class AbstractExecutionService implements ExecutionService {
                 if (spaceAvailable()) {
                     if (needsRestart) { restartQueue(); }
 
-                    executeTask(new InstrumentedTask(task, this::finishTask));
+                    final InstrumentedTask newTask = new InstrumentedTask(task, this::finishTask, stats);
+                    try { executeTask(newTask); }
+                    catch (RejectedExecutionException e) {
+                        newTask.abandon();
+                        throw e;
+                    }
 
                     return;
                 }
 
-                pendingTasks.add(new InstrumentedTask(task));
+                pendingTasks.add(new InstrumentedTask(task, null, stats));
 
                 pendingTaskCount = pendingTasks.size();
                 if (needsRestart || (pendingTaskCount == 1)) { restartQueue(); }
@@ -222,6 +248,7 @@ public abstract class AbstractExecutionService implements ExecutionService {
             final CountDownLatch latch;
             synchronized (this) {
                 if (stopLatch == null) {
+                    for (InstrumentedTask task: pendingTasks) { task.abandon(); }
                     pendingTasks.clear();
                     stopLatch = new CountDownLatch(1);
                 }
@@ -333,10 +360,15 @@ public abstract class AbstractExecutionService implements ExecutionService {
      * Since this executor can have at most two tasks scheduled on the underlying
      * executor, ensuring space on that executor makes it unlikely that
      * a serial executor will refuse a task for execution.
+     * <br>
+     * The underlying executor need not be a thread pool: it may, for instance, start a new thread for each task.
      */
-    private static class SerialExecutor implements CloseableExecutor {
+    static class SerialExecutor implements CloseableExecutor {
         @NonNull
-        private final ThreadPoolExecutor executor;
+        private final Executor executor;
+
+        @Nullable
+        private final ExecutorStats stats;
 
         @GuardedBy("this")
         @NonNull
@@ -350,9 +382,10 @@ public abstract class AbstractExecutionService implements ExecutionService {
         @GuardedBy("this")
         private boolean needsRestart;
 
-        SerialExecutor(@NonNull ThreadPoolExecutor executor) {
+        SerialExecutor(@NonNull Executor executor, @Nullable ExecutorStats stats) {
             Preconditions.assertNotNull(executor, "executor");
             this.executor = executor;
+            this.stats = stats;
         }
 
         /**
@@ -369,7 +402,7 @@ public abstract class AbstractExecutionService implements ExecutionService {
             synchronized (this) {
                 if (stopLatch != null) { throw new ExecutorClosedException("Executor has been stopped"); }
 
-                pendingTasks.add(new InstrumentedTask(task, this::scheduleNext));
+                pendingTasks.add(new InstrumentedTask(task, this::scheduleNext, stats));
 
                 if (needsRestart || (pendingTasks.size() == 1)) { executeTask(null); }
             }
@@ -493,13 +526,15 @@ public abstract class AbstractExecutionService implements ExecutionService {
     private final ThreadPoolExecutor baseExecutor;
     @NonNull
     private final ConcurrentExecutor concurrentExecutor;
+    @NonNull
+    private final ExecutorStats.Registry executorStats = new ExecutorStats.Registry();
 
     //---------------------------------------------
     // Constructor
     //---------------------------------------------
     protected AbstractExecutionService(@NonNull ThreadPoolExecutor baseExecutor) {
         this.baseExecutor = baseExecutor;
-        concurrentExecutor = new ConcurrentExecutor(baseExecutor);
+        concurrentExecutor = new ConcurrentExecutor(baseExecutor, executorStats.get(OWNER_CONCURRENT));
     }
 
     //---------------------------------------------
@@ -507,12 +542,51 @@ public abstract class AbstractExecutionService implements ExecutionService {
     //---------------------------------------------
     @NonNull
     @Override
-    public CloseableExecutor getSerialExecutor() { return new SerialExecutor(baseExecutor); }
+    public CloseableExecutor getSerialExecutor() { return getSerialExecutor(OWNER_SERIAL); }
+
+    @NonNull
+    @Override
+    public CloseableExecutor getSerialExecutor(@NonNull String owner) {
+        return new SerialExecutor(baseExecutor, executorStats.get(owner));
+    }
+
+    @NonNull
+    @Override
+    public Map<String, ExecutorStats.Snapshot> getExecutorStats() { return executorStats.snapshot(); }
 
     @NonNull
     @Override
     public CloseableExecutor getConcurrentExecutor() { return concurrentExecutor; }
 
+    /**
+     * The number of tasks waiting, in the underlying thread pool's queue, for a thread.
+     * This is a gauge: its value is accurate only at the moment it is called.
+     *
+     * @return the number of queued tasks.
+     */
+    public int getQueueDepth() { return baseExecutor.getQueue().size(); }
+
+    /**
+     * The approximate number of the underlying thread pool's threads that are running tasks.
+     *
+     * @return the number of active threads.
+     */
+    public int getActiveThreadCount() { return baseExecutor.getActiveCount(); }
+
+    /**
+     * The number of threads in the underlying thread pool, both active and idle.
+     *
+     * @return the number of threads in the pool.
+     */
+    public int getPoolSize() { return baseExecutor.getPoolSize(); }
+
+    /**
+     * The maximum number of threads in the underlying thread pool.
+     *
+     * @return the maximum number of threads in the pool.
+     */
+    public int getMaxPoolSize() { return baseExecutor.getMaximumPoolSize(); }
+
 
     //---------------------------------------------
     // Package-private methods
@@ -18,6 +18,7 @@ package com.couchbase.lite.internal;
 import android.support.annotation.Nullable;
 
 import com.couchbase.lite.Database;
+import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.fleece.MContext;
 
 
@@ -25,8 +26,20 @@ public class DbContext extends MContext {
     @Nullable
     private final Database db;
 
-    public DbContext(@Nullable Database db) { this.db = db; }
+    @Nullable
+    private final SharedKeys sharedKeys;
+
+    public DbContext(@Nullable Database db) { this(db, null); }
+
+    public DbContext(@Nullable Database db, @Nullable SharedKeys sharedKeys) {
+        this.db = db;
+        this.sharedKeys = sharedKeys;
+    }
 
     @Nullable
     public Database getDatabase() { return db; }
+
+    @Nullable
+    @Override
+    public SharedKeys getSharedKeys() { return sharedKeys; }
 }
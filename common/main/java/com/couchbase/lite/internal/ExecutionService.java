@@ -17,12 +17,20 @@ package com.couchbase.lite.internal;
 
 import android.support.annotation.NonNull;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 
 public interface ExecutionService {
+    // Owners for metrics.  Serial executors are tagged with their owner: the concurrent executor is shared.
+    String OWNER_SERIAL = "serial";
+    String OWNER_CONCURRENT = "concurrent";
+    String OWNER_DATABASE = "database post";
+    String OWNER_LIVE_QUERY = "live query";
+    String OWNER_REPLICATOR = "replicator dispatch";
+
     /**
      * Like an ExecutorService, but simpler.
      * It is not up to the client to decide whether to terminate the backing Executor or not.
@@ -77,6 +85,24 @@ public interface ExecutionService {
     @NonNull
     CloseableExecutor getSerialExecutor();
 
+    /**
+     * Get a new, serial executor, whose metrics are tagged with the passed owner.
+     *
+     * @param owner the owner of the executor: OWNER_DATABASE, for instance.
+     * @return a serial executor.
+     */
+    @NonNull
+    CloseableExecutor getSerialExecutor(@NonNull String owner);
+
+    /**
+     * Get a snapshot of the metrics for the tasks run by this service's executors:
+     * queue wait, run time and queue depth, by owner.
+     *
+     * @return the metrics, by owner.
+     */
+    @NonNull
+    Map<String, ExecutorStats.Snapshot> getExecutorStats();
+
     /**
      * Get the concurrent execution service.  Executes tasks on a multi-threaded Executor.
      * Suitable for heavyweight tasks.  There is no guarantee for order of execution.
@@ -0,0 +1,168 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal;
+
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.couchbase.lite.internal.utils.LatencyStats;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * Metrics for the tasks run by all of the executors with a single owner.
+ * The time a task spends waiting, both in its executor's queue and in the underlying pool's queue,
+ * is its queue wait.  The time it spends running is its run time.
+ * Queue depth is the number of tasks that have been queued but have not yet started.
+ * A long queue wait, with short run times, points at the pool: long run times point at the tasks themselves.
+ */
+public final class ExecutorStats {
+    /**
+     * The metrics for each of an execution service's owners.
+     */
+    static final class Registry {
+        private final Map<String, ExecutorStats> stats = new ConcurrentHashMap<>();
+
+        @NonNull
+        ExecutorStats get(@NonNull String owner) {
+            final ExecutorStats ownerStats = stats.get(owner);
+            if (ownerStats != null) { return ownerStats; }
+            stats.putIfAbsent(owner, new ExecutorStats(owner));
+            return stats.get(owner);
+        }
+
+        @NonNull
+        Map<String, Snapshot> snapshot() {
+            final Map<String, Snapshot> snapshot = new HashMap<>();
+            for (ExecutorStats ownerStats: stats.values()) { snapshot.put(ownerStats.owner, ownerStats.snapshot()); }
+            return snapshot;
+        }
+    }
+
+    /**
+     * An immutable copy of the metrics, at a moment in time.
+     */
+    public static final class Snapshot {
+        @NonNull
+        private final String owner;
+        private final long tasks;
+        private final long meanWaitNs;
+        private final long p99WaitNs;
+        private final long maxWaitNs;
+        private final long meanRunNs;
+        private final long p99RunNs;
+        private final long maxRunNs;
+        private final int queueDepth;
+        private final int maxQueueDepth;
+
+        Snapshot(@NonNull ExecutorStats stats) {
+            owner = stats.owner;
+            tasks = stats.runTime.getCount();
+            meanWaitNs = stats.queueWait.getMeanNs();
+            p99WaitNs = stats.queueWait.getPercentileNs(99);
+            maxWaitNs = stats.queueWait.getMaxNs();
+            meanRunNs = stats.runTime.getMeanNs();
+            p99RunNs = stats.runTime.getPercentileNs(99);
+            maxRunNs = stats.runTime.getMaxNs();
+            queueDepth = stats.queueDepth.get();
+            maxQueueDepth = stats.maxQueueDepth.get();
+        }
+
+        @NonNull
+        public String getOwner() { return owner; }
+
+        public long getTaskCount() { return tasks; }
+
+        public long getMeanWaitNs() { return meanWaitNs; }
+
+        public long getP99WaitNs() { return p99WaitNs; }
+
+        public long getMaxWaitNs() { return maxWaitNs; }
+
+        public long getMeanRunNs() { return meanRunNs; }
+
+        public long getP99RunNs() { return p99RunNs; }
+
+        public long getMaxRunNs() { return maxRunNs; }
+
+        public int getQueueDepth() { return queueDepth; }
+
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "ExecutorStats{" + owner + ": n=" + tasks
+                + ", wait(mean/p99/max)=" + toUs(meanWaitNs) + "/" + toUs(p99WaitNs) + "/" + toUs(maxWaitNs) + "us"
+                + ", run(mean/p99/max)=" + toUs(meanRunNs) + "/" + toUs(p99RunNs) + "/" + toUs(maxRunNs) + "us"
+                + ", depth=" + queueDepth + "(max " + maxQueueDepth + ")}";
+        }
+
+        private static long toUs(long ns) { return TimeUnit.NANOSECONDS.toMicros(ns); }
+    }
+
+
+    @NonNull
+    private final String owner;
+    @NonNull
+    private final LatencyStats queueWait;
+    @NonNull
+    private final LatencyStats runTime;
+    @NonNull
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    @NonNull
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    public ExecutorStats(@NonNull String owner) {
+        this.owner = Preconditions.assertNotNull(owner, "owner");
+        queueWait = new LatencyStats(owner + " queue wait");
+        runTime = new LatencyStats(owner + " run time");
+    }
+
+    @NonNull
+    public String getOwner() { return owner; }
+
+    @NonNull
+    public Snapshot snapshot() { return new Snapshot(this); }
+
+    @NonNull
+    @Override
+    public String toString() { return snapshot().toString(); }
+
+    void taskQueued() {
+        final int depth = queueDepth.incrementAndGet();
+        int max;
+        do {
+            max = maxQueueDepth.get();
+            if (depth <= max) { break; }
+        }
+        while (!maxQueueDepth.compareAndSet(max, depth));
+    }
+
+    void taskStarted(long waitNs) {
+        queueDepth.decrementAndGet();
+        queueWait.record(waitNs);
+    }
+
+    void taskFinished(long runNs) { runTime.record(runNs); }
+
+    void taskAbandoned() { queueDepth.decrementAndGet(); }
+}
@@ -0,0 +1,306 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal;
+
+import android.support.annotation.GuardedBy;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.lite.LogDomain;
+import com.couchbase.lite.internal.support.Log;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A hierarchical timer wheel: schedules tasks for execution, on an executor, after a delay.
+ * <p>
+ * Scheduling and cancelling a task are O(1): a task is linked into the slot for its deadline,
+ * in the first of four levels, each of 64 slots, whose range contains the deadline.  As time passes,
+ * the tasks in a slot on a higher level are redistributed, "cascaded", into the lower levels.
+ * Deadlines are rounded up to the next tick: tasks due in the same tick share a slot and are
+ * handed to their executors in a single batch.  A single thread, started on demand, runs the wheel.
+ * It only hands tasks to their executors: it never runs them.
+ * <p>
+ * A task scheduled with no delay is handed to its executor immediately, on the calling thread.
+ */
+public final class TimerWheel {
+    private static final LogDomain DOMAIN = LogDomain.DATABASE;
+
+    public static final long DEFAULT_TICK_MS = 10;
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final class Timeout implements ExecutionService.Cancellable {
+        @NonNull
+        final Executor executor;
+        @NonNull
+        final Runnable task;
+        final long deadline;
+
+        // the slot that contains this timeout: level < 0 if it is in none.
+        @GuardedBy("lock")
+        int level = -1;
+        @GuardedBy("lock")
+        int slot;
+        @GuardedBy("lock")
+        @Nullable
+        Timeout prev;
+        @GuardedBy("lock")
+        @Nullable
+        Timeout next;
+
+        Timeout(@NonNull Executor executor, @NonNull Runnable task, long deadline) {
+            this.executor = executor;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (lock) {
+                if (level < 0) { return; }
+                unlink(this);
+                pending--;
+            }
+        }
+
+        @NonNull
+        @Override
+        public String toString() { return "Timeout{@" + deadline + ": " + task + "}"; }
+    }
+
+    @NonNull
+    private final String name;
+    private final long tickNs;
+
+    @NonNull
+    private final Object lock = new Object();
+
+    private final long startNs = System.nanoTime();
+
+    @GuardedBy("lock")
+    private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+
+    // The next tick to be processed.
+    @GuardedBy("lock")
+    private long base;
+
+    @GuardedBy("lock")
+    private int pending;
+    @GuardedBy("lock")
+    private int pendingInLevel0;
+
+    @GuardedBy("lock")
+    @Nullable
+    private Thread thread;
+
+    public TimerWheel(@NonNull String name) { this(name, DEFAULT_TICK_MS); }
+
+    public TimerWheel(@NonNull String name, long tickMs) {
+        this.name = Preconditions.assertNotNull(name, "name");
+        this.tickNs = TimeUnit.MILLISECONDS.toNanos(Preconditions.assertPositive(tickMs, "tick"));
+    }
+
+    /**
+     * Schedule a task for execution on an executor, after a delay.
+     * If the executor rejects the task, it is dropped.  If the executor, or the task, throws, the failure is logged.
+     *
+     * @param delayMs  delay before handing the task to the executor.
+     * @param executor the executor on which to run the task.
+     * @param task     the task.
+     * @return a cancellable task
+     */
+    @NonNull
+    public ExecutionService.Cancellable schedule(long delayMs, @NonNull Executor executor, @NonNull Runnable task) {
+        Preconditions.assertNotNull(executor, "executor");
+        Preconditions.assertNotNull(task, "task");
+
+        final long delayNs = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        final long now = System.nanoTime() - startNs;
+        final Timeout timeout = new Timeout(executor, task, (now + delayNs + tickNs - 1) / tickNs);
+
+        if (delayNs <= 0) {
+            dispatch(timeout);
+            return timeout;
+        }
+
+        synchronized (lock) {
+            // If there are no pending timeouts, the wheel may be far behind: just jump it forward.
+            if (pending <= 0) { base = Math.max(base, now / tickNs); }
+            add(timeout);
+            pending++;
+
+            if (thread == null) { startThread(); }
+            // Wake the thread, in case it is sleeping past this deadline.
+            lock.notifyAll();
+        }
+
+        return timeout;
+    }
+
+    @VisibleForTesting
+    int getPendingCount() {
+        synchronized (lock) { return pending; }
+    }
+
+    //---------------------------------------------
+    // Private methods
+    //---------------------------------------------
+
+    @GuardedBy("lock")
+    private void startThread() {
+        final Thread timerThread = new Thread(this::run, name);
+        timerThread.setDaemon(true);
+        thread = timerThread;
+        timerThread.start();
+    }
+
+    // If this thread dies, the next call to schedule starts another.
+    private void run() {
+        final List<Timeout> expired = new ArrayList<>();
+        try {
+            while (true) {
+                synchronized (lock) {
+                    advance(expired);
+                    if (expired.isEmpty()) { lock.wait(getWaitMs()); }
+                }
+
+                for (Timeout timeout: expired) { dispatch(timeout); }
+                expired.clear();
+            }
+        }
+        catch (InterruptedException e) {
+            Log.w(DOMAIN, "Timer thread interrupted: " + name, e);
+        }
+        finally {
+            synchronized (lock) {
+                if (thread == Thread.currentThread()) { thread = null; }
+            }
+        }
+    }
+
+    // Process all of the ticks that have passed, collecting the expired timeouts.
+    @GuardedBy("lock")
+    private void advance(@NonNull List<Timeout> expired) {
+        final long now = (System.nanoTime() - startNs) / tickNs;
+        while (base <= now) {
+            if (pending <= 0) {
+                base = now + 1;
+                return;
+            }
+
+            final int idx = (int) (base & SLOT_MASK);
+            if ((idx == 0) && (cascade(1) == 0) && (cascade(2) == 0)) { cascade(3); }
+            base++;
+
+            Timeout timeout = wheel[0][idx];
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                unlink(timeout);
+                pending--;
+                expired.add(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    // The time to sleep before there may be something to do.
+    // If there is nothing in the first level, sleep until the next cascade.  0 means wait for a notification.
+    @GuardedBy("lock")
+    private long getWaitMs() {
+        if (pending <= 0) { return 0; }
+        final long nextTick = (pendingInLevel0 > 0) ? base : (base + SLOT_MASK) & ~((long) SLOT_MASK);
+        final long waitNs = (nextTick * tickNs) - (System.nanoTime() - startNs);
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNs + 999999));
+    }
+
+    // Redistribute the timeouts in the current slot of the given level.  Returns the slot index.
+    @GuardedBy("lock")
+    private int cascade(int level) {
+        final int idx = (int) ((base >> (SLOT_BITS * level)) & SLOT_MASK);
+        Timeout timeout = wheel[level][idx];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            unlink(timeout);
+            add(timeout);
+            timeout = next;
+        }
+        return idx;
+    }
+
+    @GuardedBy("lock")
+    private void add(@NonNull Timeout timeout) {
+        final long delta = timeout.deadline - base;
+
+        int level;
+        long deadline = timeout.deadline;
+        if (delta < 0) {
+            level = 0;
+            deadline = base;
+        }
+        else {
+            // Deadlines beyond the range of the wheel go in the last slot: they will be cascaded again.
+            if (delta > MAX_DELTA) { deadline = base + MAX_DELTA; }
+            level = 0;
+            while ((level < LEVELS - 1) && ((deadline - base) >= (1L << (SLOT_BITS * (level + 1))))) { level++; }
+        }
+
+        final int idx = (int) ((deadline >> (SLOT_BITS * level)) & SLOT_MASK);
+        final Timeout head = wheel[level][idx];
+        timeout.level = level;
+        timeout.slot = idx;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) { head.prev = timeout; }
+        wheel[level][idx] = timeout;
+
+        if (level == 0) { pendingInLevel0++; }
+    }
+
+    @GuardedBy("lock")
+    private void unlink(@NonNull Timeout timeout) {
+        final Timeout prev = timeout.prev;
+        final Timeout next = timeout.next;
+        if (prev == null) { wheel[timeout.level][timeout.slot] = next; }
+        else { prev.next = next; }
+        if (next != null) { next.prev = prev; }
+
+        if (timeout.level == 0) { pendingInLevel0--; }
+
+        timeout.level = -1;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    // A task that fails, or whose executor fails, must not take the timer thread down with it.
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private void dispatch(@NonNull Timeout timeout) {
+        try { timeout.executor.execute(timeout.task); }
+        catch (RejectedExecutionException ignore) { }
+        catch (Throwable t) { Log.w(DOMAIN, "Timer task failed: " + timeout, t); }
+    }
+}
@@ -23,6 +23,7 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.couchbase.lite.AbstractReplicator;
 import com.couchbase.lite.LiteCoreException;
@@ -74,6 +75,16 @@ public class C4Database extends C4NativePeer {
     // Member Variables
     //-------------------------------------------------------------------------
     private final boolean shouldRetain; // true -> not release native object, false -> release by free()
+    private final boolean readOnly;     // true -> documents read from this connection are snapshots
+
+    // Snapshot documents read from this connection whose handles have not yet been freed.
+    private final AtomicInteger liveSnapshots = new AtomicInteger();
+    // true -> free this connection as soon as there are no live snapshots
+    private volatile boolean freeWhenUnused;
+
+    // The shared keys of a read-only connection: created on first use.
+    @Nullable
+    private volatile SharedKeys snapshotSharedKeys;
 
     //-------------------------------------------------------------------------
     // Constructor
@@ -86,14 +97,18 @@ public class C4Database extends C4NativePeer {
         int algorithm,
         byte[] encryptionKey)
         throws LiteCoreException {
-        this(open(path, flags, storageEngine, versioning, algorithm, encryptionKey), false);
+        this(
+            open(path, flags, storageEngine, versioning, algorithm, encryptionKey),
+            false,
+            (flags & C4Constants.DatabaseFlags.READ_ONLY) != 0);
     }
 
-    public C4Database(long handle) { this(handle, true); }
+    public C4Database(long handle) { this(handle, true, false); }
 
-    private C4Database(long handle, boolean shouldRetain) {
+    private C4Database(long handle, boolean shouldRetain, boolean readOnly) {
         super(handle);
         this.shouldRetain = shouldRetain;
+        this.readOnly = readOnly;
     }
 
     //-------------------------------------------------------------------------
@@ -112,6 +127,15 @@ public class C4Database extends C4NativePeer {
         free(handle);
     }
 
+    /**
+     * Free this connection once every document read from it has been freed.
+     * A document read from a read-only connection holds a reference to it.
+     */
+    public void freeWhenUnused() {
+        freeWhenUnused = true;
+        if (liveSnapshots.get() <= 0) { free(); }
+    }
+
     public void close() throws LiteCoreException { close(getPeer()); }
 
     public void delete() throws LiteCoreException { delete(getPeer()); }
@@ -175,13 +199,30 @@ public class C4Database extends C4NativePeer {
     public FLEncoder getSharedFleeceEncoder() { return new FLEncoder(getSharedFleeceEncoder(getPeer()), true); }
 
     // NOTE: Should param be String instead of byte[]?
-    @VisibleForTesting
     public FLSliceResult encodeJSON(byte[] jsonData) throws LiteCoreException {
         return new FLSliceResult(encodeJSON(getPeer(), jsonData));
     }
 
     public final FLSharedKeys getFLSharedKeys() { return new FLSharedKeys(getFLSharedKeys(getPeer())); }
 
+    // The keys with which to decode snapshots read from this read-only connection.
+    // A connection resolves shared-key IDs with its own table: another connection's may not know all of them.
+    @NonNull
+    SharedKeys getSnapshotSharedKeys() {
+        SharedKeys keys = snapshotSharedKeys;
+        if (keys != null) { return keys; }
+
+        synchronized (this) {
+            keys = snapshotSharedKeys;
+            if (keys == null) {
+                keys = new SharedKeys(this);
+                snapshotSharedKeys = keys;
+            }
+        }
+
+        return keys;
+    }
+
     ////////////////////////////////
     // C4DocEnumerator
     ////////////////////////////////
@@ -198,11 +239,11 @@ public class C4Database extends C4NativePeer {
     // C4Document
     ////////////////////////////////
 
-    public C4Document get(String docID) throws LiteCoreException { return new C4Document(getPeer(), docID, true); }
+    public C4Document get(String docID) throws LiteCoreException { return get(docID, true); }
 
     @VisibleForTesting
     public C4Document get(String docID, boolean mustExist) throws LiteCoreException {
-        return new C4Document(getPeer(), docID, mustExist);
+        return new C4Document(getPeer(), docID, mustExist, (readOnly) ? this : null);
     }
 
     @VisibleForTesting
@@ -282,6 +323,11 @@ public class C4Database extends C4NativePeer {
         return new C4Document(C4Document.create2(getPeer(), docID, body != null ? body.getHandle() : 0, flags));
     }
 
+    // Create a document without keeping a reference to it: for bulk loading.
+    public void insert(String docID, FLSliceResult body, int flags) throws LiteCoreException {
+        new C4Document(C4Document.create2(getPeer(), docID, body != null ? body.getHandle() : 0, flags)).free();
+    }
+
     ////////////////////////////////////////////////////////////////
     // C4DatabaseObserver/C4DocumentObserver
     ////////////////////////////////////////////////////////////////
@@ -430,7 +476,8 @@ public class C4Database extends C4NativePeer {
     @SuppressWarnings("NoFinalizer")
     @Override
     protected void finalize() throws Throwable {
-        try { free(); }
+        // a snapshot that is being finalized at the same time may not yet have been freed
+        try { freeWhenUnused(); }
         finally { super.finalize(); }
     }
 
@@ -441,6 +488,12 @@ public class C4Database extends C4NativePeer {
     // !!!  Exposes the peer handle
     long getHandle() { return getPeer(); }
 
+    void retainSnapshot() { liveSnapshots.incrementAndGet(); }
+
+    void releaseSnapshot() {
+        if ((liveSnapshots.decrementAndGet() <= 0) && freeWhenUnused) { free(); }
+    }
+
     //-------------------------------------------------------------------------
     // Native methods
     //-------------------------------------------------------------------------
@@ -15,6 +15,8 @@
 //
 package com.couchbase.lite.internal.core;
 
+import android.support.annotation.Nullable;
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -86,7 +88,13 @@ public class C4DatabaseObserver extends C4NativePeer {
     // public methods
     //-------------------------------------------------------------------------
 
-    public C4DatabaseChange[] getChanges(int maxChanges) { return getChanges(getPeer(), maxChanges); }
+    // A freed observer has no changes.
+    // The caller must make sure that the observer is not freed while this method is running.
+    @Nullable
+    public C4DatabaseChange[] getChanges(int maxChanges) {
+        final long handle = getPeerUnchecked();
+        return (handle == 0L) ? null : getChanges(handle, maxChanges);
+    }
 
     public void close() {
         final long handle = getPeer();
@@ -94,6 +102,15 @@ public class C4DatabaseObserver extends C4NativePeer {
         REVERSE_LOOKUP_TABLE.remove(handle);
     }
 
+    public void free() {
+        final long handle = getPeerAndClear();
+        if (handle == 0L) { return; }
+
+        REVERSE_LOOKUP_TABLE.remove(handle);
+
+        free(handle);
+    }
+
     @SuppressWarnings("NoFinalizer")
     @Override
     protected void finalize() throws Throwable {
@@ -18,6 +18,8 @@ package com.couchbase.lite.internal.core;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import java.nio.ByteBuffer;
+
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.fleece.FLDict;
 import com.couchbase.lite.internal.fleece.FLSharedKeys;
@@ -30,14 +32,39 @@ public class C4Document extends C4NativePeer {
         return dictContainsBlobs(dict.getHandle(), sk.getHandle());
     }
 
+    @Nullable
+    public static String dictGetString(FLSliceResult dict, FLSharedKeys sk, String key) {
+        return dictGetString(dict.getHandle(), sk.getHandle(), key);
+    }
+
+    //-------------------------------------------------------------------------
+    // Member Variables
+    //-------------------------------------------------------------------------
+
+    // The read-only connection through which this document was read, if it was: it cannot be updated in place.
+    // The connection is not freed while the document holds its native handle.
+    @Nullable
+    private final C4Database snapshotSource;
+
     //-------------------------------------------------------------------------
     // Constructor
     //-------------------------------------------------------------------------
-    C4Document(long db, String docID, boolean mustExist) throws LiteCoreException { this(get(db, docID, mustExist)); }
+    C4Document(long db, String docID, boolean mustExist) throws LiteCoreException { this(db, docID, mustExist, null); }
+
+    C4Document(long db, String docID, boolean mustExist, @Nullable C4Database snapshotSource)
+        throws LiteCoreException {
+        this(get(db, docID, mustExist), snapshotSource);
+    }
 
     C4Document(long db, long sequence) throws LiteCoreException { this(getBySequence(db, sequence)); }
 
-    C4Document(long handle) { super(handle); }
+    C4Document(long handle) { this(handle, null); }
+
+    private C4Document(long handle, @Nullable C4Database snapshotSource) {
+        super(handle);
+        this.snapshotSource = snapshotSource;
+        if (snapshotSource != null) { snapshotSource.retainSnapshot(); }
+    }
 
     //-------------------------------------------------------------------------
     // public methods
@@ -67,8 +94,32 @@ public class C4Document extends C4NativePeer {
         return value == 0 ? null : new FLDict(value);
     }
 
+    /**
+     * The selected revision's body, in place: a read-only, direct buffer over LiteCore's copy of it.
+     * The buffer's memory belongs to this document: the buffer must not be used after the document
+     * is freed, nor after another revision is selected.
+     *
+     * @return the body, or null if the selected revision has no body.
+     */
+    @Nullable
+    public ByteBuffer getSelectedBodyBuffer() {
+        final ByteBuffer body = withPeer(null, C4Document::getSelectedBodyBuffer);
+        return (body == null) ? null : body.asReadOnlyBuffer();
+    }
+
     // - Lifecycle
 
+    // Free the native document now, rather than when it is finalized.
+    // Freeing a snapshot releases its hold on the read-only connection that read it.
+    public void free() {
+        final long handle = getPeerAndClear();
+        if (handle == 0L) { return; }
+
+        free(handle);
+
+        if (snapshotSource != null) { snapshotSource.releaseSnapshot(); }
+    }
+
     public int getSelectedFlags() { return withPeer(0, C4Document::getSelectedFlags); }
 
     public void save(int maxRevTreeDepth) throws LiteCoreException { save(getPeer(), maxRevTreeDepth); }
@@ -104,6 +155,14 @@ public class C4Document extends C4NativePeer {
 
     // - Helper methods
 
+    public boolean isSnapshot() { return snapshotSource != null; }
+
+    // The keys with which to decode a snapshot: those of the connection that read it.
+    @Nullable
+    public SharedKeys getSnapshotSharedKeys() {
+        return (snapshotSource == null) ? null : snapshotSource.getSnapshotSharedKeys();
+    }
+
     // helper methods for Document
     public boolean deleted() { return isSelectedRevFlags(C4Constants.RevisionFlags.DELETED); }
 
@@ -137,14 +196,6 @@ public class C4Document extends C4NativePeer {
 
     byte[] getSelectedBody() { return withPeer(null, C4Document::getSelectedBody); }
 
-    @VisibleForTesting
-    void free() {
-        final long handle = getPeerAndClear();
-        if (handle == 0L) { return; }
-
-        free(handle);
-    }
-
     // - Revisions
 
     @VisibleForTesting
@@ -260,6 +311,10 @@ public class C4Document extends C4NativePeer {
     // return pointer to FLValue
     private static native long getSelectedBody2(long doc);
 
+    // returns a direct ByteBuffer over the body
+    @Nullable
+    private static native ByteBuffer getSelectedBodyBuffer(long doc);
+
     // - Lifecycle
 
     private static native long get(long db, String docID, boolean mustExist) throws LiteCoreException;
@@ -319,4 +374,7 @@ public class C4Document extends C4NativePeer {
     private static native String bodyAsJSON(long doc, boolean canonical) throws LiteCoreException;
 
     private static native boolean dictContainsBlobs(long dict, long sk); // dict -> FLSliceResult
+
+    @Nullable
+    private static native String dictGetString(long dict, long sk, String key); // dict -> FLSliceResult
 }
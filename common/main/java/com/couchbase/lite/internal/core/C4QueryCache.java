@@ -0,0 +1,104 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.core;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.LiteCoreException;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * An LRU cache of compiled queries, keyed by their JSON.
+ * The cache owns the queries it contains: clients must not free them.
+ * Like every other use of a C4Database, all access must be synchronized on the DB lock:
+ * an evicted query is freed, so a client must not use a query after releasing the lock.
+ */
+public final class C4QueryCache {
+    private final int maxSize;
+
+    private final Map<String, C4Query> queries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public C4QueryCache(int maxSize) {
+        this.maxSize = (int) Preconditions.assertPositive(maxSize, "max size");
+        this.queries = new LinkedHashMap<>(maxSize, 0.75f, true);
+    }
+
+    /**
+     * Get the compiled query for the given JSON, compiling it if necessary.
+     *
+     * @param db   the database against which the query should be compiled.
+     * @param json the query JSON.
+     * @return a compiled query.
+     * @throws LiteCoreException if the query cannot be compiled.
+     */
+    @NonNull
+    public C4Query get(@NonNull C4Database db, @NonNull String json) throws LiteCoreException {
+        C4Query query = queries.get(json);
+        if (query != null) {
+            hits++;
+            return query;
+        }
+
+        misses++;
+        query = db.createQuery(json);
+        queries.put(json, query);
+
+        if (queries.size() > maxSize) {
+            final Map.Entry<String, C4Query> eldest = queries.entrySet().iterator().next();
+            queries.remove(eldest.getKey());
+            eldest.getValue().free();
+            evictions++;
+        }
+
+        return query;
+    }
+
+    /**
+     * Free all of the queries in the cache: it will be necessary to recompile them.
+     * This must be done whenever the set of indices changes, so that queries can use new ones.
+     */
+    public void clear() {
+        final List<C4Query> evicted = new ArrayList<>(queries.values());
+        queries.clear();
+        for (C4Query query: evicted) { query.free(); }
+        evictions += evicted.size();
+    }
+
+    public int size() { return queries.size(); }
+
+    public long getHits() { return hits; }
+
+    public long getMisses() { return misses; }
+
+    public long getEvictions() { return evictions; }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "C4QueryCache{" + queries.size() + "/" + maxSize
+            + ": hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+}
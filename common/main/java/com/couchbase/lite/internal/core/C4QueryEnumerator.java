@@ -15,10 +15,12 @@
 //
 package com.couchbase.lite.internal.core;
 
-import android.support.annotation.VisibleForTesting;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.fleece.FLArrayIterator;
+import com.couchbase.lite.internal.utils.Preconditions;
 
 
 /**
@@ -42,6 +44,65 @@ public class C4QueryEnumerator extends C4NativePeer {
 
     public boolean next() throws LiteCoreException { return next(getPeer()); }
 
+    /**
+     * Advance the enumerator by up to maxRows rows, copying the columns of each into a batch, in a single call.
+     * When this method returns, the current row is the last row in the batch.
+     *
+     * @param columnCount the number of columns to copy from each row.
+     * @param maxRows     the maximum number of rows to read.
+     * @return the rows read or null if there are no more rows.
+     * @throws LiteCoreException on error.
+     */
+    @Nullable
+    public C4QueryRowBatch nextRows(int columnCount, int maxRows) throws LiteCoreException {
+        Preconditions.assertNotNegative(columnCount, "column count");
+        Preconditions.assertPositive(maxRows, "max rows");
+
+        final int n = columnCount * maxRows;
+        final long[] values = new long[n];
+        final long[] ints = new long[n];
+        final float[] floats = new float[n];
+        final double[] doubles = new double[n];
+        final boolean[] bools = new boolean[n];
+        final long[] missingColumns = new long[maxRows];
+
+        final int rows
+            = nextRows(getPeer(), columnCount, maxRows, values, ints, floats, doubles, bools, missingColumns);
+
+        return (rows <= 0)
+            ? null
+            : new C4QueryRowBatch(columnCount, rows, values, ints, floats, doubles, bools, missingColumns);
+    }
+
+    /**
+     * Advance the enumerator by up to maxRows rows, copying the given columns of each, as longs, into dst.
+     * The values are stored in row order: dst[offset + (r * columns.length) + c] is column columns[c] of row r.
+     * A value that is not a number is read as FLValue.asInt would read it.
+     * When this method returns, the current row is the last row read.
+     *
+     * @param columns the indices of the columns to copy.
+     * @param maxRows the maximum number of rows to read.
+     * @param dst     the array into which to copy the values.
+     * @param offset  the index in dst of the first value.
+     * @return the number of rows read: 0 if there are no more rows.
+     * @throws LiteCoreException on error.
+     */
+    public int nextLongs(@NonNull int[] columns, int maxRows, @NonNull long[] dst, int offset)
+        throws LiteCoreException {
+        checkColumnRange(columns, maxRows, dst.length, offset);
+        return nextLongs(getPeer(), columns, maxRows, dst, offset);
+    }
+
+    /**
+     * Advance the enumerator by up to maxRows rows, copying the given columns of each, as doubles, into dst.
+     * See nextLongs.
+     */
+    public int nextDoubles(@NonNull int[] columns, int maxRows, @NonNull double[] dst, int offset)
+        throws LiteCoreException {
+        checkColumnRange(columns, maxRows, dst.length, offset);
+        return nextDoubles(getPeer(), columns, maxRows, dst, offset);
+    }
+
     public long getRowCount() throws LiteCoreException { return getRowCount(getPeer()); }
 
     public C4QueryEnumerator refresh() throws LiteCoreException {
@@ -69,7 +130,9 @@ public class C4QueryEnumerator extends C4NativePeer {
         free(handle);
     }
 
-    @VisibleForTesting
+    /**
+     * Move to the given row: 0 is the first row and -1 is before the first row.
+     */
     public boolean seek(long rowIndex) throws LiteCoreException { return seek(getPeer(), rowIndex); }
 
     //-------------------------------------------------------------------------
@@ -97,12 +160,44 @@ public class C4QueryEnumerator extends C4NativePeer {
      */
     C4FullTextMatch getFullTextMatches(int idx) { return new C4FullTextMatch(getFullTextMatch(getPeer(), idx)); }
 
+    //-------------------------------------------------------------------------
+    // private methods
+    //-------------------------------------------------------------------------
+
+    private void checkColumnRange(@NonNull int[] columns, int maxRows, int dstLength, int offset) {
+        Preconditions.assertNotNull(columns, "columns");
+        Preconditions.assertPositive(maxRows, "max rows");
+        Preconditions.assertNotNegative(offset, "offset");
+        if (((long) columns.length * maxRows) > (dstLength - offset)) {
+            throw new IllegalArgumentException(
+                "Buffer too small for " + maxRows + " rows of " + columns.length + " columns");
+        }
+    }
+
     //-------------------------------------------------------------------------
     // native methods
     //-------------------------------------------------------------------------
 
     private static native boolean next(long handle) throws LiteCoreException;
 
+    private static native int nextRows(
+        long handle,
+        int columnCount,
+        int maxRows,
+        long[] values,
+        long[] ints,
+        float[] floats,
+        double[] doubles,
+        boolean[] bools,
+        long[] missingColumns)
+        throws LiteCoreException;
+
+    private static native int nextLongs(long handle, int[] columns, int maxRows, long[] dst, int offset)
+        throws LiteCoreException;
+
+    private static native int nextDoubles(long handle, int[] columns, int maxRows, double[] dst, int offset)
+        throws LiteCoreException;
+
     private static native long getRowCount(long handle) throws LiteCoreException;
 
     private static native boolean seek(long handle, long rowIndex) throws LiteCoreException;
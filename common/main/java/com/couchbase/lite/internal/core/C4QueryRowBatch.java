@@ -0,0 +1,104 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.core;
+
+import android.support.annotation.Nullable;
+
+import com.couchbase.lite.internal.fleece.FLValue;
+
+
+/**
+ * A block of consecutive rows from a query enumerator.
+ * The columns of every row in the block are copied from LiteCore in a single call,
+ * together with their values as scalars, so that reading a number or a boolean does not
+ * cross the JNI boundary.
+ * A batch is filled once, by C4QueryEnumerator.nextRows, and is immutable thereafter.
+ * Its Fleece values belong to the enumerator and are valid only as long as it is.
+ */
+public final class C4QueryRowBatch {
+    private final int columnCount;
+    private final int rowCount;
+
+    private final long[] values;
+    private final long[] ints;
+    private final float[] floats;
+    private final double[] doubles;
+    private final boolean[] bools;
+    private final long[] missingColumns;
+
+    C4QueryRowBatch(
+        int columnCount,
+        int rowCount,
+        long[] values,
+        long[] ints,
+        float[] floats,
+        double[] doubles,
+        boolean[] bools,
+        long[] missingColumns) {
+        this.columnCount = columnCount;
+        this.rowCount = rowCount;
+        this.values = values;
+        this.ints = ints;
+        this.floats = floats;
+        this.doubles = doubles;
+        this.bools = bools;
+        this.missingColumns = missingColumns;
+    }
+
+    public int getColumnCount() { return columnCount; }
+
+    public int getRowCount() { return rowCount; }
+
+    /**
+     * Returns a bitmap in which a 1 bit represents a column whose value is MISSING.
+     * See C4QueryEnumerator.getMissingColumns.
+     */
+    public long getMissingColumns(int row) { return missingColumns[row]; }
+
+    @Nullable
+    public FLValue getValue(int row, int col) {
+        final long hValue = values[cell(row, col)];
+        return (hValue == 0L) ? null : new FLValue(hValue);
+    }
+
+    /**
+     * The value, as FLValue.asInt would return it.
+     */
+    public long getInt(int row, int col) { return ints[cell(row, col)]; }
+
+    /**
+     * The value, as FLValue.asFloat would return it.
+     */
+    public float getFloat(int row, int col) { return floats[cell(row, col)]; }
+
+    /**
+     * The value, as FLValue.asDouble would return it.
+     */
+    public double getDouble(int row, int col) { return doubles[cell(row, col)]; }
+
+    /**
+     * The value, as FLValue.asBool would return it.
+     */
+    public boolean getBoolean(int row, int col) { return bools[cell(row, col)]; }
+
+    private int cell(int row, int col) {
+        if ((row < 0) || (row >= rowCount) || (col < 0) || (col >= columnCount)) {
+            throw new ArrayIndexOutOfBoundsException(
+                "cell (" + row + ", " + col + ") is not in (" + rowCount + ", " + columnCount + ")");
+        }
+        return (row * columnCount) + col;
+    }
+}
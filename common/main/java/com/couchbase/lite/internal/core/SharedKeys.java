@@ -15,16 +15,59 @@
 //
 package com.couchbase.lite.internal.core;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.couchbase.lite.internal.fleece.FLSharedKeys;
 
 
+/**
+ * The keys that a database encodes as small integers.
+ * <p>
+ * Decoding a key from its ID creates a new String, every time. This class keeps a table
+ * of the Strings it has decoded, so that each is created only once. Shared keys are only ever
+ * appended: a new key never changes the ID of an existing one and needs no invalidation.
+ * Aborting a transaction, though, discards the keys it added: their IDs may be reused.
+ * The table must be invalidated when that happens.
+ * <p>
+ * The table is read and written without synchronization. Strings are immutable, so a thread
+ * that sees a racing write sees a complete String. At worst, two threads decode the same key
+ * and one of the two equal Strings is lost.
+ * <p>
+ * The table also maps strings back to their IDs, so that a key can be found in a dictionary
+ * by its ID.  IDs are assigned in order, so every ID up to the largest in a dictionary is in use:
+ * the reverse map is filled, in order, up to the largest ID that any search has needed.
+ */
 public final class SharedKeys {
+    // Fleece will not share more than this many keys.
+    @VisibleForTesting
+    static final int MAX_SHARED_KEYS = 2048;
+
+    // The decoded keys.  The table is replaced, not cleared, on invalidation: a reader
+    // that is decoding a key while the table is invalidated adds it to the discarded table.
+    private static final class KeyTable {
+        @NonNull
+        final String[] strings = new String[MAX_SHARED_KEYS];
+
+        @NonNull
+        final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        // All IDs lower than this are in ids.  Written only while holding the table's lock.
+        volatile int mappedIds;
+    }
 
     //---------------------------------------------
     // member variables
     //---------------------------------------------
     private final FLSharedKeys flSharedKeys;
 
+    @NonNull
+    private volatile KeyTable keyTable = new KeyTable();
+
     //---------------------------------------------
     // Constructors
     //---------------------------------------------
@@ -36,4 +79,76 @@ public final class SharedKeys {
     // Public level methods
     //---------------------------------------------
     public FLSharedKeys getFLSharedKeys() { return flSharedKeys; }
+
+    /**
+     * Get the string for a shared-key ID.
+     *
+     * @param keyId the shared-key ID.
+     * @return the key string, or null if the ID is not known.
+     */
+    @Nullable
+    public String getKeyString(int keyId) { return getKeyString(keyTable, keyId); }
+
+    /**
+     * Get the shared-key ID for a string, if it is no greater than maxId.
+     * Typically, maxId is the largest shared key in the dictionary that is being searched.
+     *
+     * @param key   the key string.
+     * @param maxId the largest ID of interest.
+     * @return the shared-key ID, or -1 if the key has no ID, or its ID is greater than maxId.
+     */
+    public int getKeyId(@NonNull String key, int maxId) {
+        if ((maxId < 0) || (maxId >= MAX_SHARED_KEYS)) { return -1; }
+
+        final KeyTable table = keyTable;
+        if (table.mappedIds <= maxId) { mapKeyIds(table, maxId); }
+
+        final Integer keyId = table.ids.get(key);
+        return ((keyId == null) || (keyId > maxId)) ? -1 : keyId;
+    }
+
+    /**
+     * The current table of key strings, indexed by shared-key ID.
+     * !!! Exposes the live table, so that the native decoder can use and add to it.
+     *
+     * @return the table of key strings.
+     */
+    @NonNull
+    public String[] getKeyStrings() { return keyTable.strings; }
+
+    /**
+     * Forget all decoded keys.
+     * Call this whenever shared keys may have been reverted, e.g., when a transaction is aborted.
+     */
+    public void invalidate() { keyTable = new KeyTable(); }
+
+    //---------------------------------------------
+    // Private methods
+    //---------------------------------------------
+
+    @Nullable
+    private String getKeyString(@NonNull KeyTable table, int keyId) {
+        if ((keyId < 0) || (keyId >= MAX_SHARED_KEYS)) { return flSharedKeys.decode(keyId); }
+
+        final String[] keys = table.strings;
+        final String key = keys[keyId];
+        if (key != null) { return key; }
+
+        final String newKey = flSharedKeys.decode(keyId);
+        if (newKey != null) { keys[keyId] = newKey; }
+
+        return newKey;
+    }
+
+    // Add the IDs up to maxId to the reverse map.  This happens once per ID, per table.
+    private void mapKeyIds(@NonNull KeyTable table, int maxId) {
+        synchronized (table) {
+            for (int keyId = table.mappedIds; keyId <= maxId; keyId++) {
+                final String key = getKeyString(table, keyId);
+                if (key == null) { return; }
+                table.ids.put(key, keyId);
+                table.mappedIds = keyId + 1;
+            }
+        }
+    }
 }
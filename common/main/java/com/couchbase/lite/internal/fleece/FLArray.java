@@ -15,9 +15,11 @@
 //
 package com.couchbase.lite.internal.fleece;
 
-import java.util.ArrayList;
+import android.support.annotation.Nullable;
+
 import java.util.List;
 
+import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -55,19 +57,13 @@ public class FLArray {
 
     public List<Object> asArray() { return asTypedArray(); }
 
+    public List<Object> asArray(@Nullable SharedKeys sharedKeys) { return asTypedArray(sharedKeys); }
+
+    public <T> List<T> asTypedArray() { return asTypedArray(null); }
+
     @SuppressWarnings("unchecked")
-    public <T> List<T> asTypedArray() {
-        final List<T> results = new ArrayList<>();
-        final FLArrayIterator itr = new FLArrayIterator();
-
-        itr.begin(this);
-        FLValue value;
-        while ((value = itr.getValue()) != null) {
-            results.add((T) value.asObject());
-            if (!itr.next()) { break; }
-        }
-
-        return results;
+    private <T> List<T> asTypedArray(@Nullable SharedKeys sharedKeys) {
+        return (List<T>) new FLValue(handle).toJava(sharedKeys);
     }
 
     //-------------------------------------------------------------------------
@@ -15,10 +15,12 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import android.support.annotation.Nullable;
+
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.Map;
 
+import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -45,25 +47,23 @@ public class FLDict {
 
     public FLValue get(String key) {
         if (key == null) { return null; }
+        return get(key.getBytes(StandardCharsets.UTF_8));
+    }
 
-        final long hValue = get(handle, key.getBytes(StandardCharsets.UTF_8));
+    // Look up a key that is already UTF-8 encoded.
+    public FLValue get(byte[] keyBytes) {
+        if (keyBytes == null) { return null; }
+
+        final long hValue = get(handle, keyBytes);
 
         return hValue != 0L ? new FLValue(hValue) : null;
     }
 
-    public Map<String, Object> asDict() {
-        final Map<String, Object> results = new HashMap<>();
-        final FLDictIterator itr = new FLDictIterator();
-
-        itr.begin(this);
-        String key;
-        while ((key = itr.getKeyString()) != null) {
-            final FLValue val = itr.getValue();
-            results.put(key, (val == null) ? null : val.asObject());
-            itr.next();
-        }
+    public Map<String, Object> asDict() { return asDict(null); }
 
-        return results;
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> asDict(@Nullable SharedKeys sharedKeys) {
+        return (Map<String, Object>) toFLValue().toJava(sharedKeys);
     }
 
     //-------------------------------------------------------------------------
@@ -19,6 +19,7 @@ package com.couchbase.lite.internal.fleece;
 import android.support.annotation.Nullable;
 
 import com.couchbase.lite.internal.core.C4NativePeer;
+import com.couchbase.lite.internal.core.SharedKeys;
 
 
 public class FLDictIterator extends C4NativePeer {
@@ -46,6 +47,23 @@ public class FLDictIterator extends C4NativePeer {
     @Nullable
     public String getKeyString() { return getKeyString(getPeer()); }
 
+    /**
+     * Get the current key, using the cached string for a shared key, if possible.
+     * The dictionary must have been encoded with the passed shared keys.
+     *
+     * @param sharedKeys the shared keys for the dictionary being iterated, or null if they are not known.
+     * @return the key string, or null if the iterator is exhausted.
+     */
+    @Nullable
+    public String getKeyString(@Nullable SharedKeys sharedKeys) {
+        if (sharedKeys == null) { return getKeyString(); }
+
+        final long handle = getPeer();
+        final int keyId = getSharedKey(handle);
+        final String key = (keyId < 0) ? null : sharedKeys.getKeyString(keyId);
+        return (key != null) ? key : getKeyString(handle);
+    }
+
     @Nullable
     public FLValue getValue() { return new FLValue(getValue(getPeer())); }
 
@@ -103,6 +121,14 @@ public class FLDictIterator extends C4NativePeer {
     @Nullable
     private static native String getKeyString(long itr);
 
+    /**
+     * Returns the current key's shared-key ID.
+     *
+     * @param itr (FLDictIterator *)
+     * @return the shared-key ID, or -1 if the key is not a shared key or the iterator is exhausted.
+     */
+    private static native int getSharedKey(long itr);
+
     /**
      * Returns the current value being iterated over.
      *
@@ -15,6 +15,9 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import android.support.annotation.Nullable;
+
+
 public class FLSharedKeys {
     private final long handle; // hold pointer to FLSharedKeys
 
@@ -32,4 +35,21 @@ public class FLSharedKeys {
     public long getHandle() {
         return handle;
     }
+
+    @Nullable
+    public String decode(int key) { return decode(handle, key); }
+
+    //-------------------------------------------------------------------------
+    // native methods
+    //-------------------------------------------------------------------------
+
+    /**
+     * Returns the string for a shared-key ID.
+     *
+     * @param sk  FLSharedKeys
+     * @param key the shared-key ID
+     * @return the key string, or null if the ID is not known.
+     */
+    @Nullable
+    private static native String decode(long sk, int key);
 }
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.couchbase.lite.LiteCoreException;
+import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.utils.Fn;
 import com.couchbase.lite.internal.utils.Preconditions;
 
@@ -207,26 +208,18 @@ public class FLValue {
      *
      * @return Object
      */
-    public Object asObject() {
-        switch (getType(handle)) {
-            case FLConstants.ValueType.BOOLEAN:
-                return Boolean.valueOf(asBool());
-            case FLConstants.ValueType.NUMBER:
-                if (isInteger()) { return (isUnsigned()) ? Long.valueOf(asUnsigned()) : Long.valueOf(asInt()); }
-                if (isDouble()) { return Double.valueOf(asDouble()); }
-                return Float.valueOf(asFloat());
-            case FLConstants.ValueType.STRING:
-                return asString();
-            case FLConstants.ValueType.DATA:
-                return asData();
-            case FLConstants.ValueType.ARRAY:
-                return asArray();
-            case FLConstants.ValueType.DICT:
-                return asDict();
-            case FLConstants.ValueType.NULL:
-            default:
-                return null;
-        }
+    public Object asObject() { return toJava(null); }
+
+    /**
+     * Convert this value, and everything it contains, to Java objects, in a single native call.
+     * Dictionaries become Maps, arrays Lists, and data byte[]s.
+     *
+     * @param sharedKeys the keys with which this value was encoded, if known: used to cache key strings.
+     * @return Object
+     */
+    @Nullable
+    public Object toJava(@Nullable SharedKeys sharedKeys) {
+        return toJava(handle, (sharedKeys == null) ? null : sharedKeys.getKeyStrings());
     }
 
     //-------------------------------------------------------------------------
@@ -282,6 +275,16 @@ public class FLValue {
 
     private static native String asString(long value);
 
+    /**
+     * Converts an entire value tree to Java objects.
+     *
+     * @param value    FLValue
+     * @param keyTable strings for shared-key IDs: a shared key not in the table is added to it.
+     * @return Object
+     */
+    @Nullable
+    private static native Object toJava(long value, @Nullable String[] keyTable);
+
     private static native long asArray(long value);
 
     private static native long asDict(long value);
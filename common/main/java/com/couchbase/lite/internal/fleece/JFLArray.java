@@ -0,0 +1,79 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.couchbase.lite.internal.core.SharedKeys;
+
+
+/**
+ * A Fleece array, decoded in Java.  See JFLValue.
+ */
+public final class JFLArray extends JFLValue {
+    private final int first;
+    private final int count;
+    private final int width;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+
+    JFLArray(@NonNull ByteBuffer buf, int pos, @Nullable SharedKeys sharedKeys, @Nullable Object owner) {
+        super(buf, pos, sharedKeys, owner);
+        final int[] extent = collectionExtent();
+        first = extent[0];
+        count = extent[1];
+        width = extent[2];
+    }
+
+    //-------------------------------------------------------------------------
+    // public methods
+    //-------------------------------------------------------------------------
+
+    public long count() { return count; }
+
+    /**
+     * Get the item at an index.
+     *
+     * @param index the index of the item.
+     * @return the item, or null if the index is out of range.
+     */
+    @Nullable
+    public JFLValue get(long index) {
+        if ((index < 0) || (index >= count)) { return null; }
+        return new JFLValue(buf, derefSlot(first + ((int) index * width), width), sharedKeys, owner);
+    }
+
+    @NonNull
+    @Override
+    public List<Object> asArray() {
+        final List<Object> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new JFLValue(buf, derefSlot(first + (i * width), width), sharedKeys, owner).asObject());
+        }
+        return list;
+    }
+
+    @NonNull
+    @Override
+    public String toString() { return "JFLArray{" + pos + ", " + count + "}"; }
+}
@@ -0,0 +1,201 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.lite.internal.core.SharedKeys;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A Fleece dictionary, decoded in Java.  See JFLValue.
+ * <p>
+ * Keys are sorted: shared keys, small integers, first, in numeric order, then strings, in byte order.
+ * A String key is found by looking up its shared-key ID and binary searching the shared keys for it,
+ * then, if it is not there, by binary searching the string keys.  Without a SharedKeys table,
+ * shared keys cannot be read: they are skipped.
+ */
+public final class JFLDict extends JFLValue {
+    private final int first;
+    private final int count;
+    private final int width;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+
+    JFLDict(@NonNull ByteBuffer buf, int pos, @Nullable SharedKeys sharedKeys, @Nullable Object owner) {
+        super(buf, pos, sharedKeys, owner);
+        final int[] extent = collectionExtent();
+        first = extent[0];
+        count = extent[1] / 2;
+        width = extent[2];
+    }
+
+    //-------------------------------------------------------------------------
+    // public methods
+    //-------------------------------------------------------------------------
+
+    public long count() { return count; }
+
+    /**
+     * Look up a key.
+     *
+     * @param key the key.
+     * @return the value for the key, or null if there is no such key.
+     */
+    @Nullable
+    public JFLValue get(@NonNull String key) {
+        Preconditions.assertNotNull(key, "key");
+
+        final int nShared = sharedKeyCount();
+        if ((nShared > 0) && (sharedKeys != null)) {
+            final int keyId = sharedKeys.getKeyId(key, sharedKeyId(keyAt(nShared - 1)));
+            if (keyId >= 0) {
+                final int i = findSharedKey(keyId, nShared);
+                if (i >= 0) { return valueAt(i); }
+            }
+        }
+
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int lo = nShared;
+        int hi = count - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int cmp = compareKey(keyAt(mid), keyBytes);
+            if (cmp == 0) { return valueAt(mid); }
+            if (cmp < 0) { lo = mid + 1; }
+            else { hi = mid - 1; }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the keys, in the order in which they are stored.
+     *
+     * @return the keys.
+     */
+    @NonNull
+    public List<String> getKeys() {
+        final List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String key = keyString(keyAt(i));
+            if (key != null) { keys.add(key); }
+        }
+        return keys;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Object> asDict() {
+        final Map<String, Object> map = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            final String key = keyString(keyAt(i));
+            if (key != null) { map.put(key, valueAt(i).asObject()); }
+        }
+        return map;
+    }
+
+    @NonNull
+    @Override
+    public String toString() { return "JFLDict{" + pos + ", " + count + "}"; }
+
+    //-------------------------------------------------------------------------
+    // private methods
+    //-------------------------------------------------------------------------
+
+    private int keyAt(int i) { return derefSlot(first + (2 * i * width), width); }
+
+    @NonNull
+    private JFLValue valueAt(int i) {
+        return new JFLValue(buf, derefSlot(first + (((2 * i) + 1) * width), width), sharedKeys, owner);
+    }
+
+    private int tagAt(int p) { return (buf.get(p) & 0xF0) >> 4; }
+
+    @Nullable
+    private String keyString(int keyPos) {
+        if (tagAt(keyPos) == TAG_SHORT_INT) { return sharedKeyString(keyPos); }
+        if (tagAt(keyPos) != TAG_STRING) { return null; }
+        final int[] extent = stringExtentAt(keyPos);
+        return decodeUtf8(extent[0], extent[1]);
+    }
+
+    // Negative IDs are not keys: -2048 marks the parent of a delta.
+    @Nullable
+    private String sharedKeyString(int keyPos) {
+        final int keyId = sharedKeyId(keyPos);
+        return ((sharedKeys == null) || (keyId < 0)) ? null : sharedKeys.getKeyString(keyId);
+    }
+
+    // The signed, 12-bit, ID of the shared key at keyPos.
+    private int sharedKeyId(int keyPos) {
+        final int n = ((buf.get(keyPos) & 0x0F) << 8) | (buf.get(keyPos + 1) & 0xFF);
+        return ((n & 0x800) == 0) ? n : n - 0x1000;
+    }
+
+    // The number of shared keys: they precede all the string keys.
+    private int sharedKeyCount() {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (tagAt(keyAt(mid)) == TAG_SHORT_INT) { lo = mid + 1; }
+            else { hi = mid; }
+        }
+        return lo;
+    }
+
+    // The index of the shared key with the given ID, or -1 if there is none.
+    private int findSharedKey(int keyId, int nShared) {
+        int lo = 0;
+        int hi = nShared - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int id = sharedKeyId(keyAt(mid));
+            if (id == keyId) { return mid; }
+            if (id < keyId) { lo = mid + 1; }
+            else { hi = mid - 1; }
+        }
+        return -1;
+    }
+
+    // Compare the string key at keyPos with the given UTF-8 bytes, as memcmp would.
+    private int compareKey(int keyPos, @NonNull byte[] key) {
+        if (tagAt(keyPos) != TAG_STRING) { return (tagAt(keyPos) < TAG_STRING) ? -1 : 1; }
+
+        final int[] extent = stringExtentAt(keyPos);
+        final int start = extent[0];
+        final int len = extent[1];
+        final int n = Math.min(len, key.length);
+        for (int i = 0; i < n; i++) {
+            final int diff = (buf.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) { return diff; }
+        }
+
+        return len - key.length;
+    }
+}
@@ -0,0 +1,444 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.fleece;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.couchbase.lite.internal.core.SharedKeys;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * A Fleece value, decoded in Java, with no native calls.
+ * <p>
+ * This is a read-only counterpart of FLValue, for Fleece data in a ByteBuffer: typically
+ * a direct buffer over LiteCore's copy of a document body.  Reading a value requires no native
+ * call and no native handle: a value is just a position in the buffer.  The buffer must
+ * not change, and, if it is direct, its memory must not be freed, while any value in it is in use.
+ * A value holds a reference to the owner of the memory, if there is one, but a caller must still
+ * make sure that the value, and so the owner, stays reachable until it is done reading.
+ * <p>
+ * Shared keys are resolved with a SharedKeys table.  Deltas (dicts that inherit from another
+ * dict) and external pointers are not supported: LiteCore never stores either in a document body.
+ * <p>
+ * Values are 2-byte aligned.  The high nibble of a value's first byte is its tag:
+ * <pre>
+ *   0000 iiii iiiiiiii                      small int (12 bit, signed)
+ *   0001 uccc iiiiiiii...                   int (c + 1 bytes, little-endian, u: unsigned)
+ *   0010 s--- -------- ffffffff...          float (s: 8 byte double, else 4 byte float)
+ *   0011 ss-- --------                      special (null, false, true, undefined)
+ *   0100 cccc ssssssss...                   string (c: size, 15: varint size follows)
+ *   0101 cccc dddddddd...                   binary data (as string)
+ *   0110 wccc cccccccc...                   array (w: 4 byte slots, c: count, 2047: varint count - 2047 follows)
+ *   0111 wccc cccccccc...                   dict (as array, c: number of key/value pairs)
+ *   1ooo oooo oooooooo                      pointer (big-endian offset / 2, backwards)
+ * </pre>
+ * The root value is found through the 2-byte slot at the very end of the data.
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.TooManyMethods"})
+public class JFLValue {
+    private static final AtomicBoolean ENABLED = new AtomicBoolean(false);
+
+    static final int TAG_SHORT_INT = 0x0;
+    static final int TAG_INT = 0x1;
+    static final int TAG_FLOAT = 0x2;
+    static final int TAG_SPECIAL = 0x3;
+    static final int TAG_STRING = 0x4;
+    static final int TAG_BINARY = 0x5;
+    static final int TAG_ARRAY = 0x6;
+    static final int TAG_DICT = 0x7;
+
+    private static final int SPECIAL_NULL = 0x00;
+    private static final int SPECIAL_FALSE = 0x04;
+    private static final int SPECIAL_TRUE = 0x08;
+
+    private static final int NARROW = 2;
+    private static final int WIDE = 4;
+
+    //-------------------------------------------------------------------------
+    // public static methods
+    //-------------------------------------------------------------------------
+
+    /**
+     * Use the Java decoder for read-only paths, where it is supported.  Off by default.
+     * This method is for internal use only and will be removed in a future release.
+     *
+     * @param enabled true to use the Java decoder.
+     */
+    public static void setEnabled(boolean enabled) { ENABLED.set(enabled); }
+
+    public static boolean isEnabled() { return ENABLED.get(); }
+
+    /**
+     * Get the root value of Fleece data.
+     * The buffer is not copied: the data must not change while the value is in use.
+     *
+     * @param data       the encoded data, from position to limit.
+     * @param sharedKeys the keys with which the data was encoded, if any.
+     * @return the root value, or null if there is no data.
+     */
+    @Nullable
+    public static JFLValue fromData(@NonNull ByteBuffer data, @Nullable SharedKeys sharedKeys) {
+        return fromData(data, sharedKeys, null);
+    }
+
+    /**
+     * Get the root value of Fleece data that belongs to some other object: typically, native memory
+     * that is freed when its owner is.  Every value read from the data holds a reference to the owner.
+     *
+     * @param data       the encoded data, from position to limit.
+     * @param sharedKeys the keys with which the data was encoded, if any.
+     * @param owner      the object that owns the data.
+     * @return the root value, or null if there is no data.
+     */
+    @Nullable
+    public static JFLValue fromData(
+        @NonNull ByteBuffer data,
+        @Nullable SharedKeys sharedKeys,
+        @Nullable Object owner) {
+        Preconditions.assertNotNull(data, "data");
+        final ByteBuffer buf = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        final int size = buf.limit();
+        if (size < NARROW) { return null; }
+        return new JFLValue(buf, deref(buf, size - NARROW, false), sharedKeys, owner);
+    }
+
+    @Nullable
+    public static JFLValue fromData(@NonNull byte[] data, @Nullable SharedKeys sharedKeys) {
+        return fromData(ByteBuffer.wrap(Preconditions.assertNotNull(data, "data")), sharedKeys);
+    }
+
+    //-------------------------------------------------------------------------
+    // package static methods
+    //-------------------------------------------------------------------------
+
+    // Follow the pointers, if any, from the slot at pos to a value.
+    // Only the first pointer can be narrow: a pointer to a pointer is always wide.
+    static int deref(@NonNull ByteBuffer buf, int pos, boolean wide) {
+        boolean isWide = wide;
+        int p = pos;
+        while ((buf.get(p) & 0x80) != 0) {
+            final int b0 = buf.get(p) & 0xFF;
+            if ((b0 & 0x40) != 0) { throw new IllegalStateException("External pointers are not supported"); }
+
+            long offset = ((b0 & 0x3F) << 8) | (buf.get(p + 1) & 0xFF);
+            if (isWide) { offset = (offset << 16) | ((buf.get(p + 2) & 0xFF) << 8) | (buf.get(p + 3) & 0xFF); }
+            offset <<= 1;
+
+            if ((offset <= 0) || (offset > p)) { throw new IllegalStateException("Bad Fleece pointer at " + p); }
+
+            p -= (int) offset;
+            isWide = true;
+        }
+        return p;
+    }
+
+    //-------------------------------------------------------------------------
+    // Member Variables
+    //-------------------------------------------------------------------------
+
+    @NonNull
+    final ByteBuffer buf;
+    final int pos;
+    @Nullable
+    final SharedKeys sharedKeys;
+    // The owner of the memory in buf: while this value is reachable, so is the owner.
+    @Nullable
+    final Object owner;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+
+    JFLValue(@NonNull ByteBuffer buf, int pos, @Nullable SharedKeys sharedKeys, @Nullable Object owner) {
+        this.buf = buf;
+        this.pos = pos;
+        this.sharedKeys = sharedKeys;
+        this.owner = owner;
+    }
+
+    //-------------------------------------------------------------------------
+    // public methods
+    //-------------------------------------------------------------------------
+
+    /**
+     * Returns the data type of the value.
+     *
+     * @return int (FLConstants.ValueType)
+     */
+    public int getType() {
+        switch (tag()) {
+            case TAG_SHORT_INT:
+            case TAG_INT:
+            case TAG_FLOAT:
+                return FLConstants.ValueType.NUMBER;
+            case TAG_SPECIAL:
+                switch (tiny()) {
+                    case SPECIAL_NULL:
+                        return FLConstants.ValueType.NULL;
+                    case SPECIAL_FALSE:
+                    case SPECIAL_TRUE:
+                        return FLConstants.ValueType.BOOLEAN;
+                    default:
+                        return FLConstants.ValueType.UNDEFINED;
+                }
+            case TAG_STRING:
+                return FLConstants.ValueType.STRING;
+            case TAG_BINARY:
+                return FLConstants.ValueType.DATA;
+            case TAG_ARRAY:
+                return FLConstants.ValueType.ARRAY;
+            case TAG_DICT:
+                return FLConstants.ValueType.DICT;
+            default:
+                return FLConstants.ValueType.UNDEFINED;
+        }
+    }
+
+    public boolean isNumber() { return getType() == FLConstants.ValueType.NUMBER; }
+
+    public boolean isInteger() {
+        final int tag = tag();
+        return (tag == TAG_SHORT_INT) || (tag == TAG_INT);
+    }
+
+    public boolean isUnsigned() { return (tag() == TAG_INT) && ((tiny() & 0x08) != 0); }
+
+    public boolean isDouble() { return (tag() == TAG_FLOAT) && ((tiny() & 0x08) != 0); }
+
+    /**
+     * Returns a value coerced to boolean, as FLValue.asBool does.
+     *
+     * @return boolean
+     */
+    public boolean asBool() {
+        switch (tag()) {
+            case TAG_SPECIAL:
+                return tiny() == SPECIAL_TRUE;
+            case TAG_SHORT_INT:
+            case TAG_INT:
+            case TAG_FLOAT:
+                return asInt() != 0;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Returns a value coerced to an integer, as FLValue.asInt does.
+     * Floating point values are rounded.
+     *
+     * @return long
+     */
+    public long asInt() {
+        switch (tag()) {
+            case TAG_SHORT_INT:
+                final int n = (tiny() << 8) | (buf.get(pos + 1) & 0xFF);
+                return ((n & 0x800) == 0) ? n : n - 0x1000;
+            case TAG_INT:
+                return readInt();
+            case TAG_FLOAT:
+                final double d = asDouble();
+                return (long) Math.copySign(Math.floor(Math.abs(d) + 0.5), d);
+            case TAG_SPECIAL:
+                return (tiny() == SPECIAL_TRUE) ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    public long asUnsigned() { return asInt(); }
+
+    public float asFloat() {
+        if (tag() != TAG_FLOAT) { return (float) asDouble(); }
+        return isDouble() ? (float) buf.getDouble(pos + 2) : buf.getFloat(pos + 2);
+    }
+
+    public double asDouble() {
+        if (tag() == TAG_FLOAT) { return isDouble() ? buf.getDouble(pos + 2) : buf.getFloat(pos + 2); }
+        final long n = asInt();
+        if (!isUnsigned() || (n >= 0)) { return n; }
+        // an unsigned long that does not fit in a signed one
+        return ((double) (n >>> 1)) * 2.0 + (n & 1);
+    }
+
+    /**
+     * Returns the exact contents of a string value, or null for all other types.
+     *
+     * @return String
+     */
+    @Nullable
+    public String asString() {
+        if (tag() != TAG_STRING) { return null; }
+        final int[] extent = stringExtent();
+        return decodeUtf8(extent[0], extent[1]);
+    }
+
+    /**
+     * Returns the exact contents of a data value, or null for all other types.
+     *
+     * @return byte[]
+     */
+    @Nullable
+    public byte[] asData() {
+        if (tag() != TAG_BINARY) { return null; }
+        final int[] extent = stringExtent();
+        return getBytes(extent[0], extent[1]);
+    }
+
+    @Nullable
+    public JFLArray asFLArray() { return (tag() != TAG_ARRAY) ? null : new JFLArray(buf, pos, sharedKeys, owner); }
+
+    @Nullable
+    public JFLDict asFLDict() { return (tag() != TAG_DICT) ? null : new JFLDict(buf, pos, sharedKeys, owner); }
+
+    @Nullable
+    public List<Object> asArray() {
+        final JFLArray array = asFLArray();
+        return (array == null) ? null : array.asArray();
+    }
+
+    @Nullable
+    public Map<String, Object> asDict() {
+        final JFLDict dict = asFLDict();
+        return (dict == null) ? null : dict.asDict();
+    }
+
+    /**
+     * Convert this value, and everything it contains, to Java objects: the same objects
+     * that FLValue.toJava would return.
+     *
+     * @return Object
+     */
+    @Nullable
+    public Object asObject() {
+        switch (getType()) {
+            case FLConstants.ValueType.BOOLEAN:
+                return asBool();
+            case FLConstants.ValueType.NUMBER:
+                if (isInteger()) { return asInt(); }
+                if (isDouble()) { return asDouble(); }
+                return asFloat();
+            case FLConstants.ValueType.STRING:
+                return asString();
+            case FLConstants.ValueType.DATA:
+                return asData();
+            case FLConstants.ValueType.ARRAY:
+                return asArray();
+            case FLConstants.ValueType.DICT:
+                return asDict();
+            default:
+                return null;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() { return "JFLValue{" + pos + "}"; }
+
+    //-------------------------------------------------------------------------
+    // package methods
+    //-------------------------------------------------------------------------
+
+    final int tag() { return (buf.get(pos) & 0xF0) >> 4; }
+
+    final int tiny() { return buf.get(pos) & 0x0F; }
+
+    // Returns the position and length of the bytes of a string or data value.
+    @NonNull
+    final int[] stringExtent() { return stringExtentAt(pos); }
+
+    @NonNull
+    final int[] stringExtentAt(int p) {
+        final int size = buf.get(p) & 0x0F;
+        if (size < 0x0F) { return new int[] {p + 1, size}; }
+        final long[] varint = readVarint(p + 1);
+        return new int[] {p + 1 + (int) varint[1], (int) varint[0]};
+    }
+
+    // Returns the position of the first slot, the number of items and the slot width of an array or dict.
+    // A dict's items are its keys and values, alternating.
+    @NonNull
+    final int[] collectionExtent() {
+        final int width = ((tiny() & 0x08) == 0) ? NARROW : WIDE;
+        int count = ((tiny() & 0x07) << 8) | (buf.get(pos + 1) & 0xFF);
+        int first = pos + 2;
+        if (count == 0x07FF) {
+            // the varint holds the count in excess of 2047
+            final long[] varint = readVarint(first);
+            count += (int) varint[0];
+            first += (int) varint[1];
+            if ((first & 1) != 0) { first++; }
+        }
+        if (tag() == TAG_DICT) { count *= 2; }
+        return new int[] {first, count, width};
+    }
+
+    // Returns the position of the value in the slot at p.
+    final int derefSlot(int p, int width) { return deref(buf, p, width == WIDE); }
+
+    // Returns the value of the unsigned varint at p, and its size in bytes.
+    @NonNull
+    final long[] readVarint(int p) {
+        long n = 0;
+        int shift = 0;
+        int i = p;
+        while (true) {
+            final int b = buf.get(i++) & 0xFF;
+            n |= ((long) (b & 0x7F)) << shift;
+            if ((b & 0x80) == 0) { return new long[] {n, i - p}; }
+            shift += 7;
+            if (shift > 63) { throw new IllegalStateException("Bad Fleece varint at " + p); }
+        }
+    }
+
+    @NonNull
+    final byte[] getBytes(int start, int len) {
+        final byte[] bytes = new byte[len];
+        final ByteBuffer src = buf.duplicate();
+        src.position(start);
+        src.get(bytes);
+        return bytes;
+    }
+
+    @NonNull
+    final String decodeUtf8(int start, int len) {
+        if (buf.hasArray()) { return new String(buf.array(), buf.arrayOffset() + start, len, StandardCharsets.UTF_8); }
+        return new String(getBytes(start, len), StandardCharsets.UTF_8);
+    }
+
+    //-------------------------------------------------------------------------
+    // private methods
+    //-------------------------------------------------------------------------
+
+    private long readInt() {
+        final int b0 = buf.get(pos) & 0xFF;
+        final int size = (b0 & 0x07) + 1;
+        long n = 0;
+        for (int i = size; i > 0; i--) { n = (n << 8) | (buf.get(pos + i) & 0xFF); }
+        if (((b0 & 0x08) != 0) || (size == 8)) { return n; }
+        final int shift = 64 - (8 * size);
+        return (n << shift) >> shift;
+    }
+}
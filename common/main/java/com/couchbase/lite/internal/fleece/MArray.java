@@ -15,12 +15,19 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import android.support.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.List;
 
 
 public class MArray extends MCollection {
+    // The size of an immutable MArray never changes: the lazy cache of values is only updated with set().
+    // Readers on several threads may race to cache an element: they all get equivalent MValues.
     private List<MValue> values = new ArrayList<>();
+    // A mutable MArray and its mutable copies share a single list of values until one of them writes to it.
+    // They share only when they are all guarded by the database lock, so the flag needs no other synchronization.
+    private boolean valuesShared;
 
     private FLArray baseArray;
 
@@ -47,7 +54,22 @@ public class MArray extends MCollection {
     public void initAsCopyOf(MArray array, boolean isMutable) {
         super.initAsCopyOf(array, isMutable);
         baseArray = array != null ? array.getBaseArray() : null;
-        values = array != null ? new ArrayList<>(array.values) : new ArrayList<>();
+
+        if (array == null) {
+            values = new ArrayList<>();
+            return;
+        }
+
+        // An immutable original may be caching values, on other threads: it cannot share its list.
+        // Neither can an original that is not guarded by the lock that will guard the copy.
+        if (!(isMutable && array.isMutable() && array.isGuardedByDbLock())) {
+            values = new ArrayList<>(array.values);
+            return;
+        }
+
+        values = array.values;
+        valuesShared = true;
+        array.valuesShared = true;
     }
 
     /* Properties */
@@ -63,6 +85,22 @@ public class MArray extends MCollection {
 
     /* Public Methods */
 
+    /**
+     * If this array's content is still exactly its Fleece array,
+     * convert the whole thing to Java objects in a single native call.
+     *
+     * @return the content as Lists, Maps and primitives, or null if this array has been changed.
+     */
+    @Nullable
+    public List<Object> decodeUnchanged() {
+        if ((baseArray == null) || isMutated() || (values.size() != baseArray.count())) { return null; }
+        // An empty value is one that has not yet been read from the base array.
+        for (MValue value: values) {
+            if ((!value.isEmpty()) && value.isMutated()) { return null; }
+        }
+        return baseArray.asArray(getSharedKeys());
+    }
+
     /**
      * Returns a reference to the MValue of the item at the given index.
      * If the index is out of range, returns an empty MValue.
@@ -73,7 +111,7 @@ public class MArray extends MCollection {
         MValue value = values.get((int) index);
         if (value.isEmpty() && (baseArray != null)) {
             value = new MValue(baseArray.get(index));
-            values.set((int) index, value);
+            ownValues().set((int) index, value);
         }
 
         return value;
@@ -85,7 +123,7 @@ public class MArray extends MCollection {
         if (index < 0 || index >= count()) { return false; }
 
         mutate();
-        values.set((int) index, new MValue(value));
+        ownValues().set((int) index, new MValue(value));
         return true;
     }
 
@@ -97,7 +135,7 @@ public class MArray extends MCollection {
         if (index < count()) { populateValues(); }
 
         mutate();
-        values.add((int) index, new MValue(value));
+        ownValues().add((int) index, new MValue(value));
         return true;
     }
 
@@ -117,7 +155,7 @@ public class MArray extends MCollection {
         if (end < count) { populateValues(); }
 
         mutate();
-        values.subList((int) start, (int) end).clear();
+        ownValues().subList((int) start, (int) end).clear();
         return true;
     }
 
@@ -131,13 +169,15 @@ public class MArray extends MCollection {
         if (values.isEmpty()) { return true; }
 
         mutate();
-        values.clear();
+        values = new ArrayList<>();
+        valuesShared = false;
         return true;
     }
 
     /* Private Methods */
 
     void resize(long newSize) {
+        ownValues();
         final int count = values.size();
         if (newSize < count) { values.subList((int) newSize, count).clear(); }
         else if (newSize > count) {
@@ -151,11 +191,20 @@ public class MArray extends MCollection {
         final int size = values.size();
         for (int i = 0; i < size; i++) {
             if (values.get(i).isEmpty()) {
-                values.set(i, new MValue(baseArray.get(i)));
+                ownValues().set(i, new MValue(baseArray.get(i)));
             }
         }
     }
 
+    // Get a list of values that this MArray can change: if it is shared, copy it.
+    private List<MValue> ownValues() {
+        if (valuesShared) {
+            values = new ArrayList<>(values);
+            valuesShared = false;
+        }
+        return values;
+    }
+
     public void encodeTo(FLEncoder enc) {
         if (!isMutated()) {
             if (baseArray == null) {
@@ -15,9 +15,11 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import com.couchbase.lite.internal.DbContext;
+import com.couchbase.lite.internal.core.SharedKeys;
 
 
 public abstract class MCollection implements Encodable {
@@ -88,6 +90,16 @@ public abstract class MCollection implements Encodable {
         if (this.slot.getValue() != null) { context = parent != null ? parent.getContext() : null; }
     }
 
+    @Nullable
+    protected SharedKeys getSharedKeys() { return (context == null) ? null : context.getSharedKeys(); }
+
+    // The Dictionaries and Arrays of a database's documents hold the database lock while using their
+    // collections: all of the collections in such a context are guarded by that single lock.
+    // Any other collection is guarded only by its own lock.
+    protected boolean isGuardedByDbLock() {
+        return (context instanceof DbContext) && (((DbContext) context).getDatabase() != null);
+    }
+
     protected void mutate() {
         if (!mutable) { throw new IllegalStateException("The collection object is not mutable."); }
         if (!mutated) {
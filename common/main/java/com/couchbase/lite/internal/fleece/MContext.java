@@ -15,9 +15,17 @@
 //
 package com.couchbase.lite.internal.fleece;
 
+import android.support.annotation.Nullable;
+
+import com.couchbase.lite.internal.core.SharedKeys;
+
 
 public class MContext {
     public static final MContext NULL = new MContext();
 
     protected MContext() { }
+
+    // The keys with which the Fleece in this context was encoded, if known.
+    @Nullable
+    public SharedKeys getSharedKeys() { return null; }
 }
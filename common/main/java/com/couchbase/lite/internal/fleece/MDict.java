@@ -16,20 +16,29 @@
 package com.couchbase.lite.internal.fleece;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import com.couchbase.lite.internal.core.SharedKeys;
 import com.couchbase.lite.internal.utils.Preconditions;
 
 
 public class MDict extends MCollection implements Iterable<String> {
-    // ??? What is this for?
-    private final List<String> newKey = new ArrayList<>();
+    // An immutable MDict may be read, without external synchronization, from several threads.
+    // Its cache of values is, therefore, a concurrent map.
     private Map<String, MValue> valueMap = new HashMap<>();
+    // A mutable MDict and its mutable copies share a single valueMap until one of them writes to it:
+    // copying or changing a few keys of a large dictionary costs as little as possible.
+    // They share only when they are all guarded by the database lock, so the flag needs no other synchronization.
+    private boolean valueMapShared;
+    // Null after a clear(): none of the keys in the Fleece dictionary are visible.
     private FLDict flDict;
     private long valCount;
 
@@ -41,8 +50,23 @@ public class MDict extends MCollection implements Iterable<String> {
     public void initAsCopyOf(MDict d, boolean isMutable) {
         super.initAsCopyOf(d, isMutable);
         flDict = d.flDict;
-        valueMap = new HashMap<>(d.valueMap);
         valCount = d.valCount;
+
+        if (!isMutable) {
+            valueMap = new ConcurrentHashMap<>(d.valueMap);
+            return;
+        }
+
+        // An immutable original may be caching values, on other threads: it cannot share its map.
+        // Neither can an original that is not guarded by the lock that will guard the copy.
+        if (!(d.isMutable() && d.isGuardedByDbLock())) {
+            valueMap = new HashMap<>(d.valueMap);
+            return;
+        }
+
+        valueMap = d.valueMap;
+        valueMapShared = true;
+        d.valueMapShared = true;
     }
 
     //---------------------------------------------
@@ -79,11 +103,12 @@ public class MDict extends MCollection implements Iterable<String> {
             }
 
             if ((flDict != null) && (flDict.count() > 0)) {
+                final SharedKeys sharedKeys = getSharedKeys();
                 final FLDictIterator itr = new FLDictIterator();
                 try {
                     itr.begin(flDict);
                     String key;
-                    while ((key = itr.getKeyString()) != null) {
+                    while ((key = itr.getKeyString(sharedKeys)) != null) {
                         if (!valueMap.containsKey(key)) {
                             enc.writeKey(key);
                             enc.writeValue(itr.getValue());
@@ -105,22 +130,12 @@ public class MDict extends MCollection implements Iterable<String> {
         if (valCount == 0) { return true; }
 
         mutate();
-        valueMap.clear();
+        valueMap = new HashMap<>();
+        valueMapShared = false;
 
-        if ((flDict != null) && (flDict.count() > 0)) {
-            final FLDictIterator itr = new FLDictIterator();
-            try {
-                itr.begin(flDict);
-                String key;
-                while ((key = itr.getKeyString()) != null) {
-                    valueMap.put(key, MValue.EMPTY);
-                    itr.next();
-                }
-            }
-            finally {
-                itr.free();
-            }
-        }
+        // Rather than hide each of the Fleece dictionary's keys, forget it:
+        // a mutated MDict is encoded from its valueMap alone.
+        flDict = null;
 
         valCount = 0;
         return true;
@@ -133,17 +148,18 @@ public class MDict extends MCollection implements Iterable<String> {
     }
 
     public List<String> getKeys() {
-        final List<String> keys = new ArrayList<>();
+        final List<String> keys = new ArrayList<>((int) valCount);
         for (Map.Entry<String, MValue> entry : valueMap.entrySet()) {
             if (!entry.getValue().isEmpty()) { keys.add(entry.getKey()); }
         }
 
         if ((flDict != null) && (flDict.count() > 0)) {
+            final SharedKeys sharedKeys = getSharedKeys();
             final FLDictIterator itr = new FLDictIterator();
             try {
                 itr.begin(flDict);
                 String key;
-                while ((key = itr.getKeyString()) != null) {
+                while ((key = itr.getKeyString(sharedKeys)) != null) {
                     if (!valueMap.containsKey(key)) { keys.add(key); }
                     itr.next();
                 }
@@ -156,6 +172,21 @@ public class MDict extends MCollection implements Iterable<String> {
         return keys;
     }
 
+    /**
+     * If this dictionary's content is still exactly its Fleece dictionary,
+     * convert the whole thing to Java objects in a single native call.
+     *
+     * @return the content as Maps, Lists and primitives, or null if this dictionary has been changed.
+     */
+    @Nullable
+    public Map<String, Object> decodeUnchanged() {
+        if ((flDict == null) || isMutated()) { return null; }
+        for (MValue value: valueMap.values()) {
+            if (value.isMutated()) { return null; }
+        }
+        return flDict.asDict(getSharedKeys());
+    }
+
     public boolean remove(String key) { return set(key, MValue.EMPTY); }
 
     @NonNull
@@ -166,7 +197,20 @@ public class MDict extends MCollection implements Iterable<String> {
         if (v != null) { return v; }
 
         final FLValue value = flDict != null ? flDict.get(key) : null;
-        return (value == null) ? MValue.EMPTY : setInMap(key, new MValue(value));
+        return (value == null) ? MValue.EMPTY : cacheValue(key, new MValue(value));
+    }
+
+    // Look up a key whose UTF-8 encoding the caller already has.
+    @NonNull
+    public MValue get(String key, byte[] keyBytes) {
+        Preconditions.assertNotNull(key, "key");
+        Preconditions.assertNotNull(keyBytes, "key bytes");
+
+        final MValue v = valueMap.get(key);
+        if (v != null) { return v; }
+
+        final FLValue value = flDict != null ? flDict.get(keyBytes) : null;
+        return (value == null) ? MValue.EMPTY : cacheValue(key, new MValue(value));
     }
 
     public boolean set(String key, MValue value) {
@@ -179,7 +223,7 @@ public class MDict extends MCollection implements Iterable<String> {
             if (value.isEmpty() && oValue.isEmpty()) { return true; }
             mutate();
             valCount += (value.isEmpty() ? 0 : 1) - (oValue.isEmpty() ? 0 : 1);
-            valueMap.put(key, value);
+            ownValueMap().put(key, value);
         }
         else {
             // Not found; check flDict:
@@ -192,7 +236,7 @@ public class MDict extends MCollection implements Iterable<String> {
             }
 
             mutate();
-            setInMap(key, value);
+            ownValueMap().put(key, value);
         }
         return true;
     }
@@ -206,6 +250,8 @@ public class MDict extends MCollection implements Iterable<String> {
         super.initInSlot(mv, parent, isMutable);
         if (flDict != null) { throw new IllegalStateException("flDict is not null"); }
 
+        if (!isMutable) { valueMap = new ConcurrentHashMap<>(); }
+
         final FLValue value = mv.getValue();
         if (value != null) {
             flDict = value.asFLDict();
@@ -221,9 +267,23 @@ public class MDict extends MCollection implements Iterable<String> {
     // Private (in class only)
     //---------------------------------------------
 
-    private MValue setInMap(String key, MValue value) {
-        newKey.add(key);
-        valueMap.put(key, value);
-        return value;
+    // Get a valueMap that this MDict can change: if it is shared, copy it.
+    private Map<String, MValue> ownValueMap() {
+        if (valueMapShared) {
+            valueMap = new HashMap<>(valueMap);
+            valueMapShared = false;
+        }
+        return valueMap;
+    }
+
+    // If another thread has already cached a value for the key, use that one.
+    private MValue cacheValue(String key, MValue value) {
+        if (!(valueMap instanceof ConcurrentMap)) {
+            ownValueMap().put(key, value);
+            return value;
+        }
+
+        final MValue curValue = ((ConcurrentMap<String, MValue>) valueMap).putIfAbsent(key, value);
+        return (curValue != null) ? curValue : value;
     }
 }
@@ -71,10 +71,13 @@ public class MValue implements Encodable {
     // Instance members
     //-------------------------------------------------------------------------
 
+    // An MValue that belongs to an immutable collection may be read from several threads.
+    // The Fleece value is final and the cached native object is volatile so that it is safely published.
     @Nullable
-    private FLValue value;
+    private final FLValue value;
     @Nullable
-    private Object nativeObject;
+    private volatile Object nativeObject;
+    private boolean mutated;
 
     //-------------------------------------------------------------------------
     // Constructors
@@ -95,31 +98,35 @@ public class MValue implements Encodable {
 
     public boolean isEmpty() { return false; }
 
-    public boolean isMutated() { return value == null; }
+    public boolean isMutated() { return mutated || (value == null); }
 
     @Nullable
-    public FLValue getValue() { return value; }
+    public FLValue getValue() { return (mutated) ? null : value; }
 
     public void mutate() {
         Preconditions.assertNotNull(nativeObject, "Native object");
-        value = null;
+        mutated = true;
     }
 
+    // Two threads reading an immutable collection may race to convert the same value.
+    // Both get an equivalent, immutable object: the last one to finish is cached.
     @Nullable
     public Object asNative(@Nullable MCollection parent) {
-        if ((nativeObject != null) || (value == null)) { return nativeObject; }
+        final Object obj = nativeObject;
+        if ((obj != null) || isMutated()) { return obj; }
 
         final AtomicBoolean cacheIt = new AtomicBoolean(false);
-        final Object obj = toNative(this, parent, cacheIt);
-        if (cacheIt.get()) { nativeObject = obj; }
-        return obj;
+        final Object newObj = toNative(this, parent, cacheIt);
+        if (cacheIt.get()) { nativeObject = newObj; }
+        return newObj;
     }
 
     @Override
     public void encodeTo(@NonNull FLEncoder enc) {
         if (isEmpty()) { throw new IllegalStateException("MValue is empty."); }
 
-        if (value != null) { enc.writeValue(value); }
+        final FLValue val = getValue();
+        if (val != null) { enc.writeValue(val); }
         else { encodeNative(enc, nativeObject); }
     }
 
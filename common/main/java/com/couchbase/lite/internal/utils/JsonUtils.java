@@ -15,6 +15,9 @@
 //
 package com.couchbase.lite.internal.utils;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -27,6 +30,38 @@ import org.json.JSONObject;
 
 
 public final class JsonUtils {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Serialize a tree of Maps, Lists and JSON primitives directly to a JSON string.
+     * This produces the same JSON as toJson(map).toString(), without building the intermediate
+     * JSONObject tree and without escaping each string twice.
+     *
+     * @param map the root of the tree
+     * @return the JSON string
+     * @throws JSONException if the tree contains a number that cannot be represented in JSON
+     */
+    @NonNull
+    public static String toJsonString(@NonNull Map<String, Object> map) throws JSONException {
+        final StringBuilder buf = new StringBuilder();
+        writeMap(buf, map);
+        return buf.toString();
+    }
+
+    /**
+     * Serialize a list of Maps, Lists and JSON primitives directly to a JSON string.
+     *
+     * @param list the root of the tree
+     * @return the JSON string
+     * @throws JSONException if the tree contains a number that cannot be represented in JSON
+     */
+    @NonNull
+    public static String toJsonString(@NonNull List<Object> list) throws JSONException {
+        final StringBuilder buf = new StringBuilder();
+        writeList(buf, list);
+        return buf.toString();
+    }
+
     @SuppressWarnings("unchecked")
     public static JSONObject toJson(Map<String, Object> map) throws JSONException {
         if (map == null) { return null; }
@@ -80,4 +115,98 @@ public final class JsonUtils {
     }
 
     private JsonUtils() { }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(@NonNull StringBuilder buf, @Nullable Object value) throws JSONException {
+        if ((value == null) || (value == JSONObject.NULL)) { buf.append("null"); }
+        else if (value instanceof String) { writeString(buf, (String) value); }
+        else if (value instanceof Boolean) { buf.append(((Boolean) value).booleanValue()); }
+        else if (value instanceof Number) { writeNumber(buf, (Number) value); }
+        else if (value instanceof Map) { writeMap(buf, (Map<String, Object>) value); }
+        else if (value instanceof List) { writeList(buf, (List<Object>) value); }
+        else { writeString(buf, value.toString()); }
+    }
+
+    private static void writeMap(@NonNull StringBuilder buf, @NonNull Map<String, Object> map)
+        throws JSONException {
+        buf.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry: map.entrySet()) {
+            if (first) { first = false; }
+            else { buf.append(','); }
+            writeString(buf, entry.getKey());
+            buf.append(':');
+            writeValue(buf, entry.getValue());
+        }
+        buf.append('}');
+    }
+
+    private static void writeList(@NonNull StringBuilder buf, @NonNull List<Object> list) throws JSONException {
+        buf.append('[');
+        boolean first = true;
+        for (Object value: list) {
+            if (first) { first = false; }
+            else { buf.append(','); }
+            writeValue(buf, value);
+        }
+        buf.append(']');
+    }
+
+    // Same rules as JSONObject.numberToString
+    private static void writeNumber(@NonNull StringBuilder buf, @NonNull Number num) throws JSONException {
+        if ((num instanceof Integer) || (num instanceof Long) || (num instanceof Short) || (num instanceof Byte)) {
+            buf.append(num.longValue());
+            return;
+        }
+
+        final double d = num.doubleValue();
+        if (Double.isNaN(d) || Double.isInfinite(d)) { throw new JSONException("Forbidden numeric value: " + num); }
+
+        final long l = num.longValue();
+        if (d == l) {
+            buf.append(l);
+            return;
+        }
+
+        buf.append(num.toString());
+    }
+
+    private static void writeString(@NonNull StringBuilder buf, @NonNull String str) {
+        buf.append('"');
+        final int n = str.length();
+        for (int i = 0; i < n; i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    buf.append('\\').append(c);
+                    break;
+                case '\b':
+                    buf.append("\\b");
+                    break;
+                case '\f':
+                    buf.append("\\f");
+                    break;
+                case '\n':
+                    buf.append("\\n");
+                    break;
+                case '\r':
+                    buf.append("\\r");
+                    break;
+                case '\t':
+                    buf.append("\\t");
+                    break;
+                default:
+                    if ((c < 0x20) || (c == '\u2028') || (c == '\u2029')) {
+                        buf.append("\\u")
+                            .append(HEX[(c >> 12) & 0xf])
+                            .append(HEX[(c >> 8) & 0xf])
+                            .append(HEX[(c >> 4) & 0xf])
+                            .append(HEX[c & 0xf]);
+                    }
+                    else { buf.append(c); }
+            }
+        }
+        buf.append('"');
+    }
 }
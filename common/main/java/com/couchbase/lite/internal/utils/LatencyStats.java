@@ -0,0 +1,113 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A thread-safe summary of a series of latencies.
+ * Percentiles are approximate: latencies are counted in buckets whose bounds are powers of 2 nanoseconds,
+ * so a percentile is reported as the upper bound of the bucket that contains it.
+ */
+public final class LatencyStats {
+    private static final int BUCKETS = 64;
+
+    @NonNull
+    private final String name;
+
+    // bucket i counts latencies in [2^i, 2^(i+1)) ns.  Bucket 0 also counts latencies of 0.
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long totalNs;
+    private long maxNs;
+
+    public LatencyStats(@NonNull String name) { this.name = Preconditions.assertNotNull(name, "name"); }
+
+    @NonNull
+    public String getName() { return name; }
+
+    /**
+     * Record a latency.  Negative latencies are recorded as 0.
+     *
+     * @param latencyNs the latency, in nanoseconds
+     */
+    public void record(long latencyNs) {
+        final long ns = Math.max(0, latencyNs);
+        final int bucket = (ns <= 0) ? 0 : (63 - Long.numberOfLeadingZeros(ns));
+        synchronized (buckets) {
+            buckets[bucket]++;
+            count++;
+            totalNs += ns;
+            if (ns > maxNs) { maxNs = ns; }
+        }
+    }
+
+    public long getCount() {
+        synchronized (buckets) { return count; }
+    }
+
+    public long getMeanNs() {
+        synchronized (buckets) { return (count <= 0) ? 0 : totalNs / count; }
+    }
+
+    public long getMaxNs() {
+        synchronized (buckets) { return maxNs; }
+    }
+
+    /**
+     * Get an approximation of a percentile of the recorded latencies.
+     *
+     * @param percentile the percentile: 0 &lt; percentile &lt;= 100
+     * @return an upper bound on the percentile, in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getPercentileNs(double percentile) {
+        Preconditions.assertThat(percentile, "percentile must be > 0 and <= 100", p -> (p > 0) && (p <= 100));
+        synchronized (buckets) {
+            if (count <= 0) { return 0; }
+            final long rank = (long) Math.ceil((percentile / 100.0) * count);
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                n += buckets[i];
+                if (n >= rank) { return Math.min(maxNs, (i >= 62) ? Long.MAX_VALUE : (2L << i) - 1); }
+            }
+            return maxNs;
+        }
+    }
+
+    public void reset() {
+        synchronized (buckets) {
+            for (int i = 0; i < BUCKETS; i++) { buckets[i] = 0; }
+            count = 0;
+            totalNs = 0;
+            maxNs = 0;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return name + "{n=" + getCount()
+            + ", mean=" + toMs(getMeanNs()) + "ms"
+            + ", p50=" + toMs(getPercentileNs(50)) + "ms"
+            + ", p99=" + toMs(getPercentileNs(99)) + "ms"
+            + ", max=" + toMs(getMaxNs()) + "ms}";
+    }
+
+    private static long toMs(long ns) { return TimeUnit.NANOSECONDS.toMillis(ns); }
+}
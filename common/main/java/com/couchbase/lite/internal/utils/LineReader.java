@@ -0,0 +1,102 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+
+/**
+ * Reads newline delimited lines, as raw bytes, from an input stream.
+ * Unlike a BufferedReader, it does not decode the bytes into characters.
+ * Lines are terminated by '\n': a trailing '\r' is removed.
+ * Memory use is bounded by the length of the longest line, which must not exceed maxLineLength.
+ */
+public final class LineReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @NonNull
+    private final InputStream in;
+    private final int maxLineLength;
+
+    @NonNull
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+
+    @NonNull
+    private byte[] line = new byte[1024];
+
+    private long lineNumber;
+
+    public LineReader(@NonNull InputStream in, int maxLineLength) {
+        this.in = Preconditions.assertNotNull(in, "input stream");
+        this.maxLineLength = (int) Preconditions.assertPositive(maxLineLength, "max line length");
+    }
+
+    /**
+     * The number of the most recently read line: the first line is line 1.
+     */
+    public long getLineNumber() { return lineNumber; }
+
+    /**
+     * Read the next line.
+     *
+     * @return the line, without its terminator, or null at the end of the stream.
+     * @throws IOException on a read error, or if the line is longer than the maximum length.
+     */
+    @Nullable
+    public byte[] readLine() throws IOException {
+        int len = 0;
+        while (true) {
+            if (pos >= limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (len <= 0) { return null; }
+                    break;
+                }
+            }
+
+            int end = pos;
+            while ((end < limit) && (buf[end] != '\n')) { end++; }
+
+            final int n = end - pos;
+            if (len + n > maxLineLength) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than " + maxLineLength + " bytes");
+            }
+            if (len + n > line.length) { line = Arrays.copyOf(line, Math.min(maxLineLength, 2 * (len + n))); }
+            System.arraycopy(buf, pos, line, len, n);
+            len += n;
+
+            pos = end;
+            if (pos < limit) {
+                pos++;
+                break;
+            }
+        }
+
+        lineNumber++;
+
+        if ((len > 0) && (line[len - 1] == '\r')) { len--; }
+        return Arrays.copyOf(line, len);
+    }
+}
@@ -1952,4 +1952,46 @@ public class ArrayTest extends BaseDbTest {
         assertArrayEquals(BLOB_CONTENT.getBytes(StandardCharsets.UTF_8), contents);
         assertEquals(BLOB_CONTENT, new String(contents));
     }
+
+    // Mutable copies share their unchanged content: a change to one must never be visible in the other.
+    @Test
+    public void testMutableCopiesAreIndependent() throws CouchbaseLiteException {
+        final MutableArray content = new MutableArray();
+        for (int i = 0; i < 100; i++) { content.addInt(i); }
+        final MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setArray("array", content);
+        final Document doc = saveDocInBaseTestDb(mDoc);
+
+        final MutableDocument mDoc1 = doc.toMutable();
+        final MutableArray array1 = mDoc1.getArray("array");
+        assertNotNull(array1);
+        array1.setInt(0, -1);
+
+        final MutableArray array2 = array1.toMutable();
+        final MutableArray array3 = array2.toMutable();
+        array2.setInt(1, -2);
+        array1.remove(2);
+        array3.insertInt(0, -3);
+
+        assertEquals(99, array1.count());
+        assertEquals(-1, array1.getInt(0));
+        assertEquals(1, array1.getInt(1));
+        assertEquals(3, array1.getInt(2));
+
+        assertEquals(100, array2.count());
+        assertEquals(-1, array2.getInt(0));
+        assertEquals(-2, array2.getInt(1));
+        assertEquals(2, array2.getInt(2));
+
+        assertEquals(101, array3.count());
+        assertEquals(-3, array3.getInt(0));
+        assertEquals(-1, array3.getInt(1));
+        assertEquals(1, array3.getInt(2));
+
+        final Array saved = saveDocInBaseTestDb(mDoc1).getArray("array");
+        assertNotNull(saved);
+        assertEquals(99, saved.count());
+        assertEquals(-1, saved.getInt(0));
+        assertEquals(3, saved.getInt(2));
+    }
 }
@@ -22,15 +22,22 @@ import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
+import com.couchbase.lite.internal.fleece.JFLValue;
 import com.couchbase.lite.internal.utils.ConcurrencyUnitTest;
+import com.couchbase.lite.internal.utils.LoadIntegrationTest;
 import com.couchbase.lite.internal.utils.Report;
+import com.couchbase.lite.internal.utils.StopWatch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -187,6 +194,160 @@ public class ConcurrencyTest extends BaseDbTest {
         verifyByTagName(tag, kNDocs);
     }
 
+    @Test
+    @ConcurrencyUnitTest
+    public void testConcurrentReadNUpdateWithConcurrentReads() throws InterruptedException, CouchbaseLiteException {
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setConcurrentReadsEnabled(true));
+
+        final int kNDocs = 5;
+        final int kNRounds = 50;
+
+        // createDocs2 returns synchronized List.
+        final List<String> docIDs = createDocs(kNDocs, "Create");
+        assertEquals(kNDocs, docIDs.size());
+
+        // Read:
+        final CountDownLatch latch1 = new CountDownLatch(1);
+        runSafelyInThread(latch1, () -> readDocs(docIDs, kNRounds));
+
+        // Update:
+        final CountDownLatch latch2 = new CountDownLatch(1);
+        final String tag = "Update";
+        runSafelyInThread(latch2, () -> assertTrue(updateDocs(docIDs, kNRounds, tag)));
+
+        assertTrue(latch1.await(180, TimeUnit.SECONDS));
+        assertTrue(latch2.await(180, TimeUnit.SECONDS));
+        checkForFailure();
+
+        verifyByTagName(tag, kNDocs);
+    }
+
+    // A snapshot of a document that has since been purged is in conflict.
+    @Test
+    public void testSaveSnapshotOfPurgedDocWithConcurrentReads() throws CouchbaseLiteException {
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setConcurrentReadsEnabled(true));
+
+        final String docID = createDocs(1, "Create").get(0);
+        final Document doc = baseTestDb.getDocument(docID);
+        assertNotNull(doc);
+
+        baseTestDb.purge(docID);
+
+        final MutableDocument mDoc = doc.toMutable().setString("tag", "Update");
+        assertFalse(baseTestDb.save(mDoc, ConcurrencyControl.FAIL_ON_CONFLICT));
+        assertNull(baseTestDb.getDocument(docID));
+    }
+
+    // A snapshot must stay readable after its database, and so its read connection, is closed.
+    @Test
+    public void testReadSnapshotAfterCloseWithConcurrentReads() throws CouchbaseLiteException {
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setConcurrentReadsEnabled(true));
+
+        final String docID = createDocs(1, "Create").get(0);
+        final Document doc = baseTestDb.getDocument(docID);
+        assertNotNull(doc);
+
+        baseTestDb.close();
+
+        assertEquals("Create", doc.getString("tag"));
+        final Dictionary address = doc.getDictionary("address");
+        assertNotNull(address);
+        assertEquals("Mountain View", address.getString("city"));
+    }
+
+    // Keys written through another connection are unknown to this database's writer connection:
+    // a snapshot must resolve them with the shared keys of the read-only connection that read it.
+    @Test
+    public void testJavaDecoderReadsSnapshotWithNewKeys() throws CouchbaseLiteException {
+        final int kNKeys = 10;
+
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setConcurrentReadsEnabled(true));
+        createDocs(1, "Create");
+
+        final Database otherDb = duplicateDb(baseTestDb);
+        try {
+            final MutableDocument mDoc = new MutableDocument("doc-with-new-keys");
+            for (int i = 0; i < kNKeys; i++) { mDoc.setString("other-key-" + i, "value-" + i); }
+            otherDb.save(mDoc);
+        }
+        finally {
+            otherDb.close();
+        }
+
+        final Document doc;
+        JFLValue.setEnabled(true);
+        try { doc = baseTestDb.getDocument("doc-with-new-keys"); }
+        finally { JFLValue.setEnabled(false); }
+        assertNotNull(doc);
+        assertTrue(doc.getC4doc().isSnapshot());
+
+        for (int i = 0; i < kNKeys; i++) {
+            assertTrue(doc.contains("other-key-" + i));
+            assertEquals("value-" + i, doc.getString("other-key-" + i));
+        }
+        assertFalse(doc.contains("other-key-" + kNKeys));
+    }
+
+    // Immutable documents must be readable while another thread holds the database lock.
+    @Test
+    @ConcurrencyUnitTest
+    public void testReadImmutableDocumentWhileDbLocked() throws InterruptedException, CouchbaseLiteException {
+        final int kNReaders = 4;
+        final int kNRounds = 100;
+
+        final List<String> docIDs = createDocs(1, "Create");
+        final Document doc = baseTestDb.getDocument(docIDs.get(0));
+        assertNotNull(doc);
+
+        final CountDownLatch readersDone = new CountDownLatch(kNReaders);
+        final CountDownLatch writer = new CountDownLatch(1);
+        runSafelyInThread(
+            writer,
+            () -> {
+                synchronized (baseTestDb.getLock()) {
+                    try { assertTrue(readersDone.await(60, TimeUnit.SECONDS)); }
+                    catch (InterruptedException e) { fail(); }
+                }
+            });
+
+        for (int i = 0; i < kNReaders; i++) {
+            runSafelyInThread(
+                readersDone,
+                () -> {
+                    for (int n = 0; n < kNRounds; n++) {
+                        assertEquals("Create", doc.getString("tag"));
+                        final Dictionary address = doc.getDictionary("address");
+                        assertNotNull(address);
+                        assertEquals("Mountain View", address.getString("city"));
+                        final Array phones = doc.getArray("phones");
+                        assertNotNull(phones);
+                        assertEquals(2, phones.count());
+                        assertEquals("650-123-0002", phones.getString(1));
+                    }
+                });
+        }
+
+        assertTrue(writer.await(60, TimeUnit.SECONDS));
+        checkForFailure();
+    }
+
+    // Reports read throughput while a writer is active,
+    // first with the default configuration and then with concurrent reads enabled.
+    @Test
+    @LoadIntegrationTest
+    public void testReadThroughputWhileWriting() throws InterruptedException, CouchbaseLiteException {
+        final double defaultRate = measureReadsWhileWriting();
+
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setConcurrentReadsEnabled(true));
+        final double concurrentRate = measureReadsWhileWriting();
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: reads while writing: %.1f/sec (default), %.1f/sec (concurrent reads)",
+            defaultRate,
+            concurrentRate);
+    }
+
     @Test
     @ConcurrencyUnitTest
     public void testConcurrentDelete() throws InterruptedException, CouchbaseLiteException {
@@ -534,6 +695,60 @@ public class ConcurrencyTest extends BaseDbTest {
         return true;
     }
 
+    // Returns the number of documents read per second, by several threads, during a single long batch update
+    private double measureReadsWhileWriting() throws InterruptedException, CouchbaseLiteException {
+        final int kNDocs = 5;
+        final int kNRounds = 200;
+        final int kNReaders = 4;
+
+        final List<String> docIDs = createDocs(kNDocs, "Create");
+        assertEquals(kNDocs, docIDs.size());
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        final CountDownLatch batchStarted = new CountDownLatch(1);
+
+        final StopWatch timer = new StopWatch();
+        final CountDownLatch writer = new CountDownLatch(1);
+        runSafelyInThread(
+            writer,
+            () -> {
+                try {
+                    baseTestDb.inBatch(() -> {
+                        batchStarted.countDown();
+                        assertTrue(updateDocs(docIDs, kNRounds, "Update"));
+                    });
+                }
+                catch (CouchbaseLiteException e) { fail(); }
+                finally {
+                    timer.stop();
+                    writing.set(false);
+                }
+            });
+        assertTrue(batchStarted.await(10, TimeUnit.SECONDS));
+
+        final CountDownLatch[] readers = new CountDownLatch[kNReaders];
+        for (int i = 0; i < kNReaders; i++) {
+            readers[i] = new CountDownLatch(1);
+            runSafelyInThread(
+                readers[i],
+                () -> {
+                    while (writing.get()) {
+                        for (String docID : docIDs) {
+                            assertNotNull(baseTestDb.getDocument(docID));
+                            reads.incrementAndGet();
+                        }
+                    }
+                });
+        }
+
+        assertTrue(writer.await(180, TimeUnit.SECONDS));
+        for (CountDownLatch reader : readers) { assertTrue(reader.await(180, TimeUnit.SECONDS)); }
+        checkForFailure();
+
+        return reads.get() / timer.getElapsedTimeSecs();
+    }
+
     private void readDocs(List<String> docIDs, int rounds) {
         for (int i = 1; i <= rounds; i++) {
             for (String docID : docIDs) {
@@ -15,6 +15,7 @@
 //
 package com.couchbase.lite;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -38,6 +39,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -238,6 +240,177 @@ public class DatabaseTest extends BaseDbTest {
         verifyDocuments(nDocs);
     }
 
+    @Test
+    public void testSaveAll() throws CouchbaseLiteException {
+        final int nDocs = 10;
+
+        final List<MutableDocument> docs = new ArrayList<>();
+        for (int i = 0; i < nDocs; i++) {
+            MutableDocument doc = new MutableDocument(String.format(Locale.US, "doc_%03d", i));
+            doc.setValue("key", i);
+            docs.add(doc);
+        }
+
+        assertTrue(baseTestDb.saveAll(docs, ConcurrencyControl.LAST_WRITE_WINS).isEmpty());
+        assertEquals(nDocs, baseTestDb.getCount());
+        verifyDocuments(nDocs);
+        for (MutableDocument doc: docs) { assertNotNull(doc.getRevisionID()); }
+    }
+
+    @Test
+    public void testSaveAllInChunks() throws CouchbaseLiteException {
+        final int nDocs = 25;
+
+        final List<MutableDocument> docs = new ArrayList<>();
+        for (int i = 0; i < nDocs; i++) {
+            MutableDocument doc = new MutableDocument(String.format(Locale.US, "doc_%03d", i));
+            doc.setValue("key", i);
+            docs.add(doc);
+        }
+
+        assertTrue(baseTestDb.saveAll(docs, ConcurrencyControl.LAST_WRITE_WINS, 10).isEmpty());
+        assertEquals(nDocs, baseTestDb.getCount());
+        verifyDocuments(nDocs);
+    }
+
+    @Test
+    public void testSaveAllWithConflict() throws CouchbaseLiteException {
+        createDocsInBaseTestDb(3);
+
+        final MutableDocument doc1a = baseTestDb.getDocument("doc_001").toMutable();
+        final MutableDocument doc1b = baseTestDb.getDocument("doc_001").toMutable();
+        doc1a.setValue("key", 11);
+        baseTestDb.save(doc1a);
+
+        final MutableDocument doc0 = baseTestDb.getDocument("doc_000").toMutable();
+        doc0.setValue("key", 10);
+        doc1b.setValue("key", 21);
+        final MutableDocument doc3 = new MutableDocument("doc_003");
+        doc3.setValue("key", 3);
+
+        // A failed item aborts only a nested transaction: the decoded shared keys are still valid.
+        final String[] keyStrings = baseTestDb.getSharedKeys().getKeyStrings();
+
+        final Map<String, CouchbaseLiteException> failures
+            = baseTestDb.saveAll(Arrays.asList(doc0, doc1b, doc3), ConcurrencyControl.FAIL_ON_CONFLICT);
+
+        assertSame(keyStrings, baseTestDb.getSharedKeys().getKeyStrings());
+
+        assertEquals(1, failures.size());
+        final CouchbaseLiteException err = failures.get("doc_001");
+        assertNotNull(err);
+        assertEquals(CBLError.Code.CONFLICT, err.getCode());
+
+        assertEquals(4, baseTestDb.getCount());
+        verifyGetDocument("doc_000", 10);
+        verifyGetDocument("doc_001", 11);
+        verifyGetDocument("doc_003", 3);
+    }
+
+    // Items are checked before any chunk is committed: a bad item in a late chunk leaves the database unchanged.
+    @Test
+    public void testSaveAllWithNullDocument() throws CouchbaseLiteException {
+        final List<MutableDocument> docs = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            MutableDocument doc = new MutableDocument(String.format(Locale.US, "doc_%03d", i));
+            doc.setValue("key", i);
+            docs.add(doc);
+        }
+        docs.set(20, null);
+
+        try {
+            baseTestDb.saveAll(docs, ConcurrencyControl.LAST_WRITE_WINS, 10);
+            fail("saveAll should not accept a null document");
+        }
+        catch (IllegalArgumentException ignore) { }
+
+        assertEquals(0, baseTestDb.getCount());
+    }
+
+    // A failed document does not roll back the rest of its chunk.
+    @Test
+    public void testSaveAllFailureCommitsChunk() throws CouchbaseLiteException {
+        createDocsInBaseTestDb(1);
+
+        final MutableDocument stale = baseTestDb.getDocument("doc_000").toMutable();
+        final MutableDocument current = baseTestDb.getDocument("doc_000").toMutable();
+        current.setValue("key", 10);
+        baseTestDb.save(current);
+
+        final List<MutableDocument> docs = new ArrayList<>();
+        for (int i = 1; i < 5; i++) {
+            MutableDocument doc = new MutableDocument(String.format(Locale.US, "doc_%03d", i));
+            doc.setValue("key", i);
+            docs.add(doc);
+        }
+        stale.setValue("key", 20);
+        docs.add(2, stale);
+
+        final Map<String, CouchbaseLiteException> failures
+            = baseTestDb.saveAll(docs, ConcurrencyControl.FAIL_ON_CONFLICT);
+
+        assertEquals(1, failures.size());
+        assertNotNull(failures.get("doc_000"));
+        assertEquals(5, baseTestDb.getCount());
+        verifyGetDocument("doc_000", 10);
+        for (int i = 1; i < 5; i++) { verifyGetDocument(String.format(Locale.US, "doc_%03d", i), i); }
+    }
+
+    // Several failures for the same ID are reported once: the first is kept.
+    @Test
+    public void testSaveAllWithDuplicateIds() throws CouchbaseLiteException {
+        final MutableDocument doc1 = new MutableDocument("doc_000");
+        doc1.setValue("key", 1);
+        final MutableDocument doc2 = new MutableDocument("doc_000");
+        doc2.setValue("key", 2);
+        final MutableDocument doc3 = new MutableDocument("doc_000");
+        doc3.setValue("key", 3);
+
+        final Map<String, CouchbaseLiteException> failures
+            = baseTestDb.saveAll(Arrays.asList(doc1, doc2, doc3), ConcurrencyControl.FAIL_ON_CONFLICT);
+
+        assertEquals(1, failures.size());
+        final CouchbaseLiteException err = failures.get("doc_000");
+        assertNotNull(err);
+        assertEquals(CBLError.Code.CONFLICT, err.getCode());
+        assertEquals(1, baseTestDb.getCount());
+        verifyGetDocument("doc_000", 1);
+    }
+
+    @Test
+    public void testImportJSON() throws CouchbaseLiteException, IOException {
+        final String ndjson = "{\"_id\":\"doc_000\",\"key\":0}\n"
+            + "\n"
+            + "{\"_id\":\"doc_001\",\"key\":1,\"nested\":{\"a\":[1,2,3]}}\r\n"
+            + "{\"key\":2}";
+
+        assertEquals(
+            3,
+            baseTestDb.importJSON(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "_id", 2));
+        assertEquals(3, baseTestDb.getCount());
+
+        verifyGetDocument("doc_000", 0);
+        verifyGetDocument("doc_001", 1);
+        final Document doc = baseTestDb.getDocument("doc_001");
+        assertEquals(3, doc.getDictionary("nested").getArray("a").getInt(2));
+    }
+
+    @Test
+    public void testImportJSONWithDuplicateId() throws CouchbaseLiteException, IOException {
+        createDocsInBaseTestDb(1);
+
+        final String ndjson = "{\"_id\":\"doc_100\",\"key\":100}\n{\"_id\":\"doc_000\",\"key\":7}\n";
+        try {
+            baseTestDb.importJSON(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "_id", 0);
+            fail("Import of an existing document should fail");
+        }
+        catch (CouchbaseLiteException ignore) { }
+
+        // the whole import was a single transaction, so nothing was imported
+        assertEquals(1, baseTestDb.getCount());
+        verifyGetDocument("doc_000", 0);
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testSaveDocToClosedDB() throws CouchbaseLiteException {
         baseTestDb.close();
@@ -279,6 +452,27 @@ public class DatabaseTest extends BaseDbTest {
         assertNull(baseTestDb.getDocument(docID));
     }
 
+    @Test
+    public void testDeleteAll() throws CouchbaseLiteException {
+        createDocsInBaseTestDb(10);
+
+        final List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) { docs.add(baseTestDb.getDocument(String.format(Locale.US, "doc_%03d", i))); }
+        docs.add(new MutableDocument("doc_999"));
+
+        final Map<String, CouchbaseLiteException> failures
+            = baseTestDb.deleteAll(docs, ConcurrencyControl.LAST_WRITE_WINS, 2);
+
+        assertEquals(1, failures.size());
+        final CouchbaseLiteException err = failures.get("doc_999");
+        assertNotNull(err);
+        assertEquals(CBLError.Code.NOT_FOUND, err.getCode());
+
+        assertEquals(5, baseTestDb.getCount());
+        for (int i = 0; i < 5; i++) { assertNull(baseTestDb.getDocument(String.format(Locale.US, "doc_%03d", i))); }
+        for (int i = 5; i < 10; i++) { verifyGetDocument(String.format(Locale.US, "doc_%03d", i), i); }
+    }
+
     @Test
     public void testDeleteDocInDifferentDBInstance() throws CouchbaseLiteException {
         // Store doc:
@@ -390,6 +584,16 @@ public class DatabaseTest extends BaseDbTest {
         assertEquals(0, baseTestDb.getCount());
     }
 
+    @Test
+    public void testPurgeAll() throws CouchbaseLiteException {
+        final List<String> ids = createDocsInBaseTestDb(10).subList(0, 5);
+
+        assertTrue(baseTestDb.purgeAll(ids).isEmpty());
+
+        assertEquals(5, baseTestDb.getCount());
+        for (String id: ids) { assertNull(baseTestDb.getDocument(id)); }
+    }
+
     @Test
     public void testPurgeDocInDifferentDBInstance() throws CouchbaseLiteException {
         // Store doc:
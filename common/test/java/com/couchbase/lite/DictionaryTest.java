@@ -22,6 +22,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -748,4 +750,110 @@ public class DictionaryTest extends BaseDbTest {
         assertEquals("hello", array.getString(0));
         assertEquals("world", array.getString(1));
     }
+
+    // Mutable copies share their unchanged content: a change to one must never be visible in the other.
+    @Test
+    public void testMutableCopiesAreIndependent() throws CouchbaseLiteException {
+        final MutableDictionary content = new MutableDictionary();
+        for (int i = 0; i < 500; i++) { content.setInt("key" + i, i); }
+        final MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setDictionary("dict", content);
+        final Document doc = saveDocInBaseTestDb(mDoc);
+
+        final MutableDocument mDoc1 = doc.toMutable();
+        final MutableDictionary dict1 = mDoc1.getDictionary("dict");
+        assertNotNull(dict1);
+        dict1.setInt("key0", -1);
+
+        final MutableDictionary dict2 = dict1.toMutable();
+        final MutableDictionary dict3 = dict2.toMutable();
+        dict2.setInt("key1", -2);
+        dict1.remove("key2");
+        final Map<String, Object> data = new HashMap<>();
+        data.put("key3", -3);
+        dict3.setData(data);
+
+        assertEquals(-1, dict1.getInt("key0"));
+        assertEquals(1, dict1.getInt("key1"));
+        assertFalse(dict1.contains("key2"));
+        assertEquals(499, dict1.count());
+
+        assertEquals(-1, dict2.getInt("key0"));
+        assertEquals(-2, dict2.getInt("key1"));
+        assertEquals(2, dict2.getInt("key2"));
+        assertEquals(3, dict2.getInt("key3"));
+        assertEquals(500, dict2.count());
+
+        assertEquals(1, dict3.count());
+        assertEquals(-3, dict3.getInt("key3"));
+        assertFalse(dict3.contains("key0"));
+
+        final Dictionary saved = saveDocInBaseTestDb(mDoc1).getDictionary("dict");
+        assertNotNull(saved);
+        assertEquals(499, saved.count());
+        assertEquals(-1, saved.getInt("key0"));
+        assertFalse(saved.contains("key2"));
+        assertEquals(499, saved.getKeys().size());
+    }
+
+    // A dictionary that is not in a database has its own lock: copying it, on one thread,
+    // must not interfere with changing it, on another.
+    @Test
+    public void testCopyUnsavedDictionaryWhileChanging() throws InterruptedException {
+        final MutableDictionary dict = new MutableDictionary();
+        for (int i = 0; i < 100; i++) { dict.setInt("key" + i, i); }
+
+        final List<Throwable> failures = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(() -> {
+            try {
+                for (int i = 0; i < 10000; i++) { dict.setInt("key" + (i % 200), -i); }
+            }
+            catch (Throwable t) {
+                synchronized (failures) { failures.add(t); }
+            }
+            latch.countDown();
+        }).start();
+
+        for (int i = 0; i < 1000; i++) {
+            final MutableDictionary copy = dict.toMutable();
+            final int count = (int) copy.count();
+            assertTrue("bad count: " + count, (count >= 100) && (count <= 200));
+            assertEquals(count, copy.getKeys().size());
+            copy.setInt("copy", i);
+            assertFalse(dict.contains("copy"));
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(200, dict.count());
+    }
+
+    // Replacing the data of a saved dictionary clears it: all of its saved keys are hidden.
+    @Test
+    public void testClearSavedDictionary() throws CouchbaseLiteException {
+        final MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setDictionary("dict", new MutableDictionary().setString("a", "A").setString("b", "B"));
+        final Document doc = saveDocInBaseTestDb(mDoc);
+
+        final MutableDocument mDoc1 = doc.toMutable();
+        final MutableDictionary dict = mDoc1.getDictionary("dict");
+        assertNotNull(dict);
+        dict.setData(new HashMap<>());
+        assertEquals(0, dict.count());
+        assertFalse(dict.contains("a"));
+        assertNull(dict.getString("b"));
+        assertTrue(dict.getKeys().isEmpty());
+
+        dict.setString("c", "C");
+        dict.setString("a", "A2");
+        assertEquals(2, dict.count());
+
+        final Dictionary saved = saveDocInBaseTestDb(mDoc1).getDictionary("dict");
+        assertNotNull(saved);
+        assertEquals(2, saved.count());
+        assertEquals("A2", saved.getString("a"));
+        assertEquals("C", saved.getString("c"));
+        assertFalse(saved.contains("b"));
+    }
 }
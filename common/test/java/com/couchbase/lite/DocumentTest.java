@@ -33,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.couchbase.lite.internal.fleece.JFLValue;
 import com.couchbase.lite.internal.utils.DateUtils;
 import com.couchbase.lite.internal.utils.StringUtils;
 import com.couchbase.lite.internal.utils.TestUtils;
@@ -44,7 +45,9 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 public class DocumentTest extends BaseDbTest {
@@ -2520,4 +2523,242 @@ public class DocumentTest extends BaseDbTest {
         assertEquals(docRevID, doc.getRevisionID());
         assertNotEquals(docRevID, mdoc.getRevisionID());
     }
+
+    @Test
+    public void testDictionaryKey() throws CouchbaseLiteException {
+        final DictionaryKey typeKey = new DictionaryKey("type");
+        final DictionaryKey countKey = new DictionaryKey("count");
+        final DictionaryKey addressKey = new DictionaryKey("address");
+        final DictionaryKey cityKey = new DictionaryKey("city");
+        final DictionaryKey missingKey = new DictionaryKey("missing");
+
+        for (int i = 0; i < 10; i++) {
+            final MutableDocument mDoc = new MutableDocument("doc" + i);
+            mDoc.setString("type", "type" + i);
+            mDoc.setInt("count", i);
+            mDoc.setDictionary("address", new MutableDictionary().setString("city", "city" + i));
+            saveDocInBaseTestDb(mDoc);
+        }
+
+        // the same keys work with many documents
+        for (int i = 0; i < 10; i++) {
+            final Document doc = baseTestDb.getDocument("doc" + i);
+            assertEquals("type" + i, doc.getString(typeKey));
+            assertEquals(i, doc.getInt(countKey));
+            assertEquals(doc.getValue("count"), doc.getValue(countKey));
+            assertTrue(doc.contains(typeKey));
+            assertFalse(doc.contains(missingKey));
+            assertNull(doc.getString(missingKey));
+            assertNull(doc.getString(countKey));
+
+            final Dictionary address = doc.getDictionary(addressKey);
+            assertNotNull(address);
+            assertEquals("city" + i, address.getString(cityKey));
+        }
+
+        // a mutated document sees its changes
+        final MutableDocument mDoc = baseTestDb.getDocument("doc1").toMutable();
+        mDoc.setString("type", "changed");
+        mDoc.remove("count");
+        assertEquals("changed", mDoc.getString(typeKey));
+        assertFalse(mDoc.contains(countKey));
+        assertNotNull(mDoc.getDictionary(addressKey));
+        mDoc.getDictionary(addressKey).setString("city", "elsewhere");
+        assertEquals("elsewhere", mDoc.getDictionary(addressKey).getString(cityKey));
+    }
+
+    // Two databases give the same key different shared-key IDs: one DictionaryKey must work in both.
+    @Test
+    public void testDictionaryKeyInTwoDatabases() throws CouchbaseLiteException {
+        final DictionaryKey targetKey = new DictionaryKey("target");
+
+        final MutableDocument mDoc1 = new MutableDocument("doc1");
+        mDoc1.setString("first", "first");
+        mDoc1.setString("second", "second");
+        saveDocInBaseTestDb(mDoc1);
+        final MutableDocument mDoc2 = new MutableDocument("doc2");
+        mDoc2.setString("target", "in base db");
+        saveDocInBaseTestDb(mDoc2);
+
+        final Database otherDb = createDb("other-db");
+        try {
+            final MutableDocument mDoc3 = new MutableDocument("doc3");
+            mDoc3.setString("target", "in other db");
+            otherDb.save(mDoc3);
+            final MutableDocument mDoc4 = new MutableDocument("doc4");
+            mDoc4.setString("first", "not the target");
+            otherDb.save(mDoc4);
+
+            final Document doc2 = baseTestDb.getDocument("doc2");
+            final Document doc3 = otherDb.getDocument("doc3");
+            final Document doc4 = otherDb.getDocument("doc4");
+            final Document doc1 = baseTestDb.getDocument("doc1");
+            for (int i = 0; i < 3; i++) {
+                assertEquals("in base db", doc2.getString(targetKey));
+                assertEquals("in other db", doc3.getString(targetKey));
+                assertNull(doc4.getString(targetKey));
+                assertNull(doc1.getString(targetKey));
+            }
+        }
+        finally {
+            deleteDb(otherDb);
+        }
+    }
+
+    // A DictionaryKey holds no per-lookup state: concurrent lookups through one key do not interfere.
+    @Test
+    public void testDictionaryKeyOnManyThreads() throws CouchbaseLiteException, InterruptedException {
+        final int nThreads = 4;
+        final int nDocs = 10;
+        final DictionaryKey countKey = new DictionaryKey("count");
+
+        for (int i = 0; i < nDocs; i++) {
+            final MutableDocument mDoc = new MutableDocument("doc" + i);
+            mDoc.setInt("count", i);
+            saveDocInBaseTestDb(mDoc);
+        }
+
+        final List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < nDocs; i++) { docs.add(baseTestDb.getDocument("doc" + i)); }
+
+        final List<String> failures = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        for (int t = 0; t < nThreads; t++) {
+            new Thread(() -> {
+                for (int n = 0; n < 1000; n++) {
+                    final int i = n % nDocs;
+                    final int count = docs.get(i).getInt(countKey);
+                    if (count != i) {
+                        synchronized (failures) { failures.add("doc" + i + ": " + count); }
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void testSharedKeyStringsAreReused() throws CouchbaseLiteException {
+        for (int i = 0; i < 2; i++) {
+            final MutableDocument mDoc = new MutableDocument("doc" + i);
+            mDoc.setString("firstName", "first" + i);
+            mDoc.setString("lastName", "last" + i);
+            saveDocInBaseTestDb(mDoc);
+        }
+
+        final List<String> keys0 = baseTestDb.getDocument("doc0").getKeys();
+        final List<String> keys1 = baseTestDb.getDocument("doc1").getKeys();
+        assertEquals(2, keys0.size());
+        assertEquals(keys0, keys1);
+        for (int i = 0; i < keys0.size(); i++) { assertSame(keys0.get(i), keys1.get(i)); }
+
+        // A failed batch may revert keys that it added: the cache must not remember them.
+        try {
+            baseTestDb.inBatch(() -> {
+                final MutableDocument mDoc = new MutableDocument("doc2");
+                mDoc.setString("aborted", "value");
+                try { baseTestDb.save(mDoc); }
+                catch (CouchbaseLiteException e) { throw new IllegalStateException("save failed", e); }
+                throw new IllegalStateException("abort");
+            });
+            fail("Batch should have failed");
+        }
+        catch (CouchbaseLiteException ignore) { }
+
+        final MutableDocument mDoc = new MutableDocument("doc3");
+        mDoc.setString("committed", "value");
+        saveDocInBaseTestDb(mDoc);
+        assertEquals(Arrays.asList("committed"), baseTestDb.getDocument("doc3").getKeys());
+        assertNull(baseTestDb.getDocument("doc2"));
+    }
+
+    // toMap on an unchanged document decodes it in one go: it must get the same result as a changed one.
+    @Test
+    public void testToMapDecodesUnchangedContent() throws CouchbaseLiteException {
+        final MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setString("string", "value");
+        mDoc.setLong("long", Long.MAX_VALUE);
+        mDoc.setDouble("double", 3.14159);
+        mDoc.setBoolean("boolean", true);
+        mDoc.setValue("null", null);
+        mDoc.setBlob("blob", new Blob("text/plain", BLOB_CONTENT.getBytes(StandardCharsets.UTF_8)));
+        final MutableDictionary address = new MutableDictionary();
+        address.setString("street", "1 Main street");
+        address.setArray("phones", new MutableArray().addString("650-123-0001").addInt(42));
+        mDoc.setDictionary("address", address);
+        final MutableArray items = new MutableArray();
+        items.addDictionary(new MutableDictionary().setString("name", "item1"));
+        items.addBlob(new Blob("text/plain", "item".getBytes(StandardCharsets.UTF_8)));
+        mDoc.setArray("items", items);
+        saveDocInBaseTestDb(mDoc);
+
+        final Document doc = baseTestDb.getDocument("doc1");
+        final Map<String, Object> decoded = doc.toMap();
+
+        // change the document, so that toMap must walk it
+        final MutableDocument changed = doc.toMutable();
+        changed.setString("changed", "yes");
+        final Map<String, Object> walked = changed.toMap();
+        walked.remove("changed");
+
+        assertEquals(walked, decoded);
+        assertTrue(decoded.get("blob") instanceof Blob);
+        assertEquals(BLOB_CONTENT, new String(((Blob) decoded.get("blob")).getContent(), StandardCharsets.UTF_8));
+        assertTrue(((List<?>) decoded.get("items")).get(1) instanceof Blob);
+        assertEquals(Arrays.asList("650-123-0001", 42L), ((Map<?, ?>) decoded.get("address")).get("phones"));
+
+        assertEquals(walked.get("items"), doc.getArray("items").toList());
+    }
+
+    // With the Java Fleece decoder enabled, an immutable document's scalar getters must return what they did before.
+    @Test
+    public void testJavaDecoderGetters() throws CouchbaseLiteException {
+        final MutableDocument mDoc = new MutableDocument("doc1");
+        mDoc.setString("string", "string");
+        mDoc.setString("longString", "a string that is much longer than fifteen bytes: ünïcödé");
+        mDoc.setInt("small", -7);
+        mDoc.setLong("large", Long.MAX_VALUE - 1);
+        mDoc.setFloat("float", 3.25F);
+        mDoc.setDouble("double", -2.5);
+        mDoc.setBoolean("true", true);
+        mDoc.setBoolean("false", false);
+        mDoc.setValue("null", null);
+        mDoc.setDictionary("dict", new MutableDictionary().setString("name", "value"));
+        mDoc.setArray("array", new MutableArray().addInt(1));
+        mDoc.setBlob("blob", new Blob("text/plain", BLOB_CONTENT.getBytes(StandardCharsets.UTF_8)));
+        for (int i = 0; i < 50; i++) { mDoc.setInt("key" + i, i); }
+        saveDocInBaseTestDb(mDoc);
+
+        final List<String> keys = new ArrayList<>(baseTestDb.getDocument("doc1").getKeys());
+        keys.add("missing");
+
+        final Document jni = baseTestDb.getDocument("doc1");
+        final Document java;
+        JFLValue.setEnabled(true);
+        try { java = baseTestDb.getDocument("doc1"); }
+        finally { JFLValue.setEnabled(false); }
+
+        for (String key: keys) {
+            assertEquals(key, jni.getString(key), java.getString(key));
+            assertEquals(key, jni.getNumber(key), java.getNumber(key));
+            assertEquals(key, jni.getInt(key), java.getInt(key));
+            assertEquals(key, jni.getLong(key), java.getLong(key));
+            assertEquals(key, jni.getFloat(key), java.getFloat(key), 0.0F);
+            assertEquals(key, jni.getDouble(key), java.getDouble(key), 0.0);
+            assertEquals(key, jni.getBoolean(key), java.getBoolean(key));
+            assertEquals(key, jni.contains(key), java.contains(key));
+        }
+
+        // the other getters are unaffected
+        assertEquals(jni.toMap(), java.toMap());
+        assertEquals("value", java.getDictionary("dict").getString("name"));
+
+        // a mutable copy sees its own changes
+        final MutableDocument changed = java.toMutable();
+        changed.setString("string", "changed");
+        assertEquals("changed", changed.getString("string"));
+    }
 }
@@ -15,15 +15,25 @@
 //
 package com.couchbase.lite;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import com.couchbase.lite.internal.utils.FlakyTest;
+import com.couchbase.lite.internal.utils.LatencyStats;
+import com.couchbase.lite.internal.utils.Report;
+import com.couchbase.lite.internal.utils.TestUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -180,6 +190,210 @@ public class LiveQueryTest extends BaseDbTest {
         }
     }
 
+    // A listener with a key column should receive only the rows that have changed
+    @Test
+    public void testLiveQueryDiff() throws CouchbaseLiteException, InterruptedException {
+        createDocNumbered(1);
+        createDocNumbered(2);
+
+        final AbstractQuery query = (AbstractQuery) QueryBuilder
+            .select(SelectResult.expression(Meta.id), SelectResult.property(KEY))
+            .from(DataSource.database(baseTestDb))
+            .where(Expression.property(KEY).greaterThanOrEqualTo(Expression.intValue(0)))
+            .orderBy(Ordering.property(KEY).ascending());
+
+        final BlockingQueue<QueryDiff> diffs = new LinkedBlockingQueue<>();
+        ListenerToken token = query.addChangeListener(
+            testSerialExecutor,
+            "id",
+            change -> {
+                assertNotNull(change.getResults());
+                assertEquals(change.getDiff().getInserted().size(), change.getResults().allResults().size());
+                diffs.add(change.getDiff());
+            });
+
+        try {
+            // the first diff contains all of the rows
+            QueryDiff diff = diffs.poll(10, TimeUnit.SECONDS);
+            assertNotNull(diff);
+            assertEquals("id", diff.getKeyColumn());
+            assertEquals(2, diff.getInserted().size());
+            assertEquals("doc-1", diff.getInserted().get(0).getString("id"));
+            assertEquals("doc-2", diff.getInserted().get(1).getString("id"));
+            assertTrue(diff.getChanged().isEmpty());
+            assertTrue(diff.getRemoved().isEmpty());
+
+            MutableDocument doc = baseTestDb.getDocument("doc-1").toMutable();
+            doc.setValue(KEY, 7);
+            saveDocInBaseTestDb(doc);
+
+            diff = diffs.poll(10, TimeUnit.SECONDS);
+            assertNotNull(diff);
+            assertTrue(diff.getInserted().isEmpty());
+            assertEquals(1, diff.getChanged().size());
+            assertEquals("doc-1", diff.getChanged().get(0).getString("id"));
+            assertEquals(7, diff.getChanged().get(0).getInt(KEY));
+            assertTrue(diff.getRemoved().isEmpty());
+
+            baseTestDb.delete(baseTestDb.getDocument("doc-2"));
+
+            diff = diffs.poll(10, TimeUnit.SECONDS);
+            assertNotNull(diff);
+            assertTrue(diff.getInserted().isEmpty());
+            assertTrue(diff.getChanged().isEmpty());
+            assertEquals(Collections.singletonList("doc-2"), diff.getRemoved());
+        }
+        finally {
+            query.removeChangeListener(token);
+        }
+    }
+
+    // Many live queries, refreshed concurrently, should all be notified of a change
+    @Test
+    public void testManyLiveQueries() throws CouchbaseLiteException, InterruptedException {
+        final int n = 40;
+
+        final CountDownLatch[] latches = new CountDownLatch[] {new CountDownLatch(n), new CountDownLatch(n)};
+        final List<Query> queries = new ArrayList<>();
+        final List<ListenerToken> tokens = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            final Query query = QueryBuilder
+                .select(SelectResult.expression(Meta.id))
+                .from(DataSource.database(baseTestDb))
+                .where(Expression.property(KEY).greaterThanOrEqualTo(Expression.intValue(i)));
+            queries.add(query);
+
+            // each query's listener must see its results in order: first none, then one.
+            final int[] calls = new int[1];
+            tokens.add(query.addChangeListener(
+                testSerialExecutor,
+                change -> {
+                    final int call = calls[0]++;
+                    if ((call < latches.length) && (change.getResults().allResults().size() == call)) {
+                        latches[call].countDown();
+                    }
+                }));
+        }
+
+        try {
+            // the initial, empty, results
+            assertTrue(latches[0].await(10, TimeUnit.SECONDS));
+
+            final LatencyStats latency = baseTestDb.getLiveQueryLatency();
+            latency.reset();
+
+            createDocNumbered(n);
+
+            assertTrue(latches[1].await(10, TimeUnit.SECONDS));
+            assertEquals(n, latency.getCount());
+            assertTrue(latency.getMaxNs() > 0);
+            Report.log(LogLevel.INFO, "PerformanceStats: %d live queries: %s", n, latency);
+        }
+        finally {
+            for (int i = 0; i < n; i++) { queries.get(i).removeChangeListener(tokens.get(i)); }
+        }
+    }
+
+    // With change filtering, changes to documents that the query does not select should not cause a refresh
+    @Test
+    public void testLiveQueryChangeFiltering() throws CouchbaseLiteException, InterruptedException {
+        MutableDocument doc = new MutableDocument("order-1");
+        doc.setString("type", "order");
+        saveDocInBaseTestDb(doc);
+
+        final AbstractQuery query = (AbstractQuery) QueryBuilder
+            .select(SelectResult.expression(Meta.id))
+            .from(DataSource.database(baseTestDb))
+            .where(Expression.property("type").equalTo(Expression.string("order")));
+        query.setChangeFilteringEnabled(true);
+        assertTrue(query.isChangeFilteringEnabled());
+
+        final BlockingQueue<Integer> changes = new LinkedBlockingQueue<>();
+        ListenerToken token = query.addChangeListener(
+            testSerialExecutor,
+            change -> changes.add(change.getResults().allResults().size()));
+
+        try {
+            assertEquals(Integer.valueOf(1), changes.poll(10, TimeUnit.SECONDS));
+            assertEquals(1, query.getRefreshCount());
+
+            // irrelevant
+            doc = new MutableDocument("telemetry-1");
+            doc.setString("type", "telemetry");
+            saveDocInBaseTestDb(doc);
+
+            assertNull(changes.poll(4 * LiveQuery.LIVE_QUERY_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS));
+            assertEquals(1, query.getRefreshCount());
+            assertEquals(1, query.getSkippedRefreshCount());
+
+            // a new match
+            doc = new MutableDocument("order-2");
+            doc.setString("type", "order");
+            saveDocInBaseTestDb(doc);
+            assertEquals(Integer.valueOf(2), changes.poll(10, TimeUnit.SECONDS));
+
+            // a document that no longer matches
+            doc = baseTestDb.getDocument("order-1").toMutable();
+            doc.setString("type", "telemetry");
+            saveDocInBaseTestDb(doc);
+            assertEquals(Integer.valueOf(1), changes.poll(10, TimeUnit.SECONDS));
+
+            assertEquals(3, query.getRefreshCount());
+            assertEquals(1, query.getSkippedRefreshCount());
+        }
+        finally {
+            query.removeChangeListener(token);
+        }
+    }
+
+    @Test
+    public void testLiveQueryRefreshPolicy() throws CouchbaseLiteException, InterruptedException {
+        final QueryRefreshPolicy policy = new QueryRefreshPolicy(10, 2000, 4.0, 500);
+
+        // never refreshed: immediately
+        assertEquals(0, policy.getRefreshDelayMs(10000, 0, 0));
+        // an isolated change to a cheap query: immediately
+        assertEquals(0, policy.getRefreshDelayMs(10000, 9000, 5));
+        // a burst of changes to a cheap query: after the min interval
+        assertEquals(8, policy.getRefreshDelayMs(10000, 9998, 1));
+        // a burst of changes to an expensive query: backoff...
+        assertEquals(200, policy.getRefreshDelayMs(10000, 10000, 50));
+        // ... bounded by the staleness limit
+        assertEquals(500, policy.getRefreshDelayMs(10000, 10000, 400));
+
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new QueryRefreshPolicy(20, 10, 1.0, 100));
+
+        final AbstractQuery query = (AbstractQuery) QueryBuilder
+            .select(SelectResult.expression(Meta.id))
+            .from(DataSource.database(baseTestDb))
+            .where(Expression.property(KEY).greaterThanOrEqualTo(Expression.intValue(0)));
+        assertNull(query.getRefreshPolicy());
+
+        final QueryRefreshPolicy fastPolicy = new QueryRefreshPolicy(0, 1000, 2.0, 1000);
+        query.setRefreshPolicy(fastPolicy);
+        assertSame(fastPolicy, query.getRefreshPolicy());
+
+        final BlockingQueue<Long> changes = new LinkedBlockingQueue<>();
+        ListenerToken token = query.addChangeListener(
+            testSerialExecutor,
+            change -> changes.add(System.currentTimeMillis()));
+
+        try {
+            assertNotNull(changes.poll(10, TimeUnit.SECONDS));
+            Thread.sleep(LiveQuery.LIVE_QUERY_UPDATE_INTERVAL_MS);
+
+            // an isolated change should not wait for the default interval
+            final long start = System.currentTimeMillis();
+            createDocNumbered(1);
+            final Long changedAt = changes.poll(10, TimeUnit.SECONDS);
+            assertNotNull(changedAt);
+            assertTrue(changedAt - start < LiveQuery.LIVE_QUERY_UPDATE_INTERVAL_MS);
+        }
+        finally {
+            query.removeChangeListener(token);
+        }
+    }
+
     // create test docs
     private void createDocNumbered(int i) throws CouchbaseLiteException {
         String docID = "doc-" + i;
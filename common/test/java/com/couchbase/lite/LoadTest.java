@@ -15,14 +15,29 @@
 //
 package com.couchbase.lite;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Test;
 
+import com.couchbase.lite.internal.core.C4Document;
+import com.couchbase.lite.internal.fleece.FLDict;
+import com.couchbase.lite.internal.fleece.FLEncoder;
+import com.couchbase.lite.internal.fleece.FLValue;
+import com.couchbase.lite.internal.fleece.JFLDict;
+import com.couchbase.lite.internal.fleece.JFLValue;
+import com.couchbase.lite.internal.utils.JsonUtils;
 import com.couchbase.lite.internal.utils.LoadIntegrationTest;
 import com.couchbase.lite.internal.utils.Report;
 
@@ -186,6 +201,251 @@ public class LoadTest extends BaseDbTest {
         logPerformanceStats("testUpdate2()", (System.currentTimeMillis() - start));
     }
 
+    // Compare importing NDJSON natively with parsing it into Maps and saving MutableDocuments
+    @Test
+    @LoadIntegrationTest
+    public void testImportJSON() throws CouchbaseLiteException, IOException, JSONException {
+        final int n = 10 * ITERATIONS;
+
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            buf.append("{\"_id\":\"doc-").append(i)
+                .append("\",\"tag\":\"Import\",\"index\":").append(i)
+                .append(",\"address\":{\"street\":\"").append(i).append(" Main street\",\"city\":\"Mountain View\"}")
+                .append(",\"phones\":[\"650-000-0001\",\"650-000-0002\"]}\n");
+        }
+        final byte[] ndjson = buf.toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.currentTimeMillis();
+        assertEquals(n, baseTestDb.importJSON(new ByteArrayInputStream(ndjson), "_id", 1000));
+        final long nativeMs = Math.max(1, System.currentTimeMillis() - start);
+        assertEquals(n, baseTestDb.getCount());
+
+        recreateBastTestDb();
+
+        start = System.currentTimeMillis();
+        final String[] lines = new String(ndjson, StandardCharsets.UTF_8).split("\n");
+        baseTestDb.inBatch(() -> {
+            try {
+                for (String line: lines) {
+                    final Map<String, Object> props = JsonUtils.fromJson(new JSONObject(line));
+                    baseTestDb.save(new MutableDocument((String) props.remove("_id"), props));
+                }
+            }
+            catch (JSONException | CouchbaseLiteException e) { throw new IllegalStateException("Import failed", e); }
+        });
+        final long mapMs = Math.max(1, System.currentTimeMillis() - start);
+        assertEquals(n, baseTestDb.getCount());
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: import %d docs: native %d docs/sec, via Map %d docs/sec",
+            n,
+            (n * 1000L) / nativeMs,
+            (n * 1000L) / mapMs);
+    }
+
+    // Compare reading a numeric column as Results with reading it into an array
+    @Test
+    @LoadIntegrationTest
+    public void testReadNumericColumn() throws CouchbaseLiteException {
+        final int n = 10 * ITERATIONS;
+        baseTestDb.inBatch(() -> {
+            for (int i = 0; i < n; i++) {
+                final MutableDocument doc = new MutableDocument();
+                doc.setLong("count", i);
+                doc.setDouble("price", i / 100.0);
+                baseTestDb.save(doc);
+            }
+        });
+
+        final Query query = QueryBuilder.select(SelectResult.property("count"), SelectResult.property("price"))
+            .from(DataSource.database(baseTestDb));
+
+        long start = System.nanoTime();
+        long sum = 0;
+        double total = 0;
+        for (Result result: query.execute()) {
+            sum += result.getLong(0);
+            total += result.getDouble(1);
+        }
+        final long resultNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final long[] counts = query.execute().allLongs(0);
+        final double[] prices = query.execute().allDoubles(1);
+        final long arrayNs = System.nanoTime() - start;
+
+        long arraySum = 0;
+        for (long count: counts) { arraySum += count; }
+        double arrayTotal = 0;
+        for (double price: prices) { arrayTotal += price; }
+        assertEquals(sum, arraySum);
+        assertEquals(total, arrayTotal, 0.001);
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: read %d rows of 2 numeric columns: Results %dms, arrays %dms",
+            n,
+            resultNs / 1000000L,
+            arrayNs / 1000000L);
+    }
+
+    // Compare serializing a deep query expression directly with going through org.json
+    @Test
+    @LoadIntegrationTest
+    @SuppressWarnings("unchecked")
+    public void testQueryJsonEncoding() throws JSONException {
+        Expression expr = Expression.property("number").equalTo(Expression.intValue(0));
+        for (int i = 1; i < 200; i++) {
+            final Expression term = Expression.property("name" + i).like(Expression.string("\"name\"\t" + i + "%"));
+            expr = ((i % 2) == 0) ? expr.and(term) : expr.or(term);
+        }
+
+        final List<Object> tree = (List<Object>) expr.asJSON();
+        final String json = JsonUtils.toJsonString(tree);
+        assertEquals(new JSONArray(JsonUtils.toJson(tree).toString()).toString(), new JSONArray(json).toString());
+
+        final int n = ITERATIONS;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) { assertNotNull(JsonUtils.toJson((List<Object>) expr.asJSON()).toString()); }
+        final long orgJsonNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) { assertNotNull(JsonUtils.toJsonString((List<Object>) expr.asJSON())); }
+        final long directNs = System.nanoTime() - start;
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: encode query JSON (%d chars): org.json %dus, direct %dus",
+            json.length(),
+            orgJsonNs / (n * 1000L),
+            directNs / (n * 1000L));
+    }
+
+    // Compare reading Fleece with the native decoder and with the Java decoder, for small and large collections
+    @Test
+    @LoadIntegrationTest
+    public void testFleeceDecoders() throws LiteCoreException {
+        for (int size: new int[] {10, 1000}) {
+            final String[] keys = new String[size];
+            final Map<String, Object> map = new HashMap<>();
+            final List<Object> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                keys[i] = "key" + i;
+                map.put(keys[i], (long) i);
+                list.add("item" + i);
+            }
+            final int n = (100 * ITERATIONS) / size;
+
+            final byte[] dictData = encodeFleece(map);
+            final FLDict flDict = FLValue.fromData(dictData).asFLDict();
+            final JFLDict jflDict = JFLValue.fromData(dictData, null).asFLDict();
+
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                for (String key: keys) { sum += flDict.get(key).asInt(); }
+            }
+            final long nativeGetNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long javaSum = 0;
+            for (int i = 0; i < n; i++) {
+                for (String key: keys) { javaSum += jflDict.get(key).asInt(); }
+            }
+            final long javaGetNs = System.nanoTime() - start;
+            assertEquals(sum, javaSum);
+
+            reportFleeceDecoders("dict lookup", size, nativeGetNs / ((long) n * size), javaGetNs / ((long) n * size));
+
+            reportFleeceDecode("dict", size, n, dictData);
+            reportFleeceDecode("array", size, n, encodeFleece(list));
+        }
+    }
+
+    // Compare key lookups with the native decoder and with the Java decoder, in saved documents,
+    // whose bodies use the database's shared keys
+    @Test
+    @LoadIntegrationTest
+    public void testFleeceDecodersSharedKeys() throws CouchbaseLiteException {
+        for (int size: new int[] {10, 100}) {
+            final String[] keys = new String[size];
+            final MutableDocument mDoc = new MutableDocument("shared" + size);
+            for (int i = 0; i < size; i++) {
+                keys[i] = "prop" + i;
+                mDoc.setLong(keys[i], i);
+            }
+            baseTestDb.save(mDoc);
+            final int n = (100 * ITERATIONS) / size;
+
+            final Document doc = baseTestDb.getDocument(mDoc.getId());
+            final C4Document c4doc = doc.getC4doc();
+            assertNotNull(c4doc);
+            final FLDict flDict = c4doc.getSelectedBody2();
+            final JFLDict jflDict = JFLValue.fromData(c4doc.getSelectedBodyBuffer(), baseTestDb.getSharedKeys())
+                .asFLDict();
+            assertNotNull(jflDict);
+
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                for (String key: keys) { sum += flDict.get(key).asInt(); }
+            }
+            final long nativeGetNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long javaSum = 0;
+            for (int i = 0; i < n; i++) {
+                for (String key: keys) { javaSum += jflDict.get(key).asInt(); }
+            }
+            final long javaGetNs = System.nanoTime() - start;
+            assertEquals(sum, javaSum);
+
+            reportFleeceDecoders(
+                "shared key lookup",
+                size,
+                nativeGetNs / ((long) n * size),
+                javaGetNs / ((long) n * size));
+        }
+    }
+
+    // Post throughput with direct executors: measures the notifier, not the delivery.
+    @Test
+    @LoadIntegrationTest
+    public void testChangeNotifierThroughput() throws InterruptedException {
+        for (int nListeners: new int[] {1, 10, 1000}) {
+            final ChangeNotifier<Integer> notifier = new ChangeNotifier<>();
+            final AtomicInteger delivered = new AtomicInteger();
+            for (int i = 0; i < nListeners; i++) {
+                notifier.addChangeListener(Runnable::run, c -> delivered.incrementAndGet());
+            }
+
+            final int nThreads = 4;
+            final int nPosts = 1000000 / nListeners;
+            final Thread[] posters = new Thread[nThreads];
+            for (int i = 0; i < nThreads; i++) {
+                posters[i] = new Thread(() -> { for (int j = 0; j < nPosts; j++) { notifier.postChange(j); } });
+            }
+
+            final long start = System.nanoTime();
+            for (Thread poster: posters) { poster.start(); }
+            for (Thread poster: posters) { poster.join(); }
+            final long elapsedNs = Math.max(1, System.nanoTime() - start);
+
+            assertEquals(nThreads * nPosts * nListeners, delivered.get());
+
+            Report.log(
+                LogLevel.INFO,
+                "PerformanceStats: ChangeNotifier, %d listeners, %d threads: %d posts/sec (%d deliveries/sec)",
+                nListeners,
+                nThreads,
+                (nThreads * (long) nPosts * 1000000000L) / elapsedNs,
+                (nThreads * (long) nPosts * nListeners * 1000000000L) / elapsedNs);
+        }
+    }
+
     private boolean updateMap(Map map, int i, long l) {
         Document doc = baseTestDb.getDocument(map.get("ID").toString());
         if (doc == null) { return false; }
@@ -242,6 +502,44 @@ public class LoadTest extends BaseDbTest {
         }
     }
 
+    private void reportFleeceDecode(String type, int size, int n, byte[] data) {
+        final FLValue flValue = FLValue.fromData(data);
+        final JFLValue jflValue = JFLValue.fromData(data, null);
+        assertNotNull(jflValue);
+        assertEquals(flValue.asObject(), jflValue.asObject());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) { assertNotNull(flValue.asObject()); }
+        final long nativeNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) { assertNotNull(jflValue.asObject()); }
+        final long javaNs = System.nanoTime() - start;
+
+        reportFleeceDecoders(type + " decode", size, nativeNs / n, javaNs / n);
+    }
+
+    private void reportFleeceDecoders(String op, int size, long nativeNs, long javaNs) {
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: Fleece %s, %d items: native %dns, Java %dns",
+            op,
+            size,
+            nativeNs,
+            javaNs);
+    }
+
+    private byte[] encodeFleece(Object value) throws LiteCoreException {
+        final FLEncoder enc = new FLEncoder();
+        try {
+            assertTrue(enc.writeValue(value));
+            return enc.finish();
+        }
+        finally {
+            enc.free();
+        }
+    }
+
     private void logPerformanceStats(String name, long time) {
         Report.log(LogLevel.INFO, "PerformanceStats: " + name + " -> " + time + " ms");
     }
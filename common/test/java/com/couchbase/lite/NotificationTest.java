@@ -15,8 +15,12 @@
 //
 package com.couchbase.lite;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -24,6 +28,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -54,6 +59,46 @@ public class NotificationTest extends BaseDbTest {
         assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
 
+    @Test
+    public void testCoalescedDatabaseChange() throws InterruptedException, CouchbaseLiteException {
+        final Database db = createDb(
+            "coalesce-db",
+            new DatabaseConfiguration().setChangeCoalescingWindowMs(500).setMaxChangedDocIDs(15));
+        try {
+            final BlockingQueue<DatabaseChange> changes = new LinkedBlockingQueue<>();
+            db.addChangeListener(testSerialExecutor, changes::add);
+
+            // separate commits, some to the same document: a single change
+            for (int i = 0; i < 20; i++) {
+                final MutableDocument doc = new MutableDocument(String.format(Locale.ENGLISH, "doc-%d", i % 10));
+                doc.setValue("count", i);
+                db.save(doc);
+            }
+
+            DatabaseChange change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            assertFalse(change.isOverflow());
+            assertEquals(10, change.getDocumentIDs().size());
+            assertNull(changes.poll(1, TimeUnit.SECONDS));
+
+            // too many documents to list
+            db.inBatch(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try { db.save(new MutableDocument(String.format(Locale.ENGLISH, "new-doc-%d", i))); }
+                    catch (CouchbaseLiteException e) { throw new RuntimeException(e); }
+                }
+            });
+
+            change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            assertTrue(change.isOverflow());
+            assertTrue(change.getDocumentIDs().isEmpty());
+        }
+        finally {
+            deleteDb(db);
+        }
+    }
+
     @Test
     public void testDocumentChange()
         throws InterruptedException, CouchbaseLiteException {
@@ -106,6 +151,44 @@ public class NotificationTest extends BaseDbTest {
 
     }
 
+    @Test
+    public void testManyDocumentChangeListeners() throws InterruptedException, CouchbaseLiteException {
+        final int nDocs = 2000;
+        final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+        final List<ListenerToken> tokens = new ArrayList<>();
+        for (int i = 0; i < nDocs; i++) {
+            tokens.add(baseTestDb.addDocumentChangeListener(
+                String.format(Locale.ENGLISH, "status-%d", i),
+                testSerialExecutor,
+                change -> changes.add(change.getDocumentID())));
+        }
+
+        try {
+            saveDocInBaseTestDb(new MutableDocument("unwatched"));
+            saveDocInBaseTestDb(new MutableDocument("status-7"));
+            saveDocInBaseTestDb(new MutableDocument("status-1999"));
+
+            assertEquals("status-7", changes.poll(5, TimeUnit.SECONDS));
+            assertEquals("status-1999", changes.poll(5, TimeUnit.SECONDS));
+            assertNull(changes.poll(500, TimeUnit.MILLISECONDS));
+        }
+        finally {
+            for (ListenerToken token: tokens) { baseTestDb.removeChangeListener(token); }
+        }
+
+        // the database listener still works after all of the document listeners are gone
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ListenerToken token = baseTestDb.addChangeListener(testSerialExecutor, change -> latch.countDown());
+        try {
+            saveDocInBaseTestDb(new MutableDocument("status-8"));
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertNull(changes.poll(500, TimeUnit.MILLISECONDS));
+        }
+        finally {
+            baseTestDb.removeChangeListener(token);
+        }
+    }
+
     @Test
     public void testExternalChanges()
         throws InterruptedException, CouchbaseLiteException {
@@ -16,6 +16,9 @@
 package com.couchbase.lite;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -25,18 +28,23 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.TimeZone;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.json.JSONException;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.couchbase.lite.internal.core.C4QueryCache;
 import com.couchbase.lite.internal.utils.Report;
 import com.couchbase.lite.internal.utils.SlowTest;
 
@@ -187,6 +195,191 @@ public class QueryTest extends BaseQueryTest {
         runTestWithNumbers(numbers, cases);
     }
 
+    @Test
+    public void testQueryCache() throws CouchbaseLiteException {
+        loadNumberedDocs(10);
+
+        final C4QueryCache cache = baseTestDb.getQueryCache();
+        assertNotNull(cache);
+
+        // Two identical queries share a compiled query
+        for (int i = 0; i < 2; i++) {
+            Query query = QueryBuilder.select(SelectResult.expression(Meta.id))
+                .from(DataSource.database(baseTestDb))
+                .where(EXPR_NUMBER1.lessThan(Expression.intValue(6)));
+            assertEquals(5, verifyQuery(query, (n, result) -> { }));
+        }
+        assertEquals(1, cache.getMisses());
+        assertTrue(cache.getHits() >= 1);
+
+        // Creating an index empties the cache
+        baseTestDb.createIndex("number1", IndexBuilder.valueIndex(ValueIndexItem.property("number1")));
+        assertEquals(0, cache.size());
+
+        Query query = QueryBuilder.select(SelectResult.expression(Meta.id))
+            .from(DataSource.database(baseTestDb))
+            .where(EXPR_NUMBER1.lessThan(Expression.intValue(6)));
+        assertEquals(5, verifyQuery(query, (n, result) -> { }));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testQueryCacheDisabled() throws CouchbaseLiteException {
+        baseTestDb = recreateDb(baseTestDb, new DatabaseConfiguration().setQueryCacheSize(0));
+        assertNull(baseTestDb.getQueryCache());
+
+        loadNumberedDocs(10);
+
+        Query query = QueryBuilder.select(SelectResult.expression(Meta.id))
+            .from(DataSource.database(baseTestDb))
+            .where(EXPR_NUMBER1.lessThan(Expression.intValue(6)));
+        assertEquals(5, verifyQuery(query, (n, result) -> { }));
+    }
+
+    @Test
+    public void testResultSetIteratorSharesCursor() throws CouchbaseLiteException {
+        loadNumberedDocs(10);
+
+        Query query = QueryBuilder.select(SelectResult.property("number1"))
+            .from(DataSource.database(baseTestDb))
+            .orderBy(Ordering.property("number1"));
+
+        final ResultSet rs = query.execute();
+        final Iterator<Result> itr = rs.iterator();
+        assertTrue(itr.hasNext());
+        assertTrue(itr.hasNext());
+        assertEquals(1, itr.next().getInt(0));
+        assertEquals(2, itr.next().getInt(0));
+
+        // The iterator does not read ahead of the rows it has returned
+        assertEquals(3, rs.next().getInt(0));
+
+        int n = 3;
+        while (itr.hasNext()) { assertEquals(++n, itr.next().getInt(0)); }
+        assertEquals(10, n);
+
+        assertNull(rs.next());
+        assertThrows(NoSuchElementException.class, itr::next);
+    }
+
+    @Test
+    public void testResultSetReadsRowsInBatches() throws CouchbaseLiteException {
+        // enough rows for several batches, of different sizes
+        final int n = 1000;
+        loadNumberedDocs(n);
+
+        Query query = QueryBuilder.select(
+            SelectResult.property("number1"),
+            SelectResult.property("number2"),
+            SelectResult.expression(EXPR_NUMBER1.divide(Expression.intValue(2))),
+            SelectResult.property("nothing"))
+            .from(DataSource.database(baseTestDb))
+            .orderBy(Ordering.property("number1"));
+
+        final List<Result> results = query.execute().allResults();
+        assertEquals(n, results.size());
+
+        // The results remain readable after the enumeration has moved past them
+        for (int i = 0; i < n; i++) {
+            final Result result = results.get(i);
+            assertEquals(i + 1, result.getInt(0));
+            assertEquals(i + 1, result.getLong("number1"));
+            assertEquals(n - (i + 1), result.getLong(1));
+            assertEquals((i + 1) / 2.0, result.getDouble(2), 0.0);
+            assertEquals((i + 1) / 2.0F, result.getFloat(2), 0.0F);
+            assertTrue(result.getBoolean(0));
+            assertEquals(i + 1, ((Number) result.getValue(0)).intValue());
+            assertFalse(result.contains("nothing"));
+            assertEquals(0, result.getInt(3));
+        }
+    }
+
+    @Test
+    public void testResultSetAllLongs() throws CouchbaseLiteException {
+        final int n = 1000;
+        loadNumberedDocs(n);
+
+        Query query = QueryBuilder.select(SelectResult.property("number1"), SelectResult.property("number2"))
+            .from(DataSource.database(baseTestDb))
+            .orderBy(Ordering.property("number1"));
+
+        long[] values = query.execute().allLongs(0);
+        assertEquals(n, values.length);
+        for (int i = 0; i < n; i++) { assertEquals(i + 1, values[i]); }
+
+        // Two columns, in row order, after reading a few rows as Results
+        final ResultSet rs = query.execute();
+        assertEquals(1, rs.next().getInt(0));
+        assertEquals(2, rs.next().getInt(0));
+        values = rs.allLongs(1, 0);
+        assertEquals(2 * (n - 2), values.length);
+        for (int i = 0; i < n - 2; i++) {
+            assertEquals(n - (i + 3), values[2 * i]);
+            assertEquals(i + 3, values[(2 * i) + 1]);
+        }
+        assertNull(rs.next());
+        assertEquals(0, rs.allLongs(0).length);
+
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> query.execute().allLongs(2));
+        assertThrows(IllegalArgumentException.class, () -> query.execute().allLongs());
+    }
+
+    @Test
+    public void testResultSetNextDoubles() throws CouchbaseLiteException {
+        final int n = 100;
+        loadNumberedDocs(n);
+
+        Query query = QueryBuilder.select(SelectResult.expression(EXPR_NUMBER1.divide(Expression.intValue(4))))
+            .from(DataSource.database(baseTestDb))
+            .orderBy(Ordering.property("number1"));
+
+        final ResultSet rs = query.execute();
+
+        // a direct buffer has no backing array
+        final DoubleBuffer buf = ByteBuffer.allocateDirect(30 * 8).asDoubleBuffer();
+        int i = 0;
+        int rows;
+        while ((rows = rs.nextDoubles(buf, 0)) > 0) {
+            assertTrue(rows <= 30);
+            buf.flip();
+            while (buf.hasRemaining()) { assertEquals(++i / 4.0, buf.get(), 0.0); }
+            buf.clear();
+        }
+        assertEquals(n, i);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResultSetNextLongsBufferTooSmall() throws CouchbaseLiteException {
+        loadNumberedDocs(10);
+
+        Query query = QueryBuilder.select(SelectResult.property("number1"), SelectResult.property("number2"))
+            .from(DataSource.database(baseTestDb));
+
+        query.execute().nextLongs(LongBuffer.allocate(1), 0, 1);
+    }
+
+    @Test
+    public void testResultSetStream() throws CouchbaseLiteException {
+        loadNumberedDocs(10);
+
+        Query query = QueryBuilder.select(SelectResult.property("number1"))
+            .from(DataSource.database(baseTestDb))
+            .orderBy(Ordering.property("number1"));
+
+        final ResultSet rs = query.execute();
+        assertEquals(1, rs.next().getInt(0));
+
+        final Spliterator<Result> spliterator = rs.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(9, spliterator.getExactSizeIfKnown());
+
+        final List<Integer> numbers = query.execute().stream()
+            .map(result -> result.getInt(0))
+            .filter(i -> (i % 2) == 0)
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10), numbers);
+    }
+
     @Test
     public void testWhereArithmetic() throws CouchbaseLiteException {
         Object[][] cases = {
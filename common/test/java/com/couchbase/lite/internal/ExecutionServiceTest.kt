@@ -290,6 +290,104 @@ class ExecutionServiceTest : PlatformBaseTest() {
         }
     }
 
+    // The gauges report the state of the underlying thread pool
+    @Test
+    fun testExecutionServiceGauges() {
+        val startLatch = CountDownLatch(THREADS)
+        val releaseLatch = CountDownLatch(1)
+        val finishLatch = CountDownLatch(THREADS + 2)
+
+        assertEquals(THREADS, baseService.maxPoolSize)
+
+        val executor = baseService.concurrentExecutor
+        for (i in 1..THREADS + 2) {
+            executor.execute {
+                startLatch.countDown()
+                try {
+                    releaseLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS)
+                } catch (ignore: InterruptedException) {
+                }
+                finishLatch.countDown()
+            }
+        }
+
+        try {
+            assertTrue(startLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS))
+            assertEquals(THREADS, baseService.activeThreadCount)
+            assertEquals(THREADS, baseService.poolSize)
+            assertEquals(2, baseService.queueDepth)
+        } finally {
+            releaseLatch.countDown()
+        }
+
+        assertTrue(finishLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS))
+        assertEquals(0, baseService.queueDepth)
+    }
+
+    // Tasks are counted, by owner, and their queue wait and run times are recorded
+    @Test
+    fun testExecutorStats() {
+        val nTasks = 10
+        val blockerLatch = CountDownLatch(1)
+        val startLatch = CountDownLatch(1)
+        val finishLatch = CountDownLatch(nTasks)
+
+        val executor = baseService.getSerialExecutor("test owner")
+
+        // Hold the executor, so that none of the tasks can start until all of them are queued
+        executor.execute {
+            blockerLatch.countDown()
+            try {
+                startLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS)
+            } catch (ignore: InterruptedException) {
+            }
+        }
+        assertTrue(blockerLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS))
+
+        for (i in 1..nTasks) {
+            executor.execute {
+                try {
+                    startLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS)
+                    Thread.sleep(10)
+                } catch (ignore: InterruptedException) {
+                }
+                finishLatch.countDown()
+            }
+        }
+
+        var stats = baseService.executorStats["test owner"]!!
+        assertEquals(nTasks, stats.maxQueueDepth)
+
+        startLatch.countDown()
+        assertTrue(finishLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS))
+        assertTrue(executor.stop(TIMEOUT_SEC, TimeUnit.SECONDS))
+
+        stats = baseService.executorStats["test owner"]!!
+        assertEquals(nTasks.toLong() + 1, stats.taskCount)
+        assertEquals(0, stats.queueDepth)
+        // all but the blocker ran for at least 10ms
+        assertTrue(stats.meanRunNs * (nTasks + 1) >= TimeUnit.MILLISECONDS.toNanos(10L * nTasks))
+        // the last task waited for all of the others
+        assertTrue(stats.maxWaitNs >= TimeUnit.MILLISECONDS.toNanos(10L * (nTasks - 1)))
+    }
+
+    // A task that throws is counted, and does not stop the tasks behind it
+    @Test
+    fun testExecutorStatsFailedTask() {
+        val finishLatch = CountDownLatch(1)
+
+        val executor = baseService.getSerialExecutor("failing owner")
+        executor.execute { throw IllegalStateException("test failure") }
+        executor.execute { finishLatch.countDown() }
+
+        assertTrue(finishLatch.await(TIMEOUT_SEC, TimeUnit.SECONDS))
+        assertTrue(executor.stop(TIMEOUT_SEC, TimeUnit.SECONDS))
+
+        val stats = baseService.executorStats["failing owner"]!!
+        assertEquals(2L, stats.taskCount)
+        assertEquals(0, stats.queueDepth)
+    }
+
     // A concurrent executor fails over before swamping the underlying executor's queue
     @Test
     fun testConcurrentExecutorFailover() {
@@ -0,0 +1,140 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class TimerWheelTest {
+    private static final Executor DIRECT = Runnable::run;
+
+    // A task with no delay runs immediately, on the caller's thread.
+    @Test
+    public void testScheduleNow() {
+        final TimerWheel wheel = new TimerWheel("test", 1);
+        final Thread caller = Thread.currentThread();
+        final Thread[] runner = new Thread[1];
+
+        wheel.schedule(0, DIRECT, () -> runner[0] = Thread.currentThread());
+
+        assertEquals(caller, runner[0]);
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    // Delays on either side of the cascade boundaries all fire, in order, and not early.
+    @Test
+    public void testScheduleAcrossLevels() throws InterruptedException {
+        final TimerWheel wheel = new TimerWheel("test", 1);
+        final long[] delays = {1, 5, 63, 64, 65, 130, 500, 4095, 4097};
+        final long[] elapsed = new long[delays.length];
+        final List<Integer> order = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(delays.length);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < delays.length; i++) {
+            final int n = i;
+            wheel.schedule(delays[i], DIRECT, () -> {
+                elapsed[n] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                synchronized (order) { order.add(n); }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+            assertTrue("timer " + delays[i] + " fired early: " + elapsed[i], elapsed[i] >= delays[i]);
+        }
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    // A cancelled task never runs.
+    @Test
+    public void testCancel() throws InterruptedException {
+        final TimerWheel wheel = new TimerWheel("test", 1);
+        final AtomicInteger cancelled = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        wheel.schedule(20, DIRECT, cancelled::incrementAndGet).cancel();
+        wheel.schedule(50, DIRECT, latch::countDown);
+        assertEquals(1, wheel.getPendingCount());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, cancelled.get());
+    }
+
+    // A task that throws does not stop the timer thread: later tasks still run.
+    @Test
+    public void testFailingTask() throws InterruptedException {
+        final TimerWheel wheel = new TimerWheel("test", 1);
+        final CountDownLatch failed = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        wheel.schedule(10, DIRECT, () -> {
+            failed.countDown();
+            throw new IllegalStateException("timer task failure");
+        });
+        wheel.schedule(50, DIRECT, latch::countDown);
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        wheel.schedule(10, DIRECT, latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    // Scheduling and cancelling large numbers of timers is cheap and accurate.
+    @Test
+    public void testManyTimers() throws InterruptedException {
+        final int nTimers = 100000;
+
+        final TimerWheel wheel = new TimerWheel("test", 1);
+        final AtomicInteger fired = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(nTimers / 2);
+
+        final List<ExecutionService.Cancellable> timers = new ArrayList<>();
+        for (int i = 0; i < nTimers; i++) {
+            final boolean keep = (i % 2) == 0;
+            timers.add(wheel.schedule(
+                500 + (i % 1000),
+                DIRECT,
+                () -> {
+                    if (!keep) { cancelled.incrementAndGet(); }
+                    fired.incrementAndGet();
+                    latch.countDown();
+                }));
+        }
+        for (int i = 1; i < nTimers; i += 2) { timers.get(i).cancel(); }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(nTimers / 2, fired.get());
+        assertEquals(0, cancelled.get());
+        assertFalse(wheel.getPendingCount() > 0);
+    }
+}
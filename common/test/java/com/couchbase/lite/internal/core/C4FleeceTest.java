@@ -15,8 +15,12 @@
 //
 package com.couchbase.lite.internal.core;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -25,11 +29,16 @@ import org.junit.Test;
 import com.couchbase.lite.LiteCoreException;
 import com.couchbase.lite.internal.fleece.FLEncoder;
 import com.couchbase.lite.internal.fleece.FLValue;
+import com.couchbase.lite.internal.fleece.JFLArray;
+import com.couchbase.lite.internal.fleece.JFLDict;
+import com.couchbase.lite.internal.fleece.JFLValue;
 
 import static com.couchbase.lite.internal.fleece.FLConstants.ValueType.DATA;
 import static com.couchbase.lite.internal.fleece.FLConstants.ValueType.DICT;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -83,4 +92,149 @@ public class C4FleeceTest extends C4BaseTest {
             enc.free();
         }
     }
+
+    // The Java decoder must read what the native decoder reads.
+    @Test
+    public void testJavaDecoder() throws LiteCoreException {
+        final Map<String, Object> map = new HashMap<>();
+        map.put("zero", 0L);
+        map.put("small", -2048L);
+        map.put("int", 123456789L);
+        map.put("negative", -123456789012L);
+        map.put("max", Long.MAX_VALUE);
+        map.put("min", Long.MIN_VALUE);
+        map.put("float", 1.5F);
+        map.put("double", Math.PI);
+        map.put("true", true);
+        map.put("false", false);
+        map.put("null", null);
+        map.put("", "empty key");
+        map.put("s", "");
+        map.put("string", "a string that is longer than fifteen bytes: ünïcödé");
+        map.put("array", Arrays.asList(1L, "two", 3.0, Arrays.asList(), new HashMap<>()));
+        final Map<String, Object> nested = new HashMap<>();
+        nested.put("key", "value");
+        map.put("dict", nested);
+
+        final byte[] data = encode(map);
+        final FLValue flValue = FLValue.fromData(data);
+        final JFLValue java = JFLValue.fromData(data, null);
+        assertNotNull(java);
+        assertEquals(flValue.asObject(), java.asObject());
+
+        final JFLDict dict = java.asFLDict();
+        assertNotNull(dict);
+        assertEquals(map.size(), dict.count());
+        for (String key: map.keySet()) {
+            final FLValue expected = flValue.asFLDict().get(key);
+            final JFLValue actual = dict.get(key);
+            assertNotNull(key, actual);
+            assertEquals(key, expected.getType(), actual.getType());
+            assertEquals(key, expected.asInt(), actual.asInt());
+            assertEquals(key, expected.asDouble(), actual.asDouble(), 0.0);
+            assertEquals(key, expected.asFloat(), actual.asFloat(), 0.0F);
+            assertEquals(key, expected.asBool(), actual.asBool());
+            assertEquals(key, expected.asString(), actual.asString());
+        }
+        assertNull(dict.get("missing"));
+        assertNull(dict.get("zzz"));
+
+        // data, in a direct buffer
+        final byte[] bytes = "Hello World!".getBytes(StandardCharsets.UTF_8);
+        final byte[] encoded = encode(Arrays.asList(bytes));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length);
+        direct.put(encoded).flip();
+        final JFLArray array = JFLValue.fromData(direct, null).asFLArray();
+        assertNotNull(array);
+        assertEquals(1, array.count());
+        Assert.assertArrayEquals(bytes, array.get(0).asData());
+        assertNull(array.get(1));
+    }
+
+    // Large collections have wide slots and varint counts.
+    @Test
+    public void testJavaDecoderLargeCollections() throws LiteCoreException {
+        final Map<String, Object> map = new HashMap<>();
+        final List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            map.put("key" + i, "value" + i);
+            list.add(((i % 2) == 0) ? (Object) ("item" + i) : (Object) (i * 1000000L));
+        }
+        map.put("list", list);
+
+        final byte[] data = encode(map);
+        final JFLDict dict = JFLValue.fromData(data, null).asFLDict();
+        assertNotNull(dict);
+        assertEquals(map.size(), dict.count());
+        assertEquals(map.size(), dict.getKeys().size());
+        assertEquals(FLValue.fromData(data).asObject(), dict.asObject());
+        for (int i = 0; i < 5000; i++) { assertEquals("value" + i, dict.get("key" + i).asString()); }
+
+        final JFLArray array = dict.get("list").asFLArray();
+        assertNotNull(array);
+        assertEquals(list.size(), array.count());
+        assertEquals(list, array.asArray());
+    }
+
+    // A count of 2047 or more is stored as 2047, followed by a varint holding the rest.
+    @Test
+    public void testJavaDecoderCollectionCounts() throws LiteCoreException {
+        for (int size: new int[] {2046, 2047, 2048, 2049, 4096}) {
+            final Map<String, Object> map = new HashMap<>();
+            final List<Object> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                map.put("key" + i, (long) i);
+                list.add((long) i);
+            }
+
+            final JFLDict dict = JFLValue.fromData(encode(map), null).asFLDict();
+            assertNotNull(dict);
+            assertEquals(size, dict.count());
+            assertEquals(map, dict.asDict());
+            assertEquals(size - 1, dict.get("key" + (size - 1)).asInt());
+
+            final JFLArray array = JFLValue.fromData(encode(list), null).asFLArray();
+            assertNotNull(array);
+            assertEquals(size, array.count());
+            assertEquals(list, array.asArray());
+            assertEquals(size - 1, array.get(size - 1).asInt());
+            assertNull(array.get(size));
+        }
+    }
+
+    // A body encoded by the database has shared keys: they are found by their IDs.
+    @Test
+    public void testJavaDecoderSharedKeys() throws LiteCoreException {
+        final StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 50; i++) { json.append("key").append(i).append(':').append(i).append(','); }
+        json.append("'not a shared key!':'string'}");
+        final byte[] data = json2fleece(json.toString());
+
+        final JFLDict dict = JFLValue.fromData(data, new SharedKeys(c4Database)).asFLDict();
+        assertNotNull(dict);
+        assertEquals(51, dict.count());
+        for (int i = 0; i < 50; i++) { assertEquals(i, dict.get("key" + i).asInt()); }
+        assertEquals("string", dict.get("not a shared key!").asString());
+        assertNull(dict.get("key50"));
+        assertNull(dict.get("missing"));
+        assertEquals(51, dict.getKeys().size());
+
+        // without the shared keys, only the string key can be found
+        final JFLDict unshared = JFLValue.fromData(data, null).asFLDict();
+        assertNotNull(unshared);
+        assertNull(unshared.get("key0"));
+        assertEquals("string", unshared.get("not a shared key!").asString());
+        assertEquals(1, unshared.getKeys().size());
+    }
+
+    private byte[] encode(Object value) throws LiteCoreException {
+        final FLEncoder enc = new FLEncoder();
+        try {
+            assertTrue(enc.writeValue(value));
+            return enc.finish();
+        }
+        finally {
+            enc.free();
+        }
+    }
 }
@@ -27,6 +27,7 @@ import com.couchbase.lite.LiteCoreException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -74,6 +75,23 @@ public class C4ObserverTest extends C4BaseTest {
         assertEquals(2, dbCallbackCalls.get());
     }
 
+    // A freed observer stops reporting changes and has none to read.
+    @Test
+    public void testFreedDBObserver() throws LiteCoreException {
+        final C4DatabaseObserver observer = this.c4Database.createDatabaseObserver(
+            (obs, context) -> dbCallbackCalls.incrementAndGet(),
+            this);
+
+        createRev("A", "1-aa", fleeceBody);
+        assertEquals(1, dbCallbackCalls.get());
+
+        observer.free();
+        assertNull(observer.getChanges(100));
+
+        createRev("B", "1-bb", fleeceBody);
+        assertEquals(1, dbCallbackCalls.get());
+    }
+
     // - Doc Observer
     @Test
     public void testDocObserver() throws LiteCoreException {
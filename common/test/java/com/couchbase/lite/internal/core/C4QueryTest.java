@@ -16,6 +16,7 @@
 package com.couchbase.lite.internal.core;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -586,6 +587,44 @@ public class C4QueryTest extends C4QueryBaseTest {
         e.free();
     }
 
+    // Reading rows in batches returns the same rows as reading them one at a time
+    @Test
+    public void testDBQueryNextRows() throws LiteCoreException {
+        compileSelect(json5("{WHAT: ['._id', ['length()', ['.name.first']]], ORDER_BY: [['._id']]}"));
+
+        List<String> expectedIds = new ArrayList<>();
+        List<Long> expectedLengths = new ArrayList<>();
+        C4QueryEnumerator e = query.run(new C4QueryOptions(), null);
+        assertNotNull(e);
+        while (e.next()) {
+            FLArrayIterator itr = e.getColumns();
+            expectedIds.add(itr.getValueAt(0).asString());
+            expectedLengths.add(itr.getValueAt(1).asInt());
+        }
+        e.free();
+        assertEquals(100, expectedIds.size());
+
+        e = query.run(new C4QueryOptions(), null);
+        assertNotNull(e);
+        int i = 0;
+        C4QueryRowBatch rows;
+        while ((rows = e.nextRows(2, 7)) != null) {
+            assertEquals(2, rows.getColumnCount());
+            assertTrue(rows.getRowCount() <= 7);
+            for (int row = 0; row < rows.getRowCount(); row++) {
+                assertEquals(0L, rows.getMissingColumns(row));
+                assertEquals(expectedIds.get(i), rows.getValue(row, 0).asString());
+                assertEquals((long) expectedLengths.get(i), rows.getInt(row, 1));
+                assertEquals((double) expectedLengths.get(i), rows.getDouble(row, 1), 0.0);
+                assertTrue(rows.getBoolean(row, 1));
+                i++;
+            }
+        }
+        assertNull(e.nextRows(2, 7));
+        e.free();
+        assertEquals(100, i);
+    }
+
     // - DB Query ANY nested
     // NOTE: in C4NestedQueryTest
 
@@ -21,9 +21,12 @@ import java.io.File;
 import java.io.IOException;
 
 import com.couchbase.lite.internal.CouchbaseLiteInternal;
+import com.couchbase.lite.internal.JavaExecutionService;
 
 
 public final class CouchbaseLite {
+    public static final int DEFAULT_THREAD_POOL_SIZE = JavaExecutionService.DEFAULT_THREAD_POOL_SIZE;
+
     // Singleton
     private CouchbaseLite() {}
 
@@ -38,7 +41,38 @@ public final class CouchbaseLite {
      *
      * @param rootDirectory the root directory for CBL files
      */
-    public static void init(@Nullable File rootDirectory) {
+    public static void init(@Nullable File rootDirectory) { init(rootDirectory, DEFAULT_THREAD_POOL_SIZE); }
+
+    /**
+     * Initialize CouchbaseLite library.
+     * This method allows specifying a root directory for CBL files,
+     * and the maximum number of threads that CouchbaseLite uses for background tasks: database and
+     * replicator change notifications, conflict resolution, live queries, and so on.
+     * The default is twice the number of processors, plus one.
+     * The size must be set in the first call to init, before any database is opened.
+     *
+     * @param rootDirectory  the root directory for CBL files
+     * @param threadPoolSize the maximum number of background threads
+     */
+    public static void init(@Nullable File rootDirectory, int threadPoolSize) {
+        init(rootDirectory, threadPoolSize, false);
+    }
+
+    /**
+     * Initialize CouchbaseLite library.
+     * This method allows specifying a root directory for CBL files, and how CouchbaseLite runs background tasks.
+     * When useVirtualThreads is true and the JVM supports them (JDK 21 and later), each background task
+     * runs on its own virtual thread: tasks that block do not delay other tasks.  Tasks that must run in order
+     * still do.  Listeners added without an executor are still called on a single, main, thread:
+     * listeners that block should be added with an executor.
+     * The thread pool size is ignored when virtual threads are used.
+     * If virtual threads are not available, CouchbaseLite uses a thread pool.
+     *
+     * @param rootDirectory     the root directory for CBL files
+     * @param threadPoolSize    the maximum number of background threads, when not using virtual threads
+     * @param useVirtualThreads true to run background tasks on virtual threads
+     */
+    public static void init(@Nullable File rootDirectory, int threadPoolSize, boolean useVirtualThreads) {
         String rootDirPath = null;
         if (rootDirectory != null) {
             try { rootDirPath = rootDirectory.getCanonicalPath(); }
@@ -47,6 +81,6 @@ public final class CouchbaseLite {
             }
         }
 
-        CouchbaseLiteInternal.init(new MValueDelegate(), rootDirPath);
+        CouchbaseLiteInternal.init(new MValueDelegate(), rootDirPath, threadPoolSize, useVirtualThreads);
     }
 }
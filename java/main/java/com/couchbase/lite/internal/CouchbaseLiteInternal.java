@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.couchbase.lite.LogDomain;
@@ -53,6 +54,11 @@ public final class CouchbaseLiteInternal {
 
     private static final AtomicReference<ExecutionService> EXECUTION_SERVICE = new AtomicReference<>();
 
+    private static final AtomicInteger THREAD_POOL_SIZE
+        = new AtomicInteger(JavaExecutionService.DEFAULT_THREAD_POOL_SIZE);
+
+    private static final AtomicBoolean USE_VIRTUAL_THREADS = new AtomicBoolean(false);
+
     private static final AtomicBoolean INITIALIZED = new AtomicBoolean(false);
 
     private static final Object LOCK = new Object();
@@ -63,7 +69,16 @@ public final class CouchbaseLiteInternal {
     private static String tmpDirPath;
 
     public static void init(@NonNull MValue.Delegate mValueDelegate, @Nullable String rootDirectoryPath) {
+        init(mValueDelegate, rootDirectoryPath, JavaExecutionService.DEFAULT_THREAD_POOL_SIZE, false);
+    }
+
+    public static void init(
+        @NonNull MValue.Delegate mValueDelegate,
+        @Nullable String rootDirectoryPath,
+        int threadPoolSize,
+        boolean useVirtualThreads) {
         Preconditions.assertNotNull(mValueDelegate, "mValueDelegate");
+        Preconditions.assertPositive(threadPoolSize, "thread pool size");
 
         if (INITIALIZED.getAndSet(true)) { return; }
 
@@ -81,6 +96,18 @@ public final class CouchbaseLiteInternal {
         MValue.registerDelegate(mValueDelegate);
 
         Log.initLogging(loadErrorMessages());
+
+        THREAD_POOL_SIZE.set(threadPoolSize);
+        if (useVirtualThreads && !VirtualThreadExecutionService.isAvailable()) {
+            Log.w(LogDomain.DATABASE, "Virtual threads are not available: using a thread pool");
+            useVirtualThreads = false;
+        }
+        USE_VIRTUAL_THREADS.set(useVirtualThreads);
+
+        if ((EXECUTION_SERVICE.get() != null)
+            && (useVirtualThreads || (threadPoolSize != JavaExecutionService.DEFAULT_THREAD_POOL_SIZE))) {
+            Log.w(LogDomain.DATABASE, "Execution service already in use: configuration ignored");
+        }
     }
 
     public static boolean isDebugging() { return false; }
@@ -91,7 +118,11 @@ public final class CouchbaseLiteInternal {
     public static ExecutionService getExecutionService() {
         final ExecutionService executionService = EXECUTION_SERVICE.get();
         if (executionService != null) { return executionService; }
-        EXECUTION_SERVICE.compareAndSet(null, new JavaExecutionService());
+        EXECUTION_SERVICE.compareAndSet(
+            null,
+            (USE_VIRTUAL_THREADS.get())
+                ? new VirtualThreadExecutionService()
+                : new JavaExecutionService(THREAD_POOL_SIZE.get()));
         return EXECUTION_SERVICE.get();
     }
 
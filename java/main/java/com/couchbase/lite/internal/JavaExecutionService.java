@@ -19,10 +19,7 @@ import android.support.annotation.NonNull;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +40,8 @@ public class JavaExecutionService extends AbstractExecutionService {
     //---------------------------------------------
     private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
 
+    public static final int DEFAULT_THREAD_POOL_SIZE = CPU_COUNT * 2 + 1;
+
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
         private final AtomicInteger id = new AtomicInteger(1);
 
@@ -55,41 +54,35 @@ public class JavaExecutionService extends AbstractExecutionService {
         }
     };
 
-    private static final ThreadPoolExecutor THREAD_POOL_EXECUTOR = new ThreadPoolExecutor(
-        2, CPU_COUNT * 2 + 1,        // pool varies between two threads and 2xCPUs
-        30, TimeUnit.SECONDS,        // unused threads die after 30 sec
-        new LinkedBlockingQueue<>(), // unbounded queue
-        THREAD_FACTORY);             // nice recognizable names for our threads.
-
-    //---------------------------------------------
-    // Types
-    //---------------------------------------------
-    private static class CancellableTask implements Cancellable {
-        private final Future future;
-
-        private CancellableTask(@NonNull Future future) {
-            Preconditions.assertNotNull(future, "future");
-            this.future = future;
-        }
-
-        @Override
-        public void cancel() { future.cancel(false); }
+    // A ThreadPoolExecutor adds threads beyond its core size only when its queue is full:
+    // with an unbounded queue, it never would.  Instead, the core size is the maximum size,
+    // and idle core threads are allowed to time out.
+    @NonNull
+    private static ThreadPoolExecutor createThreadPool(int size) {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            size, size,                  // pool varies between zero and `size` threads
+            30, TimeUnit.SECONDS,        // unused threads die after 30 sec
+            new LinkedBlockingQueue<>(), // unbounded queue
+            THREAD_FACTORY);             // nice recognizable names for our threads.
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
-
     //---------------------------------------------
     // Instance variables
     //---------------------------------------------
     private final Executor mainExecutor;
-    private final ScheduledExecutorService scheduler;
+    private final TimerWheel scheduler;
 
     //---------------------------------------------
     // Constructor
     //---------------------------------------------
-    public JavaExecutionService() {
-        super(THREAD_POOL_EXECUTOR);
+    public JavaExecutionService() { this(DEFAULT_THREAD_POOL_SIZE); }
+
+    public JavaExecutionService(int threadPoolSize) {
+        super(createThreadPool((int) Preconditions.assertPositive(threadPoolSize, "thread pool size")));
         mainExecutor = Executors.newSingleThreadExecutor();
-        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler = new TimerWheel("CBL timer");
     }
 
     //---------------------------------------------
@@ -102,15 +95,7 @@ public class JavaExecutionService extends AbstractExecutionService {
     @NonNull
     @Override
     public Cancellable postDelayedOnExecutor(long delayMs, @NonNull Executor executor, @NonNull Runnable task) {
-        Preconditions.assertNotNull(executor, "executor");
-        Preconditions.assertNotNull(task, "task");
-        final Runnable delayedTask = () -> {
-            try { executor.execute(task); }
-            catch (RejectedExecutionException ignore) { }
-        };
-
-        final Future future = scheduler.schedule(delayedTask, delayMs, TimeUnit.MILLISECONDS);
-        return new CancellableTask(future);
+        return scheduler.schedule(delayMs, executor, task);
     }
 
     @Override
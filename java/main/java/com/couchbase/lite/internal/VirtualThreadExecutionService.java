@@ -0,0 +1,215 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal;
+
+import android.support.annotation.GuardedBy;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.lite.LogDomain;
+import com.couchbase.lite.internal.support.Log;
+import com.couchbase.lite.internal.utils.Preconditions;
+
+
+/**
+ * ExecutionService that runs each background task on its own virtual thread.
+ * Tasks that block, listeners doing I/O, for instance, do not starve other tasks of threads.
+ * Serial executors keep their ordering guarantee: a serial executor submits its next task
+ * only when the previous one completes.
+ * Virtual threads are available on JDK 21 and later: use <code>isAvailable</code> before creating one of these.
+ */
+public final class VirtualThreadExecutionService implements ExecutionService {
+    private static final LogDomain DOMAIN = LogDomain.DATABASE;
+
+    //---------------------------------------------
+    // Types
+    //---------------------------------------------
+    // There is no pool to exhaust, so there is no need for a pending queue.
+    private static class ConcurrentExecutor implements CloseableExecutor {
+        @NonNull
+        private final Executor executor;
+
+        @NonNull
+        private final ExecutorStats stats;
+
+        // a non-null stop latch is the flag that this executor has been stopped
+        @GuardedBy("this")
+        @Nullable
+        private CountDownLatch stopLatch;
+
+        @GuardedBy("this")
+        private int running;
+
+        ConcurrentExecutor(@NonNull Executor executor, @NonNull ExecutorStats stats) {
+            this.executor = executor;
+            this.stats = stats;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable task) {
+            Preconditions.assertNotNull(task, "task");
+
+            synchronized (this) {
+                if (stopLatch != null) { throw new ExecutorClosedException("Executor has been stopped"); }
+                running++;
+            }
+
+            final AbstractExecutionService.InstrumentedTask newTask
+                = new AbstractExecutionService.InstrumentedTask(task, this::finishTask, stats);
+            try { executor.execute(newTask); }
+            catch (RejectedExecutionException e) {
+                newTask.abandon();
+                finishTask();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean stop(long timeout, @NonNull TimeUnit unit) {
+            Preconditions.assertThat(timeout, "timeout must be >= 0", x -> x >= 0);
+            Preconditions.assertNotNull(unit, "time unit");
+
+            final CountDownLatch latch;
+            synchronized (this) {
+                if (stopLatch == null) { stopLatch = new CountDownLatch(1); }
+                if (running <= 0) { return true; }
+                latch = stopLatch;
+            }
+
+            try { return latch.await(timeout, unit); }
+            catch (InterruptedException ignore) { }
+
+            return false;
+        }
+
+        private void finishTask() {
+            final CountDownLatch latch;
+            synchronized (this) {
+                if (--running > 0) { return; }
+                latch = stopLatch;
+            }
+
+            if (latch != null) { latch.countDown(); }
+        }
+    }
+
+    //---------------------------------------------
+    // Class methods
+    //---------------------------------------------
+
+    /**
+     * Virtual threads are available only on JDK 21 and later.
+     *
+     * @return true if this JVM supports virtual threads.
+     */
+    public static boolean isAvailable() { return getVirtualThreadExecutorFactory() != null; }
+
+    @Nullable
+    private static Method getVirtualThreadExecutorFactory() {
+        try { return Executors.class.getMethod("newVirtualThreadPerTaskExecutor"); }
+        catch (NoSuchMethodException ignore) { }
+        return null;
+    }
+
+    @NonNull
+    private static ExecutorService createVirtualThreadExecutor() {
+        final Method factory = getVirtualThreadExecutorFactory();
+        if (factory == null) { throw new UnsupportedOperationException("Virtual threads are not available"); }
+
+        try { return (ExecutorService) factory.invoke(null); }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed creating virtual thread executor", e);
+        }
+    }
+
+    //---------------------------------------------
+    // Instance variables
+    //---------------------------------------------
+    @NonNull
+    private final ExecutorService baseExecutor;
+    @NonNull
+    private final ConcurrentExecutor concurrentExecutor;
+    @NonNull
+    private final ExecutorStats.Registry executorStats = new ExecutorStats.Registry();
+    @NonNull
+    private final Executor mainExecutor;
+    @NonNull
+    private final TimerWheel scheduler;
+
+    //---------------------------------------------
+    // Constructor
+    //---------------------------------------------
+
+    /**
+     * Create a virtual thread execution service.
+     *
+     * @throws UnsupportedOperationException if virtual threads are not available.
+     */
+    public VirtualThreadExecutionService() {
+        baseExecutor = createVirtualThreadExecutor();
+        concurrentExecutor = new ConcurrentExecutor(baseExecutor, executorStats.get(OWNER_CONCURRENT));
+        mainExecutor = Executors.newSingleThreadExecutor();
+        // The scheduler's thread only hands delayed tasks to their executors: it never blocks.
+        scheduler = new TimerWheel("CBL timer");
+        Log.i(DOMAIN, "Using virtual threads for background tasks");
+    }
+
+    //---------------------------------------------
+    // Public methods
+    //---------------------------------------------
+    @NonNull
+    @Override
+    public Executor getMainExecutor() { return mainExecutor; }
+
+    @NonNull
+    @Override
+    public CloseableExecutor getSerialExecutor() { return getSerialExecutor(OWNER_SERIAL); }
+
+    @NonNull
+    @Override
+    public CloseableExecutor getSerialExecutor(@NonNull String owner) {
+        return new AbstractExecutionService.SerialExecutor(baseExecutor, executorStats.get(owner));
+    }
+
+    @NonNull
+    @Override
+    public Map<String, ExecutorStats.Snapshot> getExecutorStats() { return executorStats.snapshot(); }
+
+    @NonNull
+    @Override
+    public CloseableExecutor getConcurrentExecutor() { return concurrentExecutor; }
+
+    @NonNull
+    @Override
+    public Cancellable postDelayedOnExecutor(long delayMs, @NonNull Executor executor, @NonNull Runnable task) {
+        return scheduler.schedule(delayMs, executor, task);
+    }
+
+    @Override
+    public void cancelDelayedTask(@NonNull Cancellable cancellableTask) {
+        Preconditions.assertNotNull(cancellableTask, "future");
+        cancellableTask.cancel();
+    }
+}
@@ -0,0 +1,83 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.couchbase.lite.internal.core.SharedKeys;
+import com.couchbase.lite.internal.utils.Report;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+
+// Heap allocation can only be measured on the JVM.
+public class DocumentAllocationTest extends BaseDbTest {
+    private static final int N_KEYS = 20;
+    private static final int ITERATIONS = 10000;
+
+    // Compare the allocation per Document.toMap() with and without cached shared key strings.
+    @Test
+    public void testToMapAllocation() throws CouchbaseLiteException {
+        final java.lang.management.ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(mxBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) mxBean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final MutableDocument mDoc = new MutableDocument("doc");
+        for (int i = 0; i < N_KEYS; i++) { mDoc.setInt("property" + i, i); }
+        saveDocInBaseTestDb(mDoc);
+
+        final SharedKeys sharedKeys = baseTestDb.getSharedKeys();
+        assertNotNull(sharedKeys);
+
+        final long tid = Thread.currentThread().getId();
+
+        // warm up
+        for (int i = 0; i < ITERATIONS; i++) { baseTestDb.getDocument("doc").toMap(); }
+
+        // the cost of invalidating the cache, alone
+        long start = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ITERATIONS; i++) { sharedKeys.invalidate(); }
+        final long invalidateBytes = threads.getThreadAllocatedBytes(tid) - start;
+
+        // every key decoded anew
+        start = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sharedKeys.invalidate();
+            baseTestDb.getDocument("doc").toMap();
+        }
+        final long uncachedBytes = threads.getThreadAllocatedBytes(tid) - start - invalidateBytes;
+
+        // every key cached
+        start = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ITERATIONS; i++) { baseTestDb.getDocument("doc").toMap(); }
+        final long cachedBytes = threads.getThreadAllocatedBytes(tid) - start;
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: Document.toMap(), %d keys: %d bytes/call uncached, %d bytes/call cached",
+            N_KEYS,
+            uncachedBytes / ITERATIONS,
+            cachedBytes / ITERATIONS);
+
+        assertTrue(cachedBytes < uncachedBytes);
+    }
+}
@@ -0,0 +1,96 @@
+//
+// Copyright (c) 2020 Couchbase, Inc All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+package com.couchbase.lite.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.couchbase.lite.LogLevel;
+import com.couchbase.lite.PlatformBaseTest;
+import com.couchbase.lite.internal.utils.Report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+
+public class VirtualThreadExecutionServiceTest extends PlatformBaseTest {
+    private static final int BLOCKING_TASKS = 400;
+    private static final long BLOCKING_TASK_MS = 50;
+
+    @Before
+    public void setUpVirtualThreadExecutionServiceTest() { assumeTrue(VirtualThreadExecutionService.isAvailable()); }
+
+    // The serial executor executes in order, even though each task runs on a different thread.
+    @Test
+    public void testSerialExecutorOrdering() throws InterruptedException {
+        final ExecutionService.CloseableExecutor executor = new VirtualThreadExecutionService().getSerialExecutor();
+
+        final int n = 1000;
+        final List<Integer> order = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(n);
+        for (int i = 0; i < n; i++) {
+            final int id = i;
+            executor.execute(() -> {
+                synchronized (order) { order.add(id); }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < n; i++) { assertEquals(Integer.valueOf(i), order.get(i)); }
+        assertTrue(executor.stop(1, TimeUnit.SECONDS));
+    }
+
+    // Blocking tasks, like listeners doing I/O, on a small pool and on virtual threads.
+    @Test
+    public void testBlockingTaskThroughput() throws InterruptedException {
+        final long poolMs = runBlockingTasks(new JavaExecutionService(4));
+        final long virtualMs = runBlockingTasks(new VirtualThreadExecutionService());
+
+        Report.log(
+            LogLevel.INFO,
+            "PerformanceStats: %d tasks blocking %dms: 4 thread pool %dms, virtual threads %dms",
+            BLOCKING_TASKS,
+            BLOCKING_TASK_MS,
+            poolMs,
+            virtualMs);
+
+        assertTrue(virtualMs < poolMs);
+    }
+
+    private long runBlockingTasks(ExecutionService service) throws InterruptedException {
+        final ExecutionService.CloseableExecutor executor = service.getConcurrentExecutor();
+        final CountDownLatch latch = new CountDownLatch(BLOCKING_TASKS);
+
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < BLOCKING_TASKS; i++) {
+            executor.execute(() -> {
+                try { Thread.sleep(BLOCKING_TASK_MS); }
+                catch (InterruptedException ignore) { }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+
+        return System.currentTimeMillis() - start;
+    }
+}